@@ -0,0 +1,67 @@
+package mancala;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole random games through MancalaGame, the way the GUI and the
+ * tournament runner drive the rules: legal moves, tryMove and the
+ * game-over check after every move.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+
+    @Param({"1", "2"})
+    private int ruleSet; // 1 for Kalah, 2 for Ayo
+
+    private MancalaGame game;
+    private Player one;
+    private SplittableRandom random;
+
+    /**
+     * Set up one game to be replayed from the start by every call.
+     */
+    @Setup
+    public void setUp() {
+        this.game = new MancalaGame(this.ruleSet);
+        this.one = new Player(new UserProfile("one"));
+        this.game.setPlayers(this.one, new Player(new UserProfile("two")));
+        this.random = new SplittableRandom(42);
+    }
+
+    /**
+     * Play one random game to the end.
+     *
+     * @return The number of moves made.
+     */
+    @Benchmark
+    public int randomGame() {
+        this.game.startNewGame();
+        this.game.setCurrentPlayer(this.one);
+        int moves = 0;
+        while (!this.game.isGameOver()) {
+            final int playerNum = this.game.getCurrentPlayer() == this.one ? 1 : 2;
+            this.game.tryMove(SearchEngine.randomLegalPit(this.game.legalMoves(), playerNum, this.random));
+            moves++;
+        }
+        this.game.finishGame();
+        return moves;
+    }
+}
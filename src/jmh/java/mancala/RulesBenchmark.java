@@ -0,0 +1,135 @@
+package mancala;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-move costs of the rules engine. Each call copies one of a fixed
+ * set of mid-game positions onto the board and then makes one legal move
+ * from it, so the branches see a mix of sowings rather than the same one
+ * every time. The copy is a 14 int arraycopy and is included in every
+ * score; copyPosition measures it alone.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RulesBenchmark {
+
+    private static final int POSITIONS = 64; // a power of two, so the next position is a mask away
+
+    @Param({"1", "2"})
+    private int ruleSet; // 1 for Kalah, 2 for Ayo
+
+    private MancalaGame game;
+    private GameRules rules;
+    private MancalaDataStructure board;
+    private MancalaDataStructure scratch;
+    private MancalaDataStructure[] positions;
+    private int[] pits;
+    private int[] players;
+    private int next;
+
+    /**
+     * Play seeded random games to collect positions and a legal move for each.
+     */
+    @Setup
+    public void setUp() {
+        this.game = new MancalaGame(this.ruleSet);
+        final Player one = new Player(new UserProfile("one"));
+        this.game.setPlayers(one, new Player(new UserProfile("two")));
+        this.game.setCurrentPlayer(one);
+        this.rules = this.game.getBoard();
+        this.board = this.game.getDataStructure();
+        this.scratch = new MancalaDataStructure();
+        this.positions = new MancalaDataStructure[POSITIONS];
+        this.pits = new int[POSITIONS];
+        this.players = new int[POSITIONS];
+
+        final Random random = new Random(42);
+        int found = 0;
+        while (found < POSITIONS) {
+            this.game.startNewGame();
+            this.game.setCurrentPlayer(one);
+            for (int ply = random.nextInt(30); ply >= 0 && !this.game.isGameOver(); ply--) {
+                final int pit = randomMove(random);
+                if (ply == 0) {
+                    this.positions[found] = new MancalaDataStructure();
+                    this.positions[found].copyFrom(this.board);
+                    this.pits[found] = pit;
+                    this.players[found] = pit < 7 ? 1 : 2;
+                    found++;
+                }
+                this.game.tryMove(pit);
+            }
+        }
+    }
+
+    /*a random legal pit for the player to move*/
+    private int randomMove(final Random random) {
+        final int playerNum = this.game.getCurrentPlayer() == this.game.getPlayers().get(0) ? 1 : 2;
+        return SearchEngine.randomLegalPit(this.game.legalMoves(), playerNum, random);
+    }
+
+    /*copy the next position onto a board and return its index*/
+    private int load(final MancalaDataStructure target) {
+        final int index = this.next++ & POSITIONS - 1;
+        target.copyFrom(this.positions[index]);
+        return index;
+    }
+
+    @Benchmark
+    public int copyPosition() {
+        return load(this.scratch);
+    }
+
+    @Benchmark
+    public int moveStones() throws InvalidMoveException {
+        final int index = load(this.board);
+        return this.rules.moveStones(this.pits[index], this.players[index]);
+    }
+
+    @Benchmark
+    public int distributeStones() {
+        final int index = load(this.board);
+        this.rules.setPlayer(this.players[index]);
+        return this.rules.distributeStones(this.pits[index]);
+    }
+
+    @Benchmark
+    public int sowOnScratchBoard() {
+        final int index = load(this.scratch);
+        return this.rules.sowStones(this.scratch, this.pits[index], this.players[index]);
+    }
+
+    @Benchmark
+    public int lapWithNext() {
+        final int index = load(this.scratch);
+        this.scratch.setIterator(this.pits[index], this.players[index], false);
+        int stones = 0;
+        for (int i = 0; i < 13; i++) {
+            stones += this.scratch.next().getStoneCount();
+        }
+        return stones;
+    }
+
+    @Benchmark
+    public boolean isGameOver() {
+        load(this.board);
+        return this.game.isGameOver();
+    }
+}
@@ -0,0 +1,95 @@
+package mancala;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saving and loading a game part way through, as "Save and Quit" and
+ * "Load Game" do, with Java serialization and with GameStateCodec.
+ * Saver always writes under assets/, so the benchmark file is removed
+ * again afterwards.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SaverBenchmark {
+
+    private static final String FILE = "jmh_benchmark_game.ser";
+    private static final String BINARY_FILE = "jmh_benchmark_game.bin";
+
+    private MancalaGame game;
+
+    /**
+     * Set up a Kalah game a few moves in.
+     *
+     * @throws IOException If the benchmark file cannot be written.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        this.game = new MancalaGame(1);
+        final Player one = new Player(new UserProfile("one"));
+        this.game.setPlayers(one, new Player(new UserProfile("two")));
+        this.game.setCurrentPlayer(one);
+        for (final int pit : new int[] {3, 8, 2, 12, 6}) {
+            this.game.tryMove(pit);
+        }
+        Saver.saveObject(this.game, FILE);
+        Saver.saveGame(this.game, BINARY_FILE);
+    }
+
+    /**
+     * Remove the benchmark files.
+     *
+     * @throws IOException If the files cannot be removed.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(Path.of("assets", FILE));
+        Files.deleteIfExists(Path.of("assets", BINARY_FILE));
+    }
+
+    @Benchmark
+    public void save() throws IOException {
+        Saver.saveObject(this.game, FILE);
+    }
+
+    @Benchmark
+    public Serializable load() throws IOException {
+        return Saver.loadObject(FILE);
+    }
+
+    @Benchmark
+    public Serializable roundTrip() throws IOException {
+        Saver.saveObject(this.game, FILE);
+        return Saver.loadObject(FILE);
+    }
+
+    @Benchmark
+    public byte[] encodeState() throws IOException {
+        return GameStateCodec.encode(this.game);
+    }
+
+    @Benchmark
+    public MancalaGame binaryRoundTrip() throws IOException {
+        Saver.saveGame(this.game, BINARY_FILE);
+        return Saver.loadGame(BINARY_FILE, null);
+    }
+}
@@ -6,8 +6,13 @@ package mancala;
 public class AyoRules extends GameRules {
 
     private static final long serialVersionUID = 1L;
+    private static final int CELLS = 14;
+    private static final int CYCLE_CHECK_AFTER = 16; // short chains never repeat, skip the checks
+    private static final int DEFAULT_RELAY_LIMIT = 1000;
     private final MancalaDataStructure gameBoard;
-    private boolean setStartPit = true;
+    private int relayLimit = DEFAULT_RELAY_LIMIT;
+    private int relayDepth = 0;
+    private boolean relayCutShort = false;
 
     /**
      * Constructs AyoRules and initializes the game board.
@@ -29,16 +34,9 @@ public class AyoRules extends GameRules {
     public int moveStones(final int startPit, final int playerNum) throws InvalidMoveException {
 
         final int inStore = gameBoard.getStoreCount(playerNum);
-        final int numMoves = getNumStones(startPit); // Get number of moves (# of stones in pit)
 
-        if (!checkOwnPit(playerNum, startPit)) {
+        if (tryMove(startPit, playerNum) != MOVE_OK) {
             throw new InvalidMoveException();
-        } else if (numMoves <= 0) {
-            throw new InvalidMoveException();
-        } else {
-            setPlayer(playerNum);
-            gameBoard.setIterator(startPit, playerNum, true);
-            distributeStones(startPit);
         }
 
         return gameBoard.getStoreCount(playerNum) - inStore; // return amount of stones added to store
@@ -48,37 +46,160 @@ public class AyoRules extends GameRules {
      * Distribute stones from a pit and return the number distributed.
      *
      * @param startPit The starting pit for distribution.
-     * @return The number of stones distributed.
+     * @return The number of stones distributed from the starting pit plus any captured.
      */
     @Override
     protected int distributeStones(final int startPit) {
 
-        int numStones = gameBoard.removeStones(startPit);
-        int toDistribute = numStones; // Get amount to distribute (# of stones in pit)
-
-        if (setStartPit) {
-            gameBoard.setIterator(startPit, getPlayer(), true);
-        }
+        final int numStones = gameBoard.getNumStones(startPit);
+        final int outcome = sowStones(gameBoard, startPit, getPlayer());
+        recordOutcome(outcome);
+        return numStones + MoveOutcome.captured(outcome);
+    }
 
-        while (toDistribute > 0) { // distribute stones until none left
+    /**
+     * Keep track of what the last sowing on the rules' own board did,
+     * including its relay depth.
+     *
+     * @param outcome The packed MoveOutcome of the sowing.
+     */
+    @Override
+    void recordOutcome(final int outcome) {
+        super.recordOutcome(outcome);
+        relayDepth = MoveOutcome.relays(outcome);
+        relayCutShort = MoveOutcome.isCutShort(outcome);
+    }
 
-            final Countable data = gameBoard.next();
-            data.addStone();
+    /**
+     * Sow the stones from a pit on a board, continuing from every non-empty
+     * pit the last stone lands in and capturing at the end of the chain.
+     * Relays run in a loop rather than recursively. A chain stops early when
+     * it reaches the relay limit or when the board and sowing position repeat,
+     * since a repeat means the chain would never end.
+     *
+     * @param board     The board to sow on.
+     * @param startPit  The starting pit for distribution.
+     * @param playerNum The player making the move.
+     * @return The packed MoveOutcome, including the relay count.
+     */
+    @Override
+    int sowStones(final MancalaDataStructure board, final int startPit, final int playerNum) {
+
+        final int skipPos = SowingTable.toPosition(startPit); // start pit is skipped for the whole turn
+        final int limit = relayLimit;
+        int fromPos = skipPos;
+        int relays = 0;
+        int[] seen = null; // board and position at the last cycle check point
+        int checkEvery = 1;
+        int sinceCheck = 0;
+
+        while (true) {
+            final int numStones = board.removeStones(SowingTable.toPitNum(fromPos));
+            if (numStones <= 0) {
+                return MoveOutcome.of(fromPos, 0, relays, false, false);
+            }
+            final int landing = SowingTable.sow(board, SowingTable.order(playerNum, skipPos, fromPos), numStones);
+            final int pitNum = SowingTable.toPitNum(landing);
 
-            final int pitNum = gameBoard.getPitNum();
+            if (pitNum < 0) { // ended in own store
+                return MoveOutcome.of(landing, 0, relays, false, false);
+            }
+            if (board.getCell(landing) == 1) {
+                int captured = 0;
+                if (checkOwnPit(playerNum, pitNum)) { // check if last stone ends up in own pit to capture
+                    captured = capture(board, pitNum, playerNum);
+                }
+                return MoveOutcome.of(landing, captured, relays, false, false);
+            }
 
-            if (toDistribute == 1 && pitNum > 0) {
-                if (data.getStoneCount() > 1) {
-                    setStartPit = false;
-                    distributeStones(pitNum);
-                } else if (data.getStoneCount() == 1 && checkOwnPit(getPlayer(), pitNum)) { // check if last stone ends up in own pit to capture
-                    numStones += captureStones(pitNum);
+            // last stone landed in a non-empty pit: pick those stones up next
+            if (relays >= limit) {
+                return MoveOutcome.of(landing, 0, relays, false, true);
+            }
+            if (relays >= CYCLE_CHECK_AFTER) {
+                if (seen != null && sameAsSeen(board, landing, seen)) {
+                    return MoveOutcome.of(landing, 0, relays, false, true);
+                }
+                if (seen == null || ++sinceCheck == checkEvery) { // Brent: move the check point at powers of two
+                    seen = saveSeen(board, landing, seen);
+                    checkEvery <<= 1;
+                    sinceCheck = 0;
                 }
             }
-            toDistribute--; // decrement stone count once put in pit
+            relays++;
+            fromPos = landing;
+        }
+    }
 
+    /*copies the board cells and sowing position for cycle detection*/
+    private static int[] saveSeen(final MancalaDataStructure board, final int pos, final int[] reuse) {
+        final int[] seen = reuse == null ? new int[CELLS + 1] : reuse;
+        for (int i = 0; i < CELLS; i++) {
+            seen[i] = board.getCell(i);
         }
-        return numStones;
+        seen[CELLS] = pos;
+        return seen;
+    }
+
+    /*checks whether the board and sowing position match the saved copy*/
+    private static boolean sameAsSeen(final MancalaDataStructure board, final int pos, final int[] seen) {
+        if (seen[CELLS] != pos) {
+            return false;
+        }
+        for (int i = 0; i < CELLS; i++) {
+            if (seen[i] != board.getCell(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the number of relays in the last move on this board.
+     *
+     * @return The relay depth of the last move.
+     */
+    public int getRelayDepth() {
+        return relayDepth;
+    }
+
+    /**
+     * Checks whether the last move's relay chain was stopped by the relay
+     * limit or a repeating cycle.
+     *
+     * @return True if the last move was cut short, false otherwise.
+     */
+    public boolean isRelayCutShort() {
+        return relayCutShort;
+    }
+
+    /**
+     * Set the most relays allowed in one move.
+     *
+     * @param limit The relay limit.
+     */
+    public void setRelayLimit(final int limit) {
+        if (limit < 0 || limit > MoveOutcome.MAX_RELAYS) {
+            throw new RuntimeException("Relay limit out of range");
+        }
+        relayLimit = limit;
+    }
+
+    /**
+     * Get the most relays allowed in one move.
+     *
+     * @return The relay limit.
+     */
+    public int getRelayLimit() {
+        return relayLimit;
+    }
+
+    /*a save from before the relay limit reads it as 0, which would turn relay sowing off*/
+    private Object readResolve() {
+        if (relayLimit == 0) {
+            relayLimit = DEFAULT_RELAY_LIMIT;
+        }
+        return this;
     }
 
     /**
@@ -89,21 +210,19 @@ public class AyoRules extends GameRules {
      */
     @Override
     protected int captureStones(final int stoppingPoint) {
+        return capture(gameBoard, stoppingPoint, getPlayer());
+    }
 
-        int numStones = 0;
-        int[] arrayOppPit = new int[12]; // an array to rep. opposite side's pits
-        int ctr = 11;
+    /*capture helper shared by the rules' own board and scratch boards*/
+    private int capture(final MancalaDataStructure board, final int stoppingPoint, final int playerNum) {
 
-        for (int i = 0; i < 12; i++) { // opposite pit (1 <-> 12, 2 <-> 11)
-            arrayOppPit[i] = ctr;
-            ctr--;
-        }
-        final int oppPit = arrayOppPit[stoppingPoint-1] + 1; // set to number of opposite pit
-        if (gameBoard.getNumStones(oppPit) > 0) { // if opposite pit contains stones
-            numStones += gameBoard.removeStones(oppPit); // get all stones in opp pit
-            gameBoard.addToStore(getPlayer(), numStones); // add stones to current player's store
+        int numStones = 0;
+        final int oppPit = 13 - stoppingPoint; // opposite pit (1 <-> 12, 2 <-> 11)
+        if (board.getNumStones(oppPit) > 0) { // if opposite pit contains stones
+            numStones += board.removeStones(oppPit); // get all stones in opp pit
+            board.addToStore(playerNum, numStones); // add stones to current player's store
         }
         return numStones;
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,185 @@
+package mancala;
+
+import java.io.Serializable;
+
+/**
+ * An immutable, bit-packed snapshot of a whole board position.
+ * Each of the 14 cells takes 8 bits in board order (pits 1-6, store one,
+ * pits 7-12, store two), spread over two longs together with the player
+ * to move, so copying, comparing and hashing a position is O(1).
+ */
+public final class BoardState implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private static final int CELLS = 14;
+    private static final int BITS = 8;
+    private static final int MAX_COUNT = (1 << BITS) - 1;
+    private static final int LOW_CELLS = Long.SIZE / BITS;
+    private static final int PLAYER_SHIFT = (CELLS - LOW_CELLS) * BITS;
+
+    private final long low;
+    private final long high;
+
+    private BoardState(final long lowBits, final long highBits) {
+        this.low = lowBits;
+        this.high = highBits;
+    }
+
+    /**
+     * Packs the current contents of a board.
+     *
+     * @param board     The board to pack.
+     * @param playerNum The player to move (1 or 2).
+     * @return The packed board state.
+     */
+    public static BoardState of(final MancalaDataStructure board, final int playerNum) {
+        if (playerNum < 1 || playerNum > 2) {
+            throw new RuntimeException("Invalid Player Position");
+        }
+        long lowBits = 0;
+        long highBits = 0;
+        for (int pos = 0; pos < CELLS; pos++) {
+            final int count = board.getCell(pos);
+            if (count < 0 || count > MAX_COUNT) {
+                throw new RuntimeException("Stone count too large to pack");
+            }
+            if (pos < LOW_CELLS) {
+                lowBits |= (long) count << (pos * BITS);
+            } else {
+                highBits |= (long) count << ((pos - LOW_CELLS) * BITS);
+            }
+        }
+        highBits |= (long) (playerNum - 1) << PLAYER_SHIFT;
+        return new BoardState(lowBits, highBits);
+    }
+
+    /**
+     * Unpacks the state into a new board.
+     *
+     * @return A new board holding this position.
+     */
+    public MancalaDataStructure toDataStructure() {
+        final MancalaDataStructure board = new MancalaDataStructure();
+        copyTo(board);
+        return board;
+    }
+
+    /**
+     * Overwrites every pit and store of an existing board, and its side to
+     * move, with this position.
+     *
+     * @param board The board to overwrite.
+     */
+    public void copyTo(final MancalaDataStructure board) {
+        for (int pos = 0; pos < CELLS; pos++) {
+            board.setCell(pos, getCell(pos));
+        }
+        board.setSideToMove(getPlayer());
+    }
+
+    /**
+     * Get the number of stones in a pit.
+     *
+     * @param pitNum The number of the pit.
+     * @return The number of stones in the pit.
+     */
+    public int getNumStones(final int pitNum) {
+        if (pitNum < 1 || pitNum > 12) {
+            throw new RuntimeException("Pit Number Out of Range");
+        }
+        return getCell(pitNum <= 6 ? pitNum - 1 : pitNum);
+    }
+
+    /**
+     * Get the number of stones in a player's store.
+     *
+     * @param playerNum The player number (1 or 2).
+     * @return The number of stones in the store.
+     */
+    public int getStoreCount(final int playerNum) {
+        if (playerNum < 1 || playerNum > 2) {
+            throw new RuntimeException("Invalid Player Position");
+        }
+        return getCell(playerNum == 1 ? 6 : 13);
+    }
+
+    /**
+     * Get the player to move.
+     *
+     * @return The player number (1 or 2).
+     */
+    public int getPlayer() {
+        return (int) (high >>> PLAYER_SHIFT) + 1;
+    }
+
+    /**
+     * Returns the same position with a different player to move.
+     *
+     * @param playerNum The player to move (1 or 2).
+     * @return The state with that player to move.
+     */
+    public BoardState withPlayer(final int playerNum) {
+        if (playerNum < 1 || playerNum > 2) {
+            throw new RuntimeException("Invalid Player Position");
+        }
+        final long cellBits = high & ~(1L << PLAYER_SHIFT);
+        return new BoardState(low, cellBits | (long) (playerNum - 1) << PLAYER_SHIFT);
+    }
+
+    /*helper method to read one cell by array position*/
+    private int getCell(final int pos) {
+        long bits = low;
+        int shift = pos * BITS;
+        if (pos >= LOW_CELLS) {
+            bits = high;
+            shift = (pos - LOW_CELLS) * BITS;
+        }
+        return (int) (bits >>> shift) & MAX_COUNT;
+    }
+
+    /**
+     * Checks whether another object is the same position with the same player to move.
+     *
+     * @param other The object to compare with.
+     * @return True if the states are equal, false otherwise.
+     */
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof BoardState)) {
+            return false;
+        }
+        final BoardState state = (BoardState) other;
+        return low == state.low && high == state.high;
+    }
+
+    /**
+     * Returns a hash code mixed from both packed words.
+     *
+     * @return The hash code.
+     */
+    @Override
+    public int hashCode() {
+        final long mixed = (low ^ Long.rotateLeft(high, 29)) * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+
+    /**
+     * Returns a string representation of the board state.
+     *
+     * @return The pits, stores and player to move.
+     */
+    @Override
+    public String toString() {
+        final StringBuilder string = new StringBuilder("BoardState[");
+        for (int pitNum = 1; pitNum <= 12; pitNum++) {
+            string.append(getNumStones(pitNum)).append(pitNum < 12 ? "," : "");
+        }
+        string.append(" | S1=").append(getStoreCount(1))
+              .append(" S2=").append(getStoreCount(2))
+              .append(" | P").append(getPlayer()).append("]");
+        return string.toString();
+    }
+}
@@ -0,0 +1,101 @@
+package mancala;
+
+/**
+ * Represents a computer-controlled player that picks its moves with a
+ * SearchEngine, or with a MonteCarloSearch for Ayo, where relay sowing
+ * makes positions hard to score without playing them out.
+ */
+public class ComputerPlayer extends Player {
+
+    private static final long serialVersionUID = 1L;
+    private final long timeLimitMillis;
+    private transient SearchEngine engine;
+    private transient volatile MonteCarloSearch monteCarlo; // stopped from the event thread while a search may run
+
+    /**
+     * Constructor to initialize a computer player with a 100 ms move budget.
+     *
+     * @param name The name of the player.
+     */
+    public ComputerPlayer(final String name) {
+        this(name, 100);
+    }
+
+    /**
+     * Constructor to initialize a computer player.
+     *
+     * @param name      The name of the player.
+     * @param timeLimit The time budget per move in milliseconds.
+     */
+    public ComputerPlayer(final String name, final long timeLimit) {
+        super(new UserProfile(name));
+        this.timeLimitMillis = timeLimit;
+    }
+
+    /**
+     * Choose a move for this player in a game.
+     *
+     * @param game The game, with this player to move.
+     * @return The pit to move, or -1 if there is no legal move.
+     */
+    public int chooseMove(final MancalaGame game) {
+        int playerNum = 2;
+        if (game.getPlayers().get(0).getName().equals(this.getName())) {
+            playerNum = 1;
+        }
+        if (game.getBoard() instanceof AyoRules) {
+            MonteCarloSearch search = this.monteCarlo;
+            if (search == null) { // not kept when a game is saved, and dropped by stopSearch
+                search = new MonteCarloSearch(Runtime.getRuntime().availableProcessors());
+                search.setTimeLimit(this.timeLimitMillis);
+                this.monteCarlo = search;
+            }
+            return search.findBestMove(game.getBoard(), game.getDataStructure(), playerNum);
+        }
+        if (this.engine == null) { // not kept when a game is saved
+            this.engine = new SearchEngine();
+            this.engine.setTimeLimit(this.timeLimitMillis);
+        }
+        return this.engine.findBestMove(game.getBoard(), game.getDataStructure(), playerNum);
+    }
+
+    /**
+     * Gets the search engine used by this player.
+     *
+     * @return The search engine, or null before the first move.
+     */
+    public SearchEngine getEngine() {
+        return this.engine;
+    }
+
+    /**
+     * Gets the Monte Carlo search used by this player in Ayo games.
+     *
+     * @return The Monte Carlo search, or null before the first Ayo move.
+     */
+    public MonteCarloSearch getMonteCarloSearch() {
+        return this.monteCarlo;
+    }
+
+    /**
+     * Stop the worker threads of the Monte Carlo search, once this player's
+     * game is over or replaced. A later Ayo move starts a new search.
+     */
+    public void stopSearch() {
+        final MonteCarloSearch search = this.monteCarlo;
+        this.monteCarlo = null;
+        if (search != null) {
+            search.shutdown();
+        }
+    }
+
+    /**
+     * Returns a string representation of the computer player.
+     *
+     * @return A string representation of the player, including the player's name.
+     */
+    @Override
+    public String toString() {
+        return "Computer " + super.toString();
+    }
+}
@@ -0,0 +1,164 @@
+package mancala;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Solves every position with up to some number of stones in the pits and
+ * writes the values as an EndgameDatabase file.
+ * Positions are solved backwards from the end of the game, fewest stones
+ * first: a move that puts stones in a store leads to a position that is
+ * already solved. A move that puts none in a store keeps every sown stone
+ * on the mover's side, moving towards their store, so positions with the
+ * same number of stones never lead back to themselves and are solved by
+ * following those moves down. Values are stored for player one to move;
+ * the rules treat both sides alike, so player two's values are the same
+ * with the sides swapped.
+ */
+public class EndgameBuilder {
+
+    private static final byte UNKNOWN = Byte.MIN_VALUE;
+    private static final byte IN_PROGRESS = Byte.MIN_VALUE + 1;
+
+    private final GameRules rules;
+    private final int maxStones;
+    private final List<MancalaDataStructure> scratch = new ArrayList<>();
+    private byte[] values;
+
+    /**
+     * Constructor to initialize a builder.
+     *
+     * @param theRules The rule set to solve, such as KalahRules or AyoRules.
+     * @param stones   The most stones in the pits to solve, up to EndgameDatabase.MAX_STONES.
+     */
+    public EndgameBuilder(final GameRules theRules, final int stones) {
+        if (stones < 0 || stones > EndgameDatabase.MAX_STONES) {
+            throw new RuntimeException("Stone count out of range");
+        }
+        this.rules = theRules;
+        this.maxStones = stones;
+    }
+
+    /**
+     * Solve every position. Takes about a second per million positions.
+     */
+    public void build() {
+        this.values = new byte[(int) EndgameDatabase.positionCount(this.maxStones)];
+        Arrays.fill(this.values, UNKNOWN);
+        final MancalaDataStructure board = new MancalaDataStructure();
+        for (int stones = 0; stones <= this.maxStones; stones++) {
+            enumerate(board, 0, stones);
+        }
+    }
+
+    /*every way to put some stones in the pits from the i'th on, solving each*/
+    private void enumerate(final MancalaDataStructure board, final int i, final int left) {
+        final int pos = EndgameDatabase.position(1, i);
+        if (i == 11) {
+            board.setCell(pos, left);
+            solve(board, 1, 0);
+            return;
+        }
+        for (int count = 0; count <= left; count++) {
+            board.setCell(pos, count);
+            enumerate(board, i + 1, left - count);
+        }
+        board.setCell(pos, 0);
+    }
+
+    /*value of a position for the player to move, solving the positions it leads to first*/
+    private int solve(final MancalaDataStructure board, final int playerNum, final int depth) {
+        final int index = (int) EndgameDatabase.index(board, playerNum);
+        final byte known = this.values[index];
+        if (known == IN_PROGRESS) {
+            return 0; // a position repeating within one move sequence gains nobody anything
+        }
+        if (known != UNKNOWN) {
+            return known;
+        }
+        final int opp = SearchEngine.opponent(playerNum);
+        int value;
+        if (SearchEngine.isOver(board)) {
+            value = board.getSideTotal(playerNum) - board.getSideTotal(opp);
+        } else {
+            this.values[index] = IN_PROGRESS;
+            value = Integer.MIN_VALUE;
+            if (this.scratch.size() == depth) {
+                this.scratch.add(new MancalaDataStructure());
+            }
+            final MancalaDataStructure child = this.scratch.get(depth);
+            for (int i = 0; i < 6; i++) {
+                final int pit = SearchEngine.pitFor(playerNum, i);
+                if (board.getNumStones(pit) > 0) {
+                    child.copyFrom(board);
+                    final int outcome = this.rules.sowStones(child, pit, playerNum);
+                    final int gain = child.getStoreCount(playerNum) - board.getStoreCount(playerNum)
+                            - child.getStoreCount(opp) + board.getStoreCount(opp);
+                    int score;
+                    if (MoveOutcome.isFreeTurn(outcome)) {
+                        score = gain + solve(child, playerNum, depth + 1);
+                    } else {
+                        score = gain - solve(child, opp, depth + 1);
+                    }
+                    value = Math.max(value, score);
+                }
+            }
+        }
+        this.values[index] = (byte) value;
+        return value;
+    }
+
+    /**
+     * Write the solved values as a database file. The file is written
+     * beside the target and then moved into place.
+     *
+     * @param file The file to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public void writeTo(final Path file) throws IOException {
+        if (this.values == null) {
+            throw new IOException("Endgame database has not been built.");
+        }
+        final byte[] name = this.rules.getClass().getSimpleName().getBytes(StandardCharsets.US_ASCII);
+        if (name.length > EndgameDatabase.MAX_NAME_BYTES) {
+            throw new IOException("Rules name too long for the endgame database header.");
+        }
+        final Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            output.writeInt(EndgameDatabase.MAGIC);
+            output.writeInt(this.maxStones);
+            output.writeInt(name.length);
+            output.write(name);
+            output.write(new byte[EndgameDatabase.HEADER_BYTES - 12 - name.length]);
+            output.write(this.values);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Build a database from the command line.
+     *
+     * @param args The rule set ("kalah" or "ayo"), the most stones and the file to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length != 3) {
+            System.out.println("usage: EndgameBuilder kalah|ayo <stones> <file>");
+            return;
+        }
+        final GameRules gameRules = "ayo".equalsIgnoreCase(args[0]) ? new AyoRules() : new KalahRules();
+        final EndgameBuilder builder = new EndgameBuilder(gameRules, Integer.parseInt(args[1]));
+        final long start = System.nanoTime();
+        builder.build();
+        builder.writeTo(Path.of(args[2]));
+        System.out.printf("%d positions solved in %.1f s%n", builder.values.length, (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,187 @@
+package mancala;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A solved table of every position with at most a few stones left in the
+ * pits, memory-mapped from a file built by EndgameBuilder.
+ * Positions are numbered by a perfect index: first by the number of stones
+ * in the pits, then by the ranks of their counts in the combinatorial number
+ * system, read from the mover's first pit round to the opponent's last. No
+ * keys are stored, and the file is one signed byte per position after a
+ * short header: the most stones the player to move can still win from the
+ * pits, less what the opponent wins, with both playing perfectly. Stores
+ * play no part in the rest of the game, so they are not in the index.
+ */
+public final class EndgameDatabase {
+
+    /** The most stones in the pits a database can cover. */
+    public static final int MAX_STONES = 24;
+
+    static final int MAGIC = 0x4D454442; // "MEDB"
+    static final int HEADER_BYTES = 32;
+    static final int MAX_NAME_BYTES = HEADER_BYTES - 12;
+    private static final int PITS = 12;
+    private static final long[][] COMPOSITIONS = new long[MAX_STONES + 1][PITS + 1];
+    private static final long[] FIRST_INDEX = new long[MAX_STONES + 2]; // first index with k stones
+
+    static {
+        // COMPOSITIONS[r][m] = ways to put r stones in m pits = C(r + m - 1, m - 1)
+        for (int r = 0; r <= MAX_STONES; r++) {
+            COMPOSITIONS[r][1] = 1;
+            for (int m = 2; m <= PITS; m++) {
+                COMPOSITIONS[r][m] = r == 0 ? 1 : COMPOSITIONS[r][m - 1] + COMPOSITIONS[r - 1][m];
+            }
+            FIRST_INDEX[r + 1] = FIRST_INDEX[r] + COMPOSITIONS[r][PITS];
+        }
+    }
+
+    private final MappedByteBuffer values;
+    private final int maxStones;
+    private final String rulesName;
+
+    private EndgameDatabase(final MappedByteBuffer theValues, final int stones, final String name) {
+        this.values = theValues;
+        this.maxStones = stones;
+        this.rulesName = name;
+    }
+
+    /**
+     * Open a database file built by EndgameBuilder.
+     *
+     * @param file The file to map.
+     * @return The database.
+     * @throws IOException If the file cannot be read or is not a database.
+     */
+    public static EndgameDatabase open(final Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    break;
+                }
+            }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                throw new IOException("Not an endgame database.");
+            }
+            final int stones = header.getInt();
+            final int nameLength = header.getInt();
+            if (stones < 0 || stones > MAX_STONES || nameLength < 0 || nameLength > MAX_NAME_BYTES) {
+                throw new IOException("Corrupt endgame database header.");
+            }
+            final byte[] name = new byte[nameLength];
+            header.get(name);
+            final long count = positionCount(stones);
+            if (channel.size() != HEADER_BYTES + count) {
+                throw new IOException("Endgame database is the wrong size.");
+            }
+            final MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, count);
+            return new EndgameDatabase(map, stones, new String(name, StandardCharsets.US_ASCII));
+        }
+    }
+
+    /**
+     * Get the most stones in the pits this database covers.
+     *
+     * @return The stone limit.
+     */
+    public int getMaxStones() {
+        return this.maxStones;
+    }
+
+    /**
+     * Get the name of the rule set this database was solved for.
+     *
+     * @return The rules class name, such as "KalahRules".
+     */
+    public String getRulesName() {
+        return this.rulesName;
+    }
+
+    /**
+     * Checks if this database was solved for a rule set.
+     *
+     * @param rules The rule set.
+     * @return True if the database holds values for those rules.
+     */
+    public boolean isFor(final GameRules rules) {
+        return rules.getClass().getSimpleName().equals(this.rulesName);
+    }
+
+    /**
+     * Checks if a position is in the database.
+     *
+     * @param board The position.
+     * @return True if the pits hold few enough stones.
+     */
+    public boolean covers(final MancalaDataStructure board) {
+        return board.getSideTotal(1) + board.getSideTotal(2) <= this.maxStones;
+    }
+
+    /**
+     * Look up the value of a position: the stones the player to move wins
+     * from the pits from here on, less the stones the opponent wins.
+     *
+     * @param board     The position.
+     * @param playerNum The player to move (1 or 2).
+     * @return The exact value with perfect play.
+     */
+    public int getValue(final MancalaDataStructure board, final int playerNum) {
+        if (!covers(board)) {
+            throw new RuntimeException("Position has too many stones for the endgame database");
+        }
+        return this.values.get((int) index(board, playerNum));
+    }
+
+    /**
+     * Count the positions with at most some number of stones in the pits.
+     *
+     * @param stones The stone limit.
+     * @return The number of positions, C(stones + 12, 12).
+     */
+    static long positionCount(final int stones) {
+        return FIRST_INDEX[stones + 1];
+    }
+
+    /**
+     * Get the perfect index of a position. Positions with fewer stones come
+     * first; positions with the same number of stones are in order of their
+     * counts, read from the mover's first pit.
+     *
+     * @param board     The position.
+     * @param playerNum The player to move (1 or 2).
+     * @return The index, from 0 to positionCount(stones) - 1.
+     */
+    static long index(final MancalaDataStructure board, final int playerNum) {
+        int left = board.getSideTotal(1) + board.getSideTotal(2);
+        long rank = FIRST_INDEX[left];
+        for (int i = 0; i < PITS - 1; i++) { // the last pit holds whatever is left
+            final int count = board.getCell(position(playerNum, i));
+            final int pits = PITS - i;
+            rank += COMPOSITIONS[left][pits] - COMPOSITIONS[left - count][pits];
+            left -= count;
+        }
+        return rank;
+    }
+
+    /**
+     * Get the board position of the mover's i'th pit, counting on round
+     * the opponent's pits from 6.
+     *
+     * @param playerNum The player to move (1 or 2).
+     * @param i         The pit from the mover's view, 0 to 11.
+     * @return The array position.
+     */
+    static int position(final int playerNum, final int i) {
+        final int own = playerNum == 1 ? 0 : 7;
+        final int other = playerNum == 1 ? 7 : 0;
+        return i < 6 ? own + i : other + i - 6;
+    }
+}
@@ -0,0 +1,268 @@
+package mancala;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads archives of many games written by GameArchiveWriter, replaying
+ * them on several threads at once and handing every position to a
+ * GameVisitor.
+ *
+ * <pre>
+ * archive: magic "MGAR", version, then blocks
+ * block:   compressed length, raw length, game count, CRC-32 of the raw
+ *          bytes (four ints), then the raw bytes deflated
+ * raw:     length of the header column (int), the header column, the move column
+ * header column: per game, varints of result + 1, rule set, start stones and move count
+ * move column:   per move, the pit's place on the mover's side, 0 to 5, in 3 bits, low bits first
+ * </pre>
+ * Blocks are compressed independently, so a scan reads the block headers
+ * once and then lets each thread take whole blocks, inflating and replaying
+ * them on its own boards with no MancalaGame or Player made.
+ */
+public final class GameArchive {
+
+    static final int MAGIC = 0x4D474152; // "MGAR"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 5;
+    static final int BLOCK_HEADER_BYTES = 16;
+
+    private static final int MAX_RATIO = 1032; // deflate never shrinks bytes further than this
+
+    private GameArchive() {
+    }
+
+    /*where one block is and how big it is*/
+    private static final class Block {
+        private final long offset;
+        private final int compressedLength;
+        private final int rawLength;
+        private final int games;
+        private final int crc;
+
+        Block(final long at, final int compressed, final int raw, final int count, final int checksum) {
+            this.offset = at;
+            this.compressedLength = compressed;
+            this.rawLength = raw;
+            this.games = count;
+            this.crc = checksum;
+        }
+    }
+
+    /**
+     * Count the games in an archive from its block headers alone.
+     *
+     * @param file The archive.
+     * @return The game count.
+     * @throws IOException If the file cannot be read or is not an archive.
+     */
+    public static long getGameCount(final Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long games = 0;
+            for (final Block block : readBlocks(channel)) {
+                games += block.games;
+            }
+            return games;
+        }
+    }
+
+    /**
+     * Replay every game in an archive on several threads.
+     *
+     * @param file     The archive.
+     * @param threads  The number of threads.
+     * @param visitors Makes the visitor for each thread.
+     * @param <V>      The visitor type.
+     * @return The visitors, one per thread, to merge what they found.
+     * @throws IOException If the file cannot be read, is not an archive, or is damaged.
+     */
+    public static <V extends GameVisitor> List<V> scan(final Path file, final int threads,
+                                                       final Supplier<V> visitors) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final List<Block> blocks = readBlocks(channel);
+            final int workers = Math.max(1, Math.min(threads, blocks.size()));
+            final AtomicInteger nextBlock = new AtomicInteger();
+            final List<V> results = new ArrayList<>();
+            final List<Future<?>> running = new ArrayList<>();
+            final ExecutorService executor = Executors.newFixedThreadPool(workers);
+            try {
+                for (int w = 0; w < workers; w++) {
+                    final V visitor = visitors.get();
+                    results.add(visitor);
+                    running.add(executor.submit(() -> {
+                        scanBlocks(channel, blocks, nextBlock, visitor);
+                        return null;
+                    }));
+                }
+                for (final Future<?> worker : running) {
+                    worker.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Archive scan interrupted.");
+            } catch (ExecutionException e) {
+                nextBlock.set(blocks.size()); // stop the other workers
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new IOException("Archive scan failed: " + e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+            return results;
+        }
+    }
+
+    /*the header of every block, skipping over the compressed bytes*/
+    private static List<Block> readBlocks(final FileChannel channel) throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_BYTES);
+        header.limit(HEADER_BYTES);
+        readFully(channel, header, 0);
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException("Not a game archive.");
+        }
+        if (header.get(4) != VERSION) {
+            throw new IOException("Unsupported game archive version.");
+        }
+        final List<Block> blocks = new ArrayList<>();
+        final long size = channel.size();
+        long at = HEADER_BYTES;
+        while (at < size) {
+            header.clear();
+            readFully(channel, header, at);
+            final int compressed = header.getInt(0);
+            final int raw = header.getInt(4);
+            final int games = header.getInt(8);
+            if (compressed < 0 || raw < 4 || games < 0 || at + BLOCK_HEADER_BYTES + compressed > size
+                    || raw / MAX_RATIO > compressed) {
+                throw new IOException("Game archive is damaged.");
+            }
+            blocks.add(new Block(at + BLOCK_HEADER_BYTES, compressed, raw, games, header.getInt(12)));
+            at += BLOCK_HEADER_BYTES + compressed;
+        }
+        return blocks;
+    }
+
+    /*one worker: take blocks until there are none left*/
+    private static void scanBlocks(final FileChannel channel, final List<Block> blocks, final AtomicInteger nextBlock,
+                                   final GameVisitor visitor) throws IOException {
+        final Inflater inflater = new Inflater();
+        final GameRules[] rules = {new KalahRules(), new AyoRules()};
+        final MancalaDataStructure board = new MancalaDataStructure();
+        try {
+            for (int b = nextBlock.getAndIncrement(); b < blocks.size(); b = nextBlock.getAndIncrement()) {
+                final Block block = blocks.get(b);
+                final ByteBuffer compressed = ByteBuffer.allocate(block.compressedLength);
+                readFully(channel, compressed, block.offset);
+                final byte[] raw = new byte[block.rawLength];
+                inflater.reset();
+                inflater.setInput(compressed.array());
+                try {
+                    if (inflater.inflate(raw) != raw.length || !inflater.finished()) {
+                        throw new IOException("Game archive is damaged.");
+                    }
+                } catch (DataFormatException e) {
+                    throw new IOException("Game archive is damaged.");
+                }
+                final CRC32 crc = new CRC32();
+                crc.update(raw);
+                if ((int) crc.getValue() != block.crc) {
+                    throw new IOException("Game archive is damaged.");
+                }
+                replayBlock(raw, block.games, rules, board, visitor);
+            }
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /*walk the header column and the move column side by side, replaying each game*/
+    private static void replayBlock(final byte[] raw, final int games, final GameRules[] rules,
+                                    final MancalaDataStructure board, final GameVisitor visitor) throws IOException {
+        final int headerEnd = 4 + ByteBuffer.wrap(raw).getInt(0);
+        if (headerEnd < 4 || headerEnd > raw.length) {
+            throw new IOException("Game archive is damaged.");
+        }
+        final int[] varint = {4};
+        int moveByte = headerEnd;
+        long bits = 0;
+        int bitCount = 0;
+        for (int g = 0; g < games; g++) {
+            final int result = getVarint(raw, varint, headerEnd) - 1;
+            final int ruleSet = getVarint(raw, varint, headerEnd);
+            final int startStones = getVarint(raw, varint, headerEnd);
+            final int count = getVarint(raw, varint, headerEnd);
+            if (ruleSet != 1 && ruleSet != 2 || startStones < 1 || startStones > GameRecord.MAX_START_STONES) {
+                throw new IOException("Game archive is damaged.");
+            }
+            final GameRules gameRules = rules[ruleSet - 1];
+            board.startWith(startStones);
+            visitor.startGame(ruleSet, startStones, result, count);
+            int playerNum = 1;
+            for (int ply = 0; ply < count; ply++) {
+                if (bitCount < 3) {
+                    if (moveByte == raw.length) {
+                        throw new IOException("Game archive is damaged.");
+                    }
+                    bits |= (raw[moveByte++] & 0xFFL) << bitCount;
+                    bitCount += 8;
+                }
+                final int index = (int) (bits & 7);
+                bits >>>= 3;
+                bitCount -= 3;
+                final int pit = SearchEngine.pitFor(playerNum, index);
+                if (index > 5 || board.getNumStones(pit) == 0) {
+                    throw new IOException("Game archive is damaged.");
+                }
+                final int outcome = gameRules.sowStones(board, pit, playerNum);
+                visitor.move(board, ply, playerNum, pit, MoveOutcome.captured(outcome));
+                if (!MoveOutcome.isFreeTurn(outcome)) {
+                    playerNum = SearchEngine.opponent(playerNum);
+                }
+            }
+            visitor.endGame(board);
+        }
+    }
+
+    /*unsigned LEB128 at pos[0], moving it on*/
+    private static int getVarint(final byte[] raw, final int[] pos, final int end) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            if (pos[0] == end) {
+                throw new IOException("Game archive is damaged.");
+            }
+            final int b = raw[pos[0]++];
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Game archive is damaged.");
+    }
+
+    private static void readFully(final FileChannel channel, final ByteBuffer buffer, final long position)
+            throws IOException {
+        long at = position;
+        while (buffer.hasRemaining()) {
+            final int read = channel.read(buffer, at);
+            if (read < 0) {
+                throw new IOException("Game archive is damaged.");
+            }
+            at += read;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package mancala;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes games into a GameArchive: blocks of games, each compressed on its
+ * own, with every move stored in three bits.
+ * A move is stored as its pit's place on the mover's side, 0 to 5, which
+ * is why the writer plays every game through the rules as it is added: it
+ * has to know whose move each one is. That also rejects illegal games.
+ * Player names are not kept; the archive is for analysing moves.
+ */
+public final class GameArchiveWriter implements Closeable {
+
+    /** Games in each block unless another size is given. */
+    public static final int GAMES_PER_BLOCK = 8192;
+
+    private final OutputStream out;
+    private final int gamesPerBlock;
+    private final GameRules[] rules = {new KalahRules(), new AyoRules()};
+    private final MancalaDataStructure board = new MancalaDataStructure();
+    private final Deflater deflater = new Deflater();
+    private byte[] headers = new byte[1024]; // varint column: result, rule set, start stones, length per game
+    private int headerBytes;
+    private byte[] moves = new byte[4096]; // 3-bit column, every move of the block
+    private int moveBytes;
+    private long bits;
+    private int bitCount;
+    private byte[] compressed = new byte[4096];
+    private int blockGames;
+    private long gameCount;
+    private long blockCount;
+    private long bytesWritten;
+
+    /**
+     * Constructor to initialize a writer with blocks of GAMES_PER_BLOCK games.
+     *
+     * @param output Where the archive goes; closed with this writer.
+     * @throws IOException If the archive's header cannot be written.
+     */
+    public GameArchiveWriter(final OutputStream output) throws IOException {
+        this(output, GAMES_PER_BLOCK);
+    }
+
+    /**
+     * Constructor to initialize a writer.
+     *
+     * @param output     Where the archive goes; closed with this writer.
+     * @param blockGames The number of games in each block.
+     * @throws IOException If the archive's header cannot be written.
+     */
+    public GameArchiveWriter(final OutputStream output, final int blockGames) throws IOException {
+        if (blockGames < 1) {
+            throw new RuntimeException("A block must hold at least one game.");
+        }
+        this.out = new BufferedOutputStream(output, 1 << 16);
+        this.gamesPerBlock = blockGames;
+        final ByteBuffer header = ByteBuffer.allocate(GameArchive.HEADER_BYTES);
+        header.putInt(GameArchive.MAGIC).put((byte) GameArchive.VERSION);
+        this.out.write(header.array());
+        this.bytesWritten = GameArchive.HEADER_BYTES;
+    }
+
+    /**
+     * Add a game.
+     *
+     * @param record The game.
+     * @throws IOException If a move is not legal, or the archive cannot be written.
+     */
+    public void add(final GameRecord record) throws IOException {
+        add(record.getRuleSet(), record.getStartStones(), record.getMoves(), record.getMoveCount(), record.getResult());
+    }
+
+    /**
+     * Add a game given as its moves.
+     *
+     * @param ruleSet     The rule set: 1 for Kalah, 2 for Ayo.
+     * @param startStones The stones each pit starts with.
+     * @param pits        The pit of every move, 1 to 12, in order.
+     * @param count       The number of moves in pits to use.
+     * @param result      A GameRecord result: ONE_WINS, TWO_WINS, DRAW or UNFINISHED.
+     * @throws IOException If a move is not legal, or the archive cannot be written.
+     */
+    public void add(final int ruleSet, final int startStones, final int[] pits, final int count, final int result)
+            throws IOException {
+        if (ruleSet != 1 && ruleSet != 2 || startStones < 1 || startStones > GameRecord.MAX_START_STONES
+                || result < GameRecord.UNFINISHED || result > GameRecord.TWO_WINS) {
+            throw new IOException("Game cannot be archived.");
+        }
+        final GameRules gameRules = this.rules[ruleSet - 1];
+        this.board.startWith(startStones);
+        final int moveStart = this.moveBytes;
+        final long bitsBefore = this.bits;
+        final int bitCountBefore = this.bitCount;
+        int playerNum = 1;
+        for (int i = 0; i < count; i++) {
+            final int pit = pits[i];
+            final int index = pit - (playerNum == 1 ? 1 : 7);
+            if (index < 0 || index > 5 || this.board.getNumStones(pit) == 0 || SearchEngine.isOver(this.board)) {
+                // leave the block as it was before this game
+                this.moveBytes = moveStart;
+                this.bits = bitsBefore;
+                this.bitCount = bitCountBefore;
+                throw new IOException("Move " + (i + 1) + " (pit " + pit + ") is not legal.");
+            }
+            putBits(index);
+            final int outcome = gameRules.sowStones(this.board, pit, playerNum);
+            if (!MoveOutcome.isFreeTurn(outcome)) {
+                playerNum = SearchEngine.opponent(playerNum);
+            }
+        }
+        putVarint(result + 1);
+        putVarint(ruleSet);
+        putVarint(startStones);
+        putVarint(count);
+        this.gameCount++;
+        if (++this.blockGames == this.gamesPerBlock) {
+            writeBlock();
+        }
+    }
+
+    /**
+     * Get the number of games added.
+     *
+     * @return The game count.
+     */
+    public long getGameCount() {
+        return this.gameCount;
+    }
+
+    /**
+     * Get the number of blocks written so far.
+     *
+     * @return The block count.
+     */
+    public long getBlockCount() {
+        return this.blockCount;
+    }
+
+    /**
+     * Get the size of the archive written so far.
+     *
+     * @return The size in bytes.
+     */
+    public long getBytesWritten() {
+        return this.bytesWritten;
+    }
+
+    /**
+     * Write the last, partly filled block and close the output.
+     *
+     * @throws IOException If the archive cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (this.blockGames > 0) {
+                writeBlock();
+            }
+            this.out.close();
+        } finally {
+            this.deflater.end();
+        }
+    }
+
+    /*compress the pending games as one block: the fixed block header, then the deflated columns*/
+    private void writeBlock() throws IOException {
+        if (this.bitCount > 0) {
+            putByte((int) this.bits);
+            this.bits = 0;
+            this.bitCount = 0;
+        }
+        final byte[] raw = new byte[4 + this.headerBytes + this.moveBytes];
+        final ByteBuffer rawBuffer = ByteBuffer.wrap(raw);
+        rawBuffer.putInt(this.headerBytes);
+        rawBuffer.put(this.headers, 0, this.headerBytes).put(this.moves, 0, this.moveBytes);
+        final CRC32 crc = new CRC32();
+        crc.update(raw);
+
+        this.deflater.reset();
+        this.deflater.setInput(raw);
+        this.deflater.finish();
+        int length = 0;
+        while (!this.deflater.finished()) {
+            if (length == this.compressed.length) {
+                this.compressed = Arrays.copyOf(this.compressed, length * 2);
+            }
+            length += this.deflater.deflate(this.compressed, length, this.compressed.length - length);
+        }
+
+        final ByteBuffer header = ByteBuffer.allocate(GameArchive.BLOCK_HEADER_BYTES);
+        header.putInt(length).putInt(raw.length).putInt(this.blockGames).putInt((int) crc.getValue());
+        this.out.write(header.array());
+        this.out.write(this.compressed, 0, length);
+        this.bytesWritten += GameArchive.BLOCK_HEADER_BYTES + length;
+        this.blockCount++;
+        this.blockGames = 0;
+        this.headerBytes = 0;
+        this.moveBytes = 0;
+    }
+
+    /*three bits onto the move column, low bits first*/
+    private void putBits(final int value) {
+        this.bits |= (long) value << this.bitCount;
+        this.bitCount += 3;
+        if (this.bitCount >= 8) {
+            putByte((int) this.bits);
+            this.bits >>>= 8;
+            this.bitCount -= 8;
+        }
+    }
+
+    private void putByte(final int value) {
+        if (this.moveBytes == this.moves.length) {
+            this.moves = Arrays.copyOf(this.moves, this.moves.length * 2);
+        }
+        this.moves[this.moveBytes++] = (byte) value;
+    }
+
+    /*unsigned LEB128 onto the header column*/
+    private void putVarint(final int value) {
+        int rest = value;
+        while (true) {
+            if (this.headerBytes + 5 > this.headers.length) {
+                this.headers = Arrays.copyOf(this.headers, this.headers.length * 2);
+            }
+            if ((rest & ~0x7F) == 0) {
+                this.headers[this.headerBytes++] = (byte) rest;
+                return;
+            }
+            this.headers[this.headerBytes++] = (byte) (rest & 0x7F | 0x80);
+            rest >>>= 7;
+        }
+    }
+}
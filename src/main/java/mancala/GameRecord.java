@@ -0,0 +1,263 @@
+package mancala;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * One game as a record of its moves: the rule set, the stones each pit
+ * starts with, the players, every move in order and the result.
+ * Read and written as text by GameRecordReader and GameRecordWriter.
+ * A move is the pit it was made from, 1 to 12; a bonus turn is simply the
+ * same player's pit again. A game lost by a move the rules refused is a
+ * forfeit: its moves stop before the end, and the player to move lost.
+ */
+public final class GameRecord {
+
+    /** Result: player one won. */
+    public static final int ONE_WINS = 1;
+    /** Result: player two won. */
+    public static final int TWO_WINS = 2;
+    /** Result: the game was drawn. */
+    public static final int DRAW = 0;
+    /** Result: the game was not finished. */
+    public static final int UNFINISHED = -1;
+
+    /** The most stones a pit may start with. */
+    public static final int MAX_START_STONES = 18;
+
+    private final int ruleSet;
+    private final int startStones;
+    private final String playerOne;
+    private final String playerTwo;
+    private final byte[] moves;
+    private final int result;
+    private final boolean forfeit;
+
+    /**
+     * Constructor to initialize a game record.
+     *
+     * @param rules   The rule set: 1 for Kalah, 2 for Ayo.
+     * @param stones  The stones each pit starts with.
+     * @param nameOne Player one's name.
+     * @param nameTwo Player two's name.
+     * @param pits    The pit of every move, in order.
+     * @param outcome ONE_WINS, TWO_WINS, DRAW or UNFINISHED.
+     */
+    public GameRecord(final int rules, final int stones, final String nameOne, final String nameTwo,
+                      final int[] pits, final int outcome) {
+        this(rules, stones, nameOne, nameTwo, pits, outcome, false);
+    }
+
+    /**
+     * Constructor to initialize a game record that may be a forfeit.
+     *
+     * @param rules     The rule set: 1 for Kalah, 2 for Ayo.
+     * @param stones    The stones each pit starts with.
+     * @param nameOne   Player one's name.
+     * @param nameTwo   Player two's name.
+     * @param pits      The pit of every move, in order.
+     * @param outcome   ONE_WINS, TWO_WINS, DRAW or UNFINISHED.
+     * @param forfeited Whether the player to move after the last move lost by making an illegal move.
+     */
+    public GameRecord(final int rules, final int stones, final String nameOne, final String nameTwo,
+                      final int[] pits, final int outcome, final boolean forfeited) {
+        if (rules != 1 && rules != 2) {
+            throw new RuntimeException("Unknown rule set.");
+        }
+        if (stones < 1 || stones > MAX_START_STONES) {
+            throw new RuntimeException("Start stones out of range.");
+        }
+        if (outcome < UNFINISHED || outcome > TWO_WINS) {
+            throw new RuntimeException("Unknown result.");
+        }
+        if (forfeited && outcome != ONE_WINS && outcome != TWO_WINS) {
+            throw new RuntimeException("A forfeit must be a win.");
+        }
+        this.moves = new byte[pits.length];
+        for (int i = 0; i < pits.length; i++) {
+            if (pits[i] < 1 || pits[i] > 12) {
+                throw new RuntimeException("Pit out of range.");
+            }
+            this.moves[i] = (byte) pits[i];
+        }
+        this.ruleSet = rules;
+        this.startStones = stones;
+        this.playerOne = nameOne;
+        this.playerTwo = nameTwo;
+        this.result = outcome;
+        this.forfeit = forfeited;
+    }
+
+    /**
+     * Get the rule set.
+     *
+     * @return 1 for Kalah, 2 for Ayo.
+     */
+    public int getRuleSet() {
+        return this.ruleSet;
+    }
+
+    /**
+     * Get the stones each pit starts with.
+     *
+     * @return The start stones.
+     */
+    public int getStartStones() {
+        return this.startStones;
+    }
+
+    /**
+     * Get a player's name.
+     *
+     * @param playerNum The player (1 or 2).
+     * @return The name.
+     */
+    public String getPlayerName(final int playerNum) {
+        return playerNum == 1 ? this.playerOne : this.playerTwo;
+    }
+
+    /**
+     * Get the number of moves.
+     *
+     * @return The move count.
+     */
+    public int getMoveCount() {
+        return this.moves.length;
+    }
+
+    /**
+     * Get one move.
+     *
+     * @param index The move's place in the game, from 0.
+     * @return The pit moved from, 1 to 12.
+     */
+    public int getMove(final int index) {
+        return this.moves[index];
+    }
+
+    /**
+     * Get every move.
+     *
+     * @return The pit of every move, in order.
+     */
+    public int[] getMoves() {
+        final int[] pits = new int[this.moves.length];
+        for (int i = 0; i < pits.length; i++) {
+            pits[i] = this.moves[i];
+        }
+        return pits;
+    }
+
+    /**
+     * Get the result.
+     *
+     * @return ONE_WINS, TWO_WINS, DRAW or UNFINISHED.
+     */
+    public int getResult() {
+        return this.result;
+    }
+
+    /**
+     * Checks whether the game was lost by an illegal move.
+     *
+     * @return True if the player to move after the last move forfeited.
+     */
+    public boolean isForfeit() {
+        return this.forfeit;
+    }
+
+    /**
+     * Play the moves through the rules, from the start position.
+     *
+     * @return The rules, at the position after the last move.
+     * @throws IOException If a move is not legal, or is made after the game is over.
+     */
+    public GameRules replay() throws IOException {
+        final GameRules rules = this.ruleSet == 2 ? new AyoRules() : new KalahRules();
+        play(rules);
+        return rules;
+    }
+
+    /**
+     * Work out whose turn it is after the last move.
+     *
+     * @return The player to move (1 or 2).
+     * @throws IOException If a move is not legal, or is made after the game is over.
+     */
+    public int getPlayerToMove() throws IOException {
+        return play(this.ruleSet == 2 ? new AyoRules() : new KalahRules());
+    }
+
+    /*play the moves on new rules from the start position; returns the player to move after them*/
+    private int play(final GameRules rules) throws IOException {
+        rules.registerPlayers(new Player(), new Player());
+        rules.getDataStructure().startWith(this.startStones);
+        int playerNum = 1;
+        for (int i = 0; i < this.moves.length; i++) {
+            if (rules.isGameOver()) {
+                throw new IOException("Move " + (i + 1) + " is after the end of the game.");
+            }
+            try {
+                rules.moveStones(this.moves[i], playerNum);
+            } catch (InvalidMoveException e) {
+                throw new IOException("Move " + (i + 1) + " (pit " + this.moves[i] + ") is not legal.");
+            }
+            if (!rules.isFreeTurn()) {
+                playerNum = SearchEngine.opponent(playerNum);
+            }
+        }
+        return playerNum;
+    }
+
+    /**
+     * Play the record into a game that can be played on.
+     *
+     * @return The game, at the position after the last move.
+     * @throws IOException If a move is not legal.
+     */
+    public MancalaGame toGame() throws IOException {
+        final MancalaGame game = new MancalaGame(this.ruleSet);
+        game.setPlayers(new Player(new UserProfile(this.playerOne)), new Player(new UserProfile(this.playerTwo)));
+        game.setCurrentPlayer(game.getPlayer(1));
+        game.getDataStructure().startWith(this.startStones);
+        for (int i = 0; i < this.moves.length; i++) {
+            if (game.tryMove(this.moves[i]) != GameRules.MOVE_OK) {
+                throw new IOException("Move " + (i + 1) + " (pit " + this.moves[i] + ") is not legal.");
+            }
+        }
+        return game;
+    }
+
+    /**
+     * Work out the result of a position.
+     *
+     * @param rules The rules, at the position.
+     * @return ONE_WINS, TWO_WINS or DRAW if the game is over, otherwise UNFINISHED.
+     */
+    public static int resultOf(final GameRules rules) {
+        if (!rules.isGameOver()) {
+            return UNFINISHED;
+        }
+        final MancalaDataStructure data = rules.getDataStructure();
+        final int one = data.getStoreCount(1) + data.getSideTotal(1);
+        final int two = data.getStoreCount(2) + data.getSideTotal(2);
+        return one == two ? DRAW : one > two ? ONE_WINS : TWO_WINS;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (!(other instanceof GameRecord)) {
+            return false;
+        }
+        final GameRecord record = (GameRecord) other;
+        return this.ruleSet == record.ruleSet && this.startStones == record.startStones
+                && this.playerOne.equals(record.playerOne) && this.playerTwo.equals(record.playerTwo)
+                && Arrays.equals(this.moves, record.moves) && this.result == record.result
+                && this.forfeit == record.forfeit;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(this.moves) + this.playerOne.hashCode() + this.playerTwo.hashCode();
+    }
+}
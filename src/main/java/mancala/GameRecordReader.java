@@ -0,0 +1,245 @@
+package mancala;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Reads game records written by GameRecordWriter, one game at a time, so
+ * an archive of any size is read in the memory of its longest game.
+ * Each game's moves are played through the rules as it is read, and a
+ * game with an illegal move, or a result its moves do not reach, is an
+ * error. A game tagged as a forfeit must stop before the end, with the
+ * player to move as the loser. Tags other than the ones the writer uses are
+ * skipped.
+ */
+public final class GameRecordReader implements Closeable {
+
+    private final BufferedReader in;
+    private final boolean validate;
+    private int[] moves = new int[128]; // reused for every game
+    private int lineNumber;
+    private long gameCount;
+
+    /**
+     * Constructor to initialize a reader that checks every game.
+     *
+     * @param input Where the records come from; closed with this reader.
+     */
+    public GameRecordReader(final Reader input) {
+        this(input, true);
+    }
+
+    /**
+     * Constructor to initialize a reader.
+     *
+     * @param input       Where the records come from; closed with this reader.
+     * @param replayMoves Whether to play each game through the rules to check it.
+     */
+    public GameRecordReader(final Reader input, final boolean replayMoves) {
+        this.in = input instanceof BufferedReader ? (BufferedReader) input : new BufferedReader(input);
+        this.validate = replayMoves;
+    }
+
+    /**
+     * Read the next game.
+     *
+     * @return The game, or null at the end of the input.
+     * @throws IOException If the input cannot be read, is not a game record,
+     *                     or holds a game that cannot be played as recorded.
+     */
+    public GameRecord next() throws IOException {
+        String line = nextLine();
+        if (line == null) {
+            return null;
+        }
+        final int startLine = this.lineNumber;
+        int ruleSet = 0;
+        int startStones = 4;
+        String nameOne = null;
+        String nameTwo = null;
+        String resultTag = null;
+        boolean forfeit = false;
+        while (line != null && line.startsWith("[")) {
+            final int space = line.indexOf(' ');
+            final int open = line.indexOf('"');
+            final int close = line.lastIndexOf('"');
+            if (space < 0 || open != space + 1 || close <= open || !line.endsWith("\"]")) {
+                throw error("not a tag");
+            }
+            final String name = line.substring(1, space);
+            final String value = unescape(line.substring(open + 1, close));
+            if ("Rules".equals(name)) {
+                ruleSet = "Kalah".equals(value) ? 1 : "Ayo".equals(value) ? 2 : -1;
+            } else if ("StartStones".equals(name)) {
+                startStones = parseNumber(value);
+            } else if ("PlayerOne".equals(name)) {
+                nameOne = value;
+            } else if ("PlayerTwo".equals(name)) {
+                nameTwo = value;
+            } else if ("Result".equals(name)) {
+                resultTag = value;
+            } else if ("Termination".equals(name)) {
+                forfeit = "forfeit".equals(value);
+            }
+            line = nextLine();
+        }
+        if (ruleSet <= 0 || startStones < 1 || startStones > GameRecord.MAX_START_STONES || nameOne == null
+                || nameTwo == null || resultTag == null || parseResult(resultTag) == null
+                || forfeit && parseResult(resultTag) < GameRecord.ONE_WINS) {
+            throw new IOException("Game record line " + startLine + ": missing or bad tags.");
+        }
+
+        int count = 0;
+        Integer result = null;
+        while (result == null) {
+            if (line == null) {
+                throw error("the game ends without a result");
+            }
+            int pos = 0;
+            while (pos < line.length()) {
+                while (pos < line.length() && Character.isWhitespace(line.charAt(pos))) {
+                    pos++;
+                }
+                int end = pos;
+                while (end < line.length() && !Character.isWhitespace(line.charAt(end))) {
+                    end++;
+                }
+                if (end == pos) {
+                    break;
+                }
+                final String token = line.substring(pos, end);
+                if (result != null) {
+                    throw error("moves after the result");
+                }
+                result = parseResult(token);
+                if (result == null) {
+                    final int pit = parseNumber(token);
+                    if (pit < 1 || pit > 12) {
+                        throw error("'" + token + "' is not a move");
+                    }
+                    if (count == this.moves.length) {
+                        this.moves = Arrays.copyOf(this.moves, count * 2);
+                    }
+                    this.moves[count++] = pit;
+                }
+                pos = end;
+            }
+            if (result == null) {
+                line = this.in.readLine();
+                this.lineNumber++;
+            }
+        }
+        if (!result.equals(parseResult(resultTag))) {
+            throw new IOException("Game record line " + startLine + ": the result tag and the moves' result differ.");
+        }
+
+        final GameRecord record = new GameRecord(ruleSet, startStones, nameOne, nameTwo,
+                Arrays.copyOf(this.moves, count), result, forfeit);
+        if (this.validate) {
+            try {
+                final GameRules end = record.replay();
+                if (!forfeit && GameRecord.resultOf(end) != result) {
+                    throw new IOException("the moves do not reach the recorded result.");
+                }
+                if (forfeit && (end.isGameOver() || result != (record.getPlayerToMove() == 1
+                        ? GameRecord.TWO_WINS : GameRecord.ONE_WINS))) {
+                    throw new IOException("the forfeit is not by the player to move in an unfinished game.");
+                }
+            } catch (IOException e) {
+                throw new IOException("Game record line " + startLine + ": " + e.getMessage());
+            }
+        }
+        this.gameCount++;
+        return record;
+    }
+
+    /**
+     * Get the number of games read.
+     *
+     * @return The game count.
+     */
+    public long getGameCount() {
+        return this.gameCount;
+    }
+
+    /**
+     * Get the number of the last line read.
+     *
+     * @return The line number, from 1.
+     */
+    public int getLineNumber() {
+        return this.lineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.in.close();
+    }
+
+    /*the next line that is not blank, or null at the end*/
+    private String nextLine() throws IOException {
+        String line = this.in.readLine();
+        this.lineNumber++;
+        while (line != null && line.isBlank()) {
+            line = this.in.readLine();
+            this.lineNumber++;
+        }
+        return line;
+    }
+
+    /*a result token as a GameRecord result, or null if it is not one*/
+    private static Integer parseResult(final String token) {
+        Integer result = null;
+        if ("1-0".equals(token)) {
+            result = GameRecord.ONE_WINS;
+        } else if ("0-1".equals(token)) {
+            result = GameRecord.TWO_WINS;
+        } else if ("1/2-1/2".equals(token)) {
+            result = GameRecord.DRAW;
+        } else if ("*".equals(token)) {
+            result = GameRecord.UNFINISHED;
+        }
+        return result;
+    }
+
+    /*a small decimal number, or -1 if the text is not one*/
+    private static int parseNumber(final String text) {
+        if (text.isEmpty() || text.length() > 3) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + c - '0';
+        }
+        return value;
+    }
+
+    /*undoes the writer's escaping of quotes and backslashes*/
+    private static String unescape(final String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        final StringBuilder text = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                i++;
+                text.append(value.charAt(i));
+            } else {
+                text.append(c);
+            }
+        }
+        return text.toString();
+    }
+
+    private IOException error(final String problem) {
+        return new IOException("Game record line " + this.lineNumber + ": " + problem + ".");
+    }
+}
@@ -0,0 +1,127 @@
+package mancala;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes game records as text, one after another, without holding more
+ * than the record being written.
+ *
+ * <pre>
+ * [Rules "Kalah"]
+ * [StartStones "4"]
+ * [PlayerOne "aymann"]
+ * [PlayerTwo "kulsum"]
+ * [Result "1-0"]
+ *
+ * 3 2 8 1 12 6 ... 1-0
+ * </pre>
+ * The tags come first, then a blank line, then the pit of every move,
+ * at most MOVES_PER_LINE to a line, ending with the result, then a blank
+ * line. A result is 1-0 or 0-1 for a win, 1/2-1/2 for a draw and * for an
+ * unfinished game. A forfeit also has a [Termination "forfeit"] tag after
+ * the result tag.
+ */
+public final class GameRecordWriter implements Closeable, Flushable {
+
+    /** Moves written on one line. */
+    public static final int MOVES_PER_LINE = 24;
+
+    private final BufferedWriter out;
+    private long gameCount;
+
+    /**
+     * Constructor to initialize a writer.
+     *
+     * @param output Where the records go; closed with this writer.
+     */
+    public GameRecordWriter(final Writer output) {
+        this.out = output instanceof BufferedWriter ? (BufferedWriter) output : new BufferedWriter(output);
+    }
+
+    /**
+     * Write one game.
+     *
+     * @param record The game.
+     * @throws IOException If the output cannot be written.
+     */
+    public void write(final GameRecord record) throws IOException {
+        final String result = resultText(record.getResult());
+        tag("Rules", record.getRuleSet() == 2 ? "Ayo" : "Kalah");
+        tag("StartStones", Integer.toString(record.getStartStones()));
+        tag("PlayerOne", record.getPlayerName(1));
+        tag("PlayerTwo", record.getPlayerName(2));
+        tag("Result", result);
+        if (record.isForfeit()) {
+            tag("Termination", "forfeit");
+        }
+        this.out.newLine();
+        for (int i = 0; i < record.getMoveCount(); i++) {
+            if (i > 0) {
+                if (i % MOVES_PER_LINE == 0) {
+                    this.out.newLine();
+                } else {
+                    this.out.write(' ');
+                }
+            }
+            this.out.write(Integer.toString(record.getMove(i)));
+        }
+        if (record.getMoveCount() > 0) {
+            this.out.write(' ');
+        }
+        this.out.write(result);
+        this.out.newLine();
+        this.out.newLine();
+        this.gameCount++;
+    }
+
+    /**
+     * Get the number of games written.
+     *
+     * @return The game count.
+     */
+    public long getGameCount() {
+        return this.gameCount;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        this.out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.out.close();
+    }
+
+    /**
+     * Get the text of a result.
+     *
+     * @param result ONE_WINS, TWO_WINS, DRAW or UNFINISHED.
+     * @return 1-0, 0-1, 1/2-1/2 or *.
+     */
+    static String resultText(final int result) {
+        String text = "*";
+        if (result == GameRecord.ONE_WINS) {
+            text = "1-0";
+        } else if (result == GameRecord.TWO_WINS) {
+            text = "0-1";
+        } else if (result == GameRecord.DRAW) {
+            text = "1/2-1/2";
+        }
+        return text;
+    }
+
+    /*[Name "value"], with quotes and backslashes escaped*/
+    private void tag(final String name, final String value) throws IOException {
+        this.out.write('[');
+        this.out.write(name);
+        this.out.write(" \"");
+        this.out.write(value.replace("\\", "\\\\").replace("\"", "\\\""));
+        this.out.write("\"]");
+        this.out.newLine();
+    }
+}
@@ -8,7 +8,15 @@ import java.io.Serializable;
  */
 public abstract class GameRules implements Serializable {
 
+    /** Status code: the move was made. */
+    public static final int MOVE_OK = 0;
+    /** Status code: the pit is not on the player's side (or is not a pit). */
+    public static final int NOT_OWN_PIT = 1;
+    /** Status code: the pit has no stones to move. */
+    public static final int EMPTY_PIT = 2;
+
     private static final long serialVersionUID = 1L;
+    private static final int CELLS = 14;
     private final MancalaDataStructure gameBoard;
     private int currentPlayer = 1; // Player number (1 or 2)
     private int freeTurn = 0;
@@ -41,30 +49,39 @@ public abstract class GameRules implements Serializable {
 
     /**
      * Check if a side (player's 6 pits) is empty.
+     * Reads the board's running side total, so it is O(1) and changes nothing.
      *
      * @param pitNum The number of a pit on a side.
      * @return True if the side is empty, false otherwise.
      */
-    boolean isSideEmpty(int pitNum) {
+    boolean isSideEmpty(final int pitNum) {
+        return gameBoard.getSideTotal(pitNum < 7 ? 1 : 2) == 0;
+    }
 
-        int numStones = 0;
-        int ctr = 0;
-        boolean retVal = false;
+    /**
+     * Check if either side is empty, which ends the game.
+     *
+     * @return True if the game is over, false otherwise.
+     */
+    public boolean isGameOver() {
+        return gameBoard.getSideTotal(1) == 0 || gameBoard.getSideTotal(2) == 0;
+    }
 
-        if (pitNum > 0 && pitNum < 7) {
-            pitNum = 1; // set to first pit on that side
-        } else if (pitNum > 6 && pitNum < 13) {
-            pitNum = 7;
-        }
-        while (ctr < 6) {
-            numStones += getNumStones(pitNum + ctr); // add stones in each pit
-            ctr++;
-        }
-        if (numStones == 0) { // if all pits on that side are empty
-            storeRemainingStones(pitNum); // Store opponent's stones
+    /**
+     * Finish a game that is over by moving the stones left on the board
+     * into the store of the side they are on.
+     *
+     * @return True if the game was over and the stones were stored, false otherwise.
+     */
+    public boolean finishGame() {
+        boolean retVal = false;
+        if (isSideEmpty(1)) {
+            storeRemainingStones(1); // Store opponent's stones
+            retVal = true;
+        } else if (isSideEmpty(7)) {
+            storeRemainingStones(7);
             retVal = true;
         }
-
         return retVal;
     }
 
@@ -161,6 +178,7 @@ public abstract class GameRules implements Serializable {
      */
     public void setPlayer(final int playerNum) {
         currentPlayer = playerNum;
+        gameBoard.setSideToMove(playerNum);
     }
 
     /**
@@ -172,6 +190,102 @@ public abstract class GameRules implements Serializable {
         return currentPlayer;
     }
 
+    /**
+     * Get the pits a player may move from as a bit mask.
+     * Bit 0 is the player's first pit (1 or 7) and bit 5 their last (6 or 12).
+     *
+     * @param playerNum The player number (1 or 2).
+     * @return The 6-bit mask of legal moves, 0 if there are none.
+     */
+    public int legalMoves(final int playerNum) {
+        int mask = 0;
+        if (playerNum == 1 || playerNum == 2) {
+            final int firstPos = playerNum == 1 ? 0 : 7;
+            for (int i = 0; i < 6; i++) {
+                if (gameBoard.getCell(firstPos + i) > 0) {
+                    mask |= 1 << i;
+                }
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Check whether a move is legal without making it.
+     *
+     * @param startPit  The starting pit for the move.
+     * @param playerNum The player making the move.
+     * @return MOVE_OK, NOT_OWN_PIT or EMPTY_PIT.
+     */
+    public int checkMove(final int startPit, final int playerNum) {
+        int status = MOVE_OK;
+        if (!checkOwnPit(playerNum, startPit)) {
+            status = NOT_OWN_PIT;
+        } else if (gameBoard.getNumStones(startPit) <= 0) {
+            status = EMPTY_PIT;
+        }
+        return status;
+    }
+
+    /**
+     * Make a move if it is legal, without throwing or allocating.
+     *
+     * @param startPit  The starting pit for the move.
+     * @param playerNum The player making the move.
+     * @return MOVE_OK if the move was made, otherwise NOT_OWN_PIT or EMPTY_PIT.
+     */
+    public int tryMove(final int startPit, final int playerNum) {
+        final int status = checkMove(startPit, playerNum);
+        if (status == MOVE_OK) {
+            setPlayer(playerNum);
+            recordOutcome(sowStones(gameBoard, startPit, playerNum));
+        }
+        return status;
+    }
+
+    /**
+     * Perform a move and report everything it did.
+     *
+     * @param startPit  The starting pit for the move.
+     * @param playerNum The player making the move.
+     * @return The result of the move.
+     * @throws InvalidMoveException If the move is invalid.
+     */
+    public MoveResult playMove(final int startPit, final int playerNum) throws InvalidMoveException {
+
+        if (checkMove(startPit, playerNum) != MOVE_OK) {
+            throw new InvalidMoveException();
+        }
+
+        final int[] before = new int[CELLS];
+        for (int pos = 0; pos < CELLS; pos++) {
+            before[pos] = gameBoard.getCell(pos);
+        }
+        final int inStore = before[playerNum == 1 ? 6 : 13];
+
+        setPlayer(playerNum);
+        final int outcome = sowStones(gameBoard, startPit, playerNum);
+        recordOutcome(outcome);
+
+        int changed = 0;
+        for (int pos = 0; pos < CELLS; pos++) {
+            if (gameBoard.getCell(pos) != before[pos]) {
+                changed |= 1 << pos;
+            }
+        }
+        return new MoveResult(startPit, playerNum, outcome,
+                gameBoard.getStoreCount(playerNum) - inStore, isGameOver(), changed);
+    }
+
+    /**
+     * Keep track of what the last sowing on the rules' own board did.
+     *
+     * @param outcome The packed MoveOutcome of the sowing.
+     */
+    void recordOutcome(final int outcome) {
+        this.freeTurn = MoveOutcome.isFreeTurn(outcome) ? 1 : 0;
+    }
+
     /**
      * Perform a move and return the number of stones added to the player's store.
      *
@@ -190,6 +304,40 @@ public abstract class GameRules implements Serializable {
      */
     abstract int distributeStones(int startPit);
 
+    /**
+     * Sow the stones from a pit on the given board, including any captures.
+     * Only the board passed in is changed, so scratch boards can be used.
+     *
+     * @param board     The board to sow on.
+     * @param startPit  The starting pit for distribution.
+     * @param playerNum The player making the move.
+     * @return The packed MoveOutcome of the sowing.
+     */
+    abstract int sowStones(MancalaDataStructure board, int startPit, int playerNum);
+
+    /**
+     * Apply a move to a packed board state and return the resulting state.
+     * The rules' own board is not touched.
+     *
+     * @param state    The state to move from.
+     * @param startPit The starting pit for the move.
+     * @return The state after the move, with the next player to move.
+     * @throws InvalidMoveException If the move is invalid.
+     */
+    public BoardState applyMove(final BoardState state, final int startPit) throws InvalidMoveException {
+
+        final int playerNum = state.getPlayer();
+        if (!checkOwnPit(playerNum, startPit) || state.getNumStones(startPit) <= 0) {
+            throw new InvalidMoveException();
+        }
+        final MancalaDataStructure board = state.toDataStructure();
+        int nextPlayer = playerNum;
+        if (!MoveOutcome.isFreeTurn(sowStones(board, startPit, playerNum))) {
+            nextPlayer = playerNum == 1 ? 2 : 1;
+        }
+        return BoardState.of(board, nextPlayer);
+    }
+
     /**
      * Capture stones from the opponent's pit and return the number captured.
      *
@@ -0,0 +1,184 @@
+package mancala;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * Reads and writes the state of a game in a small fixed binary layout,
+ * in place of serializing the whole MancalaGame object graph.
+ * Players are stored by name only; their profiles are looked up again
+ * when a game is read, so a save never holds a stale copy of them.
+ *
+ * <pre>
+ * offset  size  field
+ *  0      2     magic "MG"
+ *  2      1     version
+ *  3      1     rule set (1 Kalah, 2 Ayo)
+ *  4      1     flags: bit 0 player two to move, bits 1 and 2 player one and two are the computer
+ *  5      4     moves made
+ *  9      14    stones in each board position, pits 1-6, store one, pits 7-12, store two
+ *  23     1+n   player one's name, UTF-8, n at most 255 bytes
+ *  ...    1+n   player two's name
+ *  ...    4     CRC-32 of everything before it
+ * </pre>
+ * A game between two six-letter names takes 41 bytes.
+ */
+public final class GameStateCodec {
+
+    static final short MAGIC = 0x4D47; // "MG"
+    static final int VERSION = 1;
+
+    private static final int CELLS = 14;
+    private static final int FIXED_BYTES = 9 + CELLS + 2 + 4; // everything but the name bytes
+    private static final int TWO_TO_MOVE = 1;
+    private static final int ONE_COMPUTER = 1 << 1;
+    private static final int TWO_COMPUTER = 1 << 2;
+
+    private GameStateCodec() {
+    }
+
+    /**
+     * Write the state of a game.
+     *
+     * @param game The game, with its players set.
+     * @return The encoded state.
+     * @throws IOException If the game cannot be stored in this format.
+     */
+    public static byte[] encode(final MancalaGame game) throws IOException {
+        final Player one = game.getPlayer(1);
+        final Player two = game.getPlayer(2);
+        if (one == null || two == null) {
+            throw new IOException("Game has no players to save.");
+        }
+        final byte[] nameOne = nameBytes(one);
+        final byte[] nameTwo = nameBytes(two);
+        final MancalaDataStructure data = game.getDataStructure();
+
+        int flags = 0;
+        if (game.getCurrentPlayer() == two) {
+            flags |= TWO_TO_MOVE;
+        }
+        if (one instanceof ComputerPlayer) {
+            flags |= ONE_COMPUTER;
+        }
+        if (two instanceof ComputerPlayer) {
+            flags |= TWO_COMPUTER;
+        }
+
+        final ByteBuffer buffer = ByteBuffer.allocate(FIXED_BYTES + nameOne.length + nameTwo.length);
+        try {
+            buffer.putShort(MAGIC);
+            buffer.put((byte) VERSION);
+            buffer.put((byte) (game.getBoard() instanceof AyoRules ? 2 : 1));
+            buffer.put((byte) flags);
+            buffer.putInt(game.getMoveCount());
+            for (int pos = 0; pos < CELLS; pos++) {
+                final int count = data.getCell(pos);
+                if (count < 0 || count > 255) {
+                    throw new IOException("Too many stones in one pit to save.");
+                }
+                buffer.put((byte) count);
+            }
+            buffer.put((byte) nameOne.length).put(nameOne);
+            buffer.put((byte) nameTwo.length).put(nameTwo);
+        } catch (BufferOverflowException e) {
+            throw new IOException("Saved game does not fit its layout.");
+        }
+        final CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        return buffer.array();
+    }
+
+    /**
+     * Read the state of a game.
+     *
+     * @param bytes    The encoded state.
+     * @param profiles Finds a player's profile by name; may return null,
+     *                 in which case the player gets a new profile.
+     * @return The game, ready to play on.
+     * @throws IOException If the bytes are not a saved game or are damaged.
+     */
+    public static MancalaGame decode(final byte[] bytes, final Function<String, UserProfile> profiles)
+            throws IOException {
+        if (bytes.length < FIXED_BYTES) {
+            throw new IOException("Not a saved game.");
+        }
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.getShort() != MAGIC) {
+            throw new IOException("Not a saved game.");
+        }
+        final int version = buffer.get() & 0xFF;
+        if (version != VERSION) {
+            throw new IOException("Unsupported saved game version " + version + ".");
+        }
+        final CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 4);
+        if ((int) crc.getValue() != buffer.getInt(bytes.length - 4)) {
+            throw new IOException("Saved game is damaged.");
+        }
+
+        try {
+            final int ruleSet = buffer.get();
+            final int flags = buffer.get();
+            final int moves = buffer.getInt();
+            final int[] cells = new int[CELLS];
+            for (int pos = 0; pos < CELLS; pos++) {
+                cells[pos] = buffer.get() & 0xFF;
+            }
+            final String nameOne = readName(buffer);
+            final String nameTwo = readName(buffer);
+            if (ruleSet != 1 && ruleSet != 2 || nameOne.isBlank() || nameTwo.isBlank() || buffer.remaining() != 4) {
+                throw new IOException("Saved game is damaged.");
+            }
+
+            final Player one = makePlayer(nameOne, (flags & ONE_COMPUTER) != 0, profiles);
+            final Player two = makePlayer(nameTwo, (flags & TWO_COMPUTER) != 0, profiles);
+            final MancalaGame game = new MancalaGame(ruleSet);
+            game.setPlayers(one, two);
+            final MancalaDataStructure data = game.getDataStructure();
+            for (int pos = 0; pos < CELLS; pos++) {
+                data.setCell(pos, cells[pos]);
+            }
+            final int toMove = (flags & TWO_TO_MOVE) != 0 ? 2 : 1;
+            game.setCurrentPlayer(toMove == 2 ? two : one);
+            game.getBoard().setPlayer(toMove);
+            game.setMoveCount(moves);
+            return game;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Saved game is damaged.");
+        }
+    }
+
+    /*a player's name as length-prefixed UTF-8*/
+    private static byte[] nameBytes(final Player player) throws IOException {
+        final byte[] name = player.getName().getBytes(StandardCharsets.UTF_8);
+        if (name.length > 255) {
+            throw new IOException("Player name too long to save.");
+        }
+        return name;
+    }
+
+    /*reads a length-prefixed UTF-8 name*/
+    private static String readName(final ByteBuffer buffer) {
+        final byte[] name = new byte[buffer.get() & 0xFF];
+        buffer.get(name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    /*a player with their stored profile, or a fresh one if there is none*/
+    private static Player makePlayer(final String name, final boolean computer,
+                                     final Function<String, UserProfile> profiles) {
+        final Player player = computer ? new ComputerPlayer(name) : new Player(new UserProfile(name));
+        final UserProfile profile = profiles == null ? null : profiles.apply(name);
+        if (profile != null) {
+            player.setUserProfile(profile);
+        }
+        return player;
+    }
+}
@@ -0,0 +1,40 @@
+package mancala;
+
+/**
+ * Receives the games of a GameArchive as they are replayed, position by
+ * position, without a MancalaGame being made for any of them.
+ * A scan gives each of its threads a visitor of its own, so a visitor
+ * needs no locking.
+ */
+public interface GameVisitor {
+
+    /**
+     * Called before a game's first move.
+     *
+     * @param ruleSet     The rule set: 1 for Kalah, 2 for Ayo.
+     * @param startStones The stones each pit started with.
+     * @param result      A GameRecord result: ONE_WINS, TWO_WINS, DRAW or UNFINISHED.
+     * @param moveCount   The number of moves in the game.
+     */
+    default void startGame(int ruleSet, int startStones, int result, int moveCount) {
+    }
+
+    /**
+     * Called after each move.
+     *
+     * @param board     The position after the move; must not be changed or kept.
+     * @param ply       The move's place in the game, from 0.
+     * @param playerNum The player who moved (1 or 2).
+     * @param pit       The pit moved from, 1 to 12.
+     * @param captured  The stones the move captured.
+     */
+    void move(MancalaDataStructure board, int ply, int playerNum, int pit, int captured);
+
+    /**
+     * Called after a game's last move.
+     *
+     * @param board The final position; must not be changed or kept.
+     */
+    default void endGame(MancalaDataStructure board) {
+    }
+}
@@ -5,6 +5,8 @@ package mancala;
  */
 public class KalahRules extends GameRules {
 
+    private static final long serialVersionUID = 8910893897242659954L; // the UID older saves were written with
+
     private final MancalaDataStructure gameBoard;
 
     /**
@@ -27,16 +29,9 @@ public class KalahRules extends GameRules {
     public int moveStones(final int startPit, final int playerNum) throws InvalidMoveException {
 
         final int inStore = gameBoard.getStoreCount(playerNum);
-        final int numMoves = getNumStones(startPit); // Get number of moves (# of stones in pit)
 
-        if (!checkOwnPit(playerNum, startPit)) {
-            throw new InvalidMoveException();
-        } else if (numMoves <= 0) {
+        if (tryMove(startPit, playerNum) != MOVE_OK) {
             throw new InvalidMoveException();
-        } else {
-            setPlayer(playerNum);
-            gameBoard.setIterator(startPit, playerNum, false);
-            distributeStones(startPit);
         }
 
         return gameBoard.getStoreCount(playerNum) - inStore; // returning amount of stones added to store
@@ -51,30 +46,42 @@ public class KalahRules extends GameRules {
     @Override
     protected int distributeStones(final int startPit) {
 
-        final int numStones = gameBoard.removeStones(startPit);
-        int toDistribute = numStones; // Get amount to distribute (# of stones in pit)
-
-        gameBoard.setIterator(startPit, getPlayer(), false);
-
-        while (toDistribute > 0) { // distribute stones until none left
+        final int numStones = gameBoard.getNumStones(startPit);
+        recordOutcome(sowStones(gameBoard, startPit, getPlayer()));
+        return numStones;
+    }
 
-            final Countable data = gameBoard.next();
-            data.addStone();
+    /**
+     * Sow the stones from a pit on a board, capturing if the last stone lands
+     * in an empty pit of the player's own side.
+     * Uses the precomputed sowing table, so full laps cost the same as one.
+     *
+     * @param board     The board to sow on.
+     * @param startPit  The starting pit for distribution.
+     * @param playerNum The player making the move.
+     * @return The packed MoveOutcome; a bonus turn if the last stone landed in the player's store.
+     */
+    @Override
+    int sowStones(final MancalaDataStructure board, final int startPit, final int playerNum) {
 
-            final int pitNum = gameBoard.getPitNum();
+        final int startPos = SowingTable.toPosition(startPit);
+        final int numStones = board.removeStones(startPit); // Get amount to distribute (# of stones in pit)
+        if (numStones <= 0) {
+            return MoveOutcome.of(startPos, 0, 0, false, false);
+        }
 
-            if (toDistribute == 1 && pitNum > 0) {
-                if (data.getStoneCount() == 1 && checkOwnPit(getPlayer(), pitNum)) { // check if last stone ends up in own pit to capture
-                    captureStones(pitNum);
-                }
-            } else if (toDistribute == 1 && pitNum < 0) {
-                setFreeTurn();
-            }
-            toDistribute--; // decrement stone count once put in pit
+        final int[] lap = SowingTable.order(playerNum, SowingTable.NO_SKIP, startPos);
+        final int landing = SowingTable.sow(board, lap, numStones);
+        final int pitNum = SowingTable.toPitNum(landing);
+        int captured = 0;
 
+        if (pitNum < 0) { // last stone in own store (the opponent's is never sown)
+            return MoveOutcome.of(landing, 0, 0, true, false);
         }
-
-        return numStones;
+        if (board.getCell(landing) == 1 && checkOwnPit(playerNum, pitNum)) { // check if last stone ends up in own pit to capture
+            captured = capture(board, pitNum, playerNum);
+        }
+        return MoveOutcome.of(landing, captured, 0, false, false);
     }
 
     /**
@@ -85,22 +92,20 @@ public class KalahRules extends GameRules {
      */
     @Override
     protected int captureStones(final int stoppingPoint) {
+        return capture(gameBoard, stoppingPoint, getPlayer());
+    }
 
-        int numStones = 0;
-        int[] arrayOppPit = new int[12]; // an array to rep. opposite side's pits
-        int ctr = 11;
+    /*capture helper shared by the rules' own board and scratch boards*/
+    private int capture(final MancalaDataStructure board, final int stoppingPoint, final int playerNum) {
 
-        for (int i = 0; i < 12; i++) { // opposite pit (1 <-> 12, 2 <-> 11)
-            arrayOppPit[i] = ctr;
-            ctr--;
-        }
-        final int oppPit = arrayOppPit[stoppingPoint-1] + 1; // set to number of opposite pit
-        if (gameBoard.getNumStones(oppPit) > 0) { // if opposite pit contains stones
-            numStones = gameBoard.removeStones(stoppingPoint);
-            numStones += gameBoard.removeStones(oppPit); // add last stone with all stones in opp pit
-            gameBoard.addToStore(getPlayer(), numStones); // add stones to current player's store
+        int numStones = 0;
+        final int oppPit = 13 - stoppingPoint; // opposite pit (1 <-> 12, 2 <-> 11)
+        if (board.getNumStones(oppPit) > 0) { // if opposite pit contains stones
+            numStones = board.removeStones(stoppingPoint);
+            numStones += board.removeStones(oppPit); // add last stone with all stones in opp pit
+            board.addToStore(playerNum, numStones); // add stones to current player's store
         }
         return numStones;
     }
 
-}
\ No newline at end of file
+}
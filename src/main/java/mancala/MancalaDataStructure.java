@@ -1,24 +1,51 @@
 package mancala;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.io.Serializable;
+import java.util.List;
 
 /**
  * Represents a Mancala data structure for the Mancala game.
  * Do not change the signature of any of the methods provided.
  * You may add methods if you need them.
  * Do not add game logic to this class
+ *
+ * The board is kept as one contiguous array of stone counts in board order
+ * (pits 1-6, store one, pits 7-12, store two). Store ownership is kept in a
+ * separate side table so that the stone cells stay plain ints, and each
+ * side's stone total is updated with every change.
+ * A Zobrist hash of the counts and the side to move is also updated with
+ * every change, for searches that look positions up by key.
+ * Saves made before the array board keep loading: they carry the old list
+ * of pits and stores, which readResolve turns into the array form.
  */
 public class MancalaDataStructure implements Serializable {
+    private static final long serialVersionUID = 8964772531817826281L; // the UID older saves were written with
     private final int PLAYER_ONE = 6;
     private final int PLAYER_TWO = 13;
     private int START_STONES = 4;  //not final because we might want a different size board in the future
 
-    private List<Countable> data = new ArrayList<>();
+    private static final int[] SIDE_OF = {0, 0, 0, 0, 0, 0, 2, 1, 1, 1, 1, 1, 1, 2}; // 2 collects the stores
+    private static final int KEYED_COUNTS = 256; // larger counts get their key mixed on the fly
+    private static final long SEED = 0x4D414E43414C4121L; // fixed, so keys are the same in every run
+    private static final long[] ZOBRIST = new long[SIDE_OF.length * KEYED_COUNTS];
+    private static final long SIDE_TWO_KEY = mix(SEED);
+
+    static {
+        for (int i = 0; i < ZOBRIST.length; i++) {
+            ZOBRIST[i] = i % KEYED_COUNTS == 0 ? 0 : mix(SEED + i + 1); // an empty cell adds nothing
+        }
+    }
+
+    private final int[] cells = new int[PLAYER_TWO + 1];
+    private final int[] sideTotals = new int[3]; // running stone totals for side one, side two and the stores
+    private final Store[] stores = new Store[2]; // side table: which Store object is attached to each store cell
+    private final Countable cursor = new Cursor();
     private int iteratorPos = 0;
     private int playerSkip = PLAYER_TWO;
     private int pitSkip = -1; // will never match the iteratorPos unless set specifically
+    private int sideToMove = 1;
+    private long hash = 0; // Zobrist hash of the cells and side to move
+    private List<Countable> data; // only set when reading a save from before the array board
 
 
     /**
@@ -28,14 +55,6 @@ public class MancalaDataStructure implements Serializable {
      */
     public MancalaDataStructure(int startStones){
         START_STONES = startStones;
-        for (int i = 0; i < PLAYER_ONE; i++) {
-            data.add(new Pit());
-        }
-        data.add(new Store());
-        for (int i = 7; i < PLAYER_TWO; i++) {
-            data.add(new Pit());
-        }
-        data.add(new Store());
     }
 
 
@@ -54,9 +73,7 @@ public class MancalaDataStructure implements Serializable {
      * @return The current number of stones in the pit.
      */
     public int addStones(int pitNum, int numToAdd) {
-        Countable pit = data.get(pitPos(pitNum));
-        pit.addStones(numToAdd);
-        return pit.getStoneCount();
+        return change(pitPos(pitNum), numToAdd);
     }
 
     /**
@@ -66,8 +83,10 @@ public class MancalaDataStructure implements Serializable {
      * @return The number of stones removed.
      */
     public int removeStones(int pitNum) {
-        Countable pit = data.get(pitPos(pitNum));
-        return pit.removeStones();
+        final int pos = pitPos(pitNum);
+        final int removed = cells[pos];
+        change(pos, -removed);
+        return removed;
     }
 
     /**
@@ -78,9 +97,7 @@ public class MancalaDataStructure implements Serializable {
      * @return The current number of stones in the store.
      */
     public int addToStore(int playerNum, int numToAdd) {
-        Countable store = data.get(storePos(playerNum));
-        store.addStones(numToAdd);
-        return store.getStoneCount();
+        return change(storePos(playerNum), numToAdd);
     }
 
     /**
@@ -90,8 +107,7 @@ public class MancalaDataStructure implements Serializable {
      * @return The stone count in the player's store.
      */
     public int getStoreCount(int playerNum) {
-        Countable store = data.get(storePos(playerNum));
-        return store.getStoneCount();
+        return cells[storePos(playerNum)];
     }
 
     /**
@@ -101,8 +117,180 @@ public class MancalaDataStructure implements Serializable {
      * @return The stone count in the pit.
      */
     public int getNumStones(int pitNum) {
-        Countable pit = data.get(pitPos(pitNum));
-        return pit.getStoneCount();
+        return cells[pitPos(pitNum)];
+    }
+
+    /**
+     * Gets the number of starting stones per pit for this board.
+     *
+     * @return The number of starting stones.
+     */
+    public int getStartStones() {
+        return START_STONES;
+    }
+
+    /**
+     * Gets the player who owns a store.
+     *
+     * @param playerNum The player number (1 or 2).
+     * @return The owner of that store, or null if no owned store is attached.
+     */
+    public Player getStoreOwner(int playerNum) {
+        if(playerNum <1 || playerNum > 2){
+            throw new RuntimeException("Invalid Player Position");
+        }
+        final Store store = stores[playerNum - 1];
+        return store == null ? null : store.getOwner();
+    }
+
+    /**
+     * Gets the stone count at an array position (0-5 pits 1-6, 6 store one,
+     * 7-12 pits 7-12, 13 store two).
+     *
+     * @param pos The array position.
+     * @return The stone count at that position.
+     */
+    int getCell(int pos) {
+        return cells[pos];
+    }
+
+    /**
+     * Sets the stone count at an array position.
+     *
+     * @param pos   The array position.
+     * @param count The new stone count.
+     */
+    void setCell(int pos, int count) {
+        change(pos, count - cells[pos]);
+    }
+
+    /**
+     * Adds stones at an array position.
+     *
+     * @param pos      The array position.
+     * @param numToAdd The number of stones to add.
+     * @return The new stone count at that position.
+     */
+    int addToCell(int pos, int numToAdd) {
+        return change(pos, numToAdd);
+    }
+
+    /**
+     * Copies every pit and store count, and the side to move, from another
+     * board. Store ownership and the iterator are not copied.
+     *
+     * @param other The board to copy from.
+     */
+    void copyFrom(MancalaDataStructure other) {
+        System.arraycopy(other.cells, 0, cells, 0, cells.length);
+        System.arraycopy(other.sideTotals, 0, sideTotals, 0, sideTotals.length);
+        sideToMove = other.sideToMove;
+        hash = other.hash; // the keys are shared, so the copy's hash is the same
+    }
+
+    /**
+     * Sets the player to move, which is part of the hash key.
+     *
+     * @param playerNum The player number (1 or 2).
+     */
+    public void setSideToMove(int playerNum) {
+        if(playerNum <1 || playerNum > 2){
+            throw new RuntimeException("Invalid Player Position");
+        }
+        if (playerNum != sideToMove) {
+            hash ^= SIDE_TWO_KEY;
+            sideToMove = playerNum;
+        }
+    }
+
+    /**
+     * Gets the player to move.
+     *
+     * @return The player number (1 or 2).
+     */
+    public int getSideToMove() {
+        return sideToMove;
+    }
+
+    /**
+     * Gets the Zobrist hash of the stone counts and the side to move.
+     * Equal positions always have equal keys; the hash is updated with
+     * every change, so this is O(1).
+     *
+     * @return The 64-bit hash key.
+     */
+    public long getHashKey() {
+        return hash;
+    }
+
+    /**
+     * Gets the hash key the position would have with another player to move.
+     *
+     * @param playerNum The player number (1 or 2).
+     * @return The 64-bit hash key.
+     */
+    public long getHashKey(int playerNum) {
+        return playerNum == sideToMove ? hash : hash ^ SIDE_TWO_KEY;
+    }
+
+    /**
+     * Gets the total number of stones in a player's six pits.
+     * The total is kept up to date as stones move, so this is O(1).
+     *
+     * @param playerNum The player number (1 or 2).
+     * @return The number of stones on that player's side.
+     */
+    public int getSideTotal(int playerNum) {
+        if(playerNum <1 || playerNum > 2){
+            throw new RuntimeException("Invalid Player Position");
+        }
+        return sideTotals[playerNum - 1];
+    }
+
+    /*every stone count change goes through here so the side totals and hash stay in step*/
+    private int change(int pos, int delta) {
+        final int old = cells[pos];
+        final int count = old + delta;
+        sideTotals[SIDE_OF[pos]] += delta;
+        cells[pos] = count;
+        hash ^= cellKey(pos, old) ^ cellKey(pos, count);
+        return count;
+    }
+
+    /*Zobrist key for a count in a cell*/
+    private static long cellKey(int pos, int count) {
+        if (count >= 0 && count < KEYED_COUNTS) {
+            return ZOBRIST[pos * KEYED_COUNTS + count];
+        }
+        return mix(SEED ^ ((long) pos << 32 | count & 0xFFFFFFFFL));
+    }
+
+    /*splitmix64 finalizer, used to fill the key table from the seed*/
+    private static long mix(long seed) {
+        long z = seed * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /*a save from before the array board: copy its pits and stores into a new board*/
+    private Object readResolve() {
+        if (data == null) {
+            return this;
+        }
+        final MancalaDataStructure board = new MancalaDataStructure(START_STONES);
+        for (int pos = 0; pos < data.size() && pos < board.cells.length; pos++) {
+            final Countable cell = data.get(pos);
+            if (pos == PLAYER_ONE || pos == PLAYER_TWO) {
+                board.setStore(cell, pos == PLAYER_ONE ? 1 : 2);
+            } else {
+                board.change(pos, cell.getStoneCount());
+            }
+        }
+        board.iteratorPos = iteratorPos;
+        board.playerSkip = playerSkip;
+        board.pitSkip = pitSkip;
+        return board;
     }
 
     /*helper method to convert 1 based pit numbers into array positions*/
@@ -137,8 +325,10 @@ public class MancalaDataStructure implements Serializable {
      * Empties both players' stores.
      */
     public void emptyStores() {
-        data.set(storePos(1), new Store());
-        data.set(storePos(2), new Store());
+        detachStore(1);
+        detachStore(2);
+        change(PLAYER_ONE, -cells[PLAYER_ONE]);
+        change(PLAYER_TWO, -cells[PLAYER_TWO]);
     }
 
     /**
@@ -146,11 +336,11 @@ public class MancalaDataStructure implements Serializable {
      */
     public void emptyPits() {
         for (int i = 0; i < PLAYER_ONE; i++) {
-            data.get(i).removeStones();
+            change(i, -cells[i]);
         }
 
         for (int i = 7; i < PLAYER_TWO; i++) {
-            data.get(i).removeStones();
+            change(i, -cells[i]);
         }
     }
 
@@ -161,11 +351,23 @@ public class MancalaDataStructure implements Serializable {
      */
     public void setUpPits() {
         for (int i = 0; i < PLAYER_ONE; i++) {
-            data.get(i).addStones(START_STONES);
+            change(i, START_STONES);
         }
 
         for (int i = 7; i < PLAYER_TWO; i++) {
-            data.get(i).addStones(START_STONES);
+            change(i, START_STONES);
+        }
+    }
+
+    /**
+     * Puts the board at the start of a game with a given number of stones
+     * in each pit and both stores empty.
+     *
+     * @param stones The number of stones for each pit.
+     */
+    void startWith(int stones) {
+        for (int pos = 0; pos < cells.length; pos++) {
+            setCell(pos, pos == PLAYER_ONE || pos == PLAYER_TWO ? 0 : stones);
         }
     }
 
@@ -176,7 +378,23 @@ public class MancalaDataStructure implements Serializable {
      * @param playerNum The player number (1 or 2).
      */
     public void setStore(Countable store, int playerNum) {
-        data.set(storePos(playerNum), store);
+        final int pos = storePos(playerNum);
+        final int count = store.getStoneCount();
+        detachStore(playerNum);
+        change(pos, count - cells[pos]);
+        if (store instanceof Store) {
+            stores[playerNum - 1] = (Store) store;
+            ((Store) store).attach(this, playerNum);
+        }
+    }
+
+    /*helper method to release a store object from the side table, leaving it with its last count*/
+    private void detachStore(int playerNum) {
+        final Store store = stores[playerNum - 1];
+        if (store != null) {
+            store.detach(cells[storePos(playerNum)]);
+            stores[playerNum - 1] = null;
+        }
     }
 
     /*helper method for wrapping the iterator around to the beginning again*/
@@ -238,15 +456,60 @@ public class MancalaDataStructure implements Serializable {
         return pitNum;
     }
 
+    /*helper method to advance the iterator past the end and any skipped positions*/
+    private void advanceIterator() {
+        iteratorPos++;
+        loopIterator(); // in case we've run off the end
+        skipPosition(); // skip store and start position if necessary
+    }
+
     /**
      * Moves the iterator to the next position.
+     * The returned countable is a view of the iterator position, so it
+     * follows the iterator when next() is called again.
      *
      * @return The countable object at the next position.
      */
     public Countable next() {
-        iteratorPos++;
-        loopIterator(); // in case we've run off the end
-        skipPosition(); // skip store and start position if necessary
-        return data.get(iteratorPos);
+        advanceIterator();
+        return cursor;
+    }
+
+    /**
+     * Moves the iterator to the next position and drops one stone there.
+     *
+     * @return The stone count at the new iterator position.
+     */
+    public int addToNext() {
+        advanceIterator();
+        return change(iteratorPos, 1);
+    }
+
+    /*Countable view of whatever cell the iterator is currently pointing to*/
+    private class Cursor implements Countable, Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public int getStoneCount() {
+            return cells[iteratorPos];
+        }
+
+        @Override
+        public void addStone() {
+            change(iteratorPos, 1);
+        }
+
+        @Override
+        public void addStones(final int numToAdd) {
+            change(iteratorPos, numToAdd);
+        }
+
+        @Override
+        public int removeStones() {
+            final int removed = cells[iteratorPos];
+            change(iteratorPos, -removed);
+            return removed;
+        }
     }
 }
\ No newline at end of file
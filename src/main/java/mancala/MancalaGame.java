@@ -10,6 +10,8 @@ public class MancalaGame implements Serializable {
     private GameRules board;
     private final ArrayList<Player> players;
     private Player currentPlayer;
+    private int moveCount;
+    private transient MoveJournal journal; // not saved: a loaded game starts a journal of its own
 
     /**
      * Constructor to initialize a new Mancala game with default kalah game rules.
@@ -79,6 +81,19 @@ public class MancalaGame implements Serializable {
         return this.players;
     }
 
+    /**
+     * Get a player by their board number.
+     *
+     * @param playerNum The player number (1 or 2).
+     * @return The player, or null if the players have not been set.
+     */
+    public Player getPlayer(final int playerNum) {
+        if (playerNum < 1 || playerNum > 2) {
+            throw new RuntimeException("Invalid Player Position");
+        }
+        return this.players.size() < playerNum ? null : this.players.get(playerNum - 1);
+    }
+
     /**
      * Get the current player.
      *
@@ -155,23 +170,73 @@ public class MancalaGame implements Serializable {
      */
     public int move(final int startPit) throws InvalidMoveException {
 
-        int retVal;
+        final int playerNum = this.getCurrentPlayerNum();
+        final int inStore = this.dataStructure.getStoreCount(playerNum);
+        if (this.tryMove(startPit) != GameRules.MOVE_OK) {
+            throw new InvalidMoveException();
+        }
+        return this.dataStructure.getStoreCount(playerNum) - inStore;
+    }
 
-        try {
-            int playerNum;
-            if (this.players.get(0).getName().equals(this.currentPlayer.getName())) {
-                playerNum = 1;
-            } else {
-                playerNum = 2;
-            }
-            retVal = this.board.moveStones(startPit, playerNum);
+    /**
+     * Make a move for the current player if it is legal, without throwing.
+     *
+     * @param startPit The starting pit for the move.
+     * @return GameRules.MOVE_OK if the move was made, otherwise the reason it was not.
+     */
+    public int tryMove(final int startPit) {
+        final int status = this.board.tryMove(startPit, this.getCurrentPlayerNum());
+        if (status == GameRules.MOVE_OK) {
+            this.moveCount++;
             if (!this.board.isFreeTurn()) {
                 this.changeCurrentPlayer();
             }
-        } catch (InvalidMoveException e) {
-            throw new InvalidMoveException();
+            if (this.journal != null) {
+                this.journal.recordMove(this, startPit);
+            }
+        }
+        return status;
+    }
+
+    /**
+     * Get the current player's legal moves as a bit mask.
+     *
+     * @return The 6-bit mask from GameRules.legalMoves.
+     */
+    public int legalMoves() {
+        return this.board.legalMoves(this.getCurrentPlayerNum());
+    }
+
+    /*helper that maps the current player to their board number*/
+    private int getCurrentPlayerNum() {
+        int playerNum;
+        if (this.players.get(0).getName().equals(this.currentPlayer.getName())) {
+            playerNum = 1;
+        } else {
+            playerNum = 2;
+        }
+        return playerNum;
+    }
+
+    /**
+     * Make a move for the current player and report everything it did.
+     * The current player is switched unless the move earned a bonus turn.
+     *
+     * @param startPit The starting pit for the move.
+     * @return The result of the move.
+     * @throws InvalidMoveException If the move is invalid.
+     */
+    public MoveResult playMove(final int startPit) throws InvalidMoveException {
+
+        final MoveResult result = this.board.playMove(startPit, this.getCurrentPlayerNum());
+        this.moveCount++;
+        if (!result.isFreeTurn()) {
+            this.changeCurrentPlayer();
         }
-        return retVal;
+        if (this.journal != null) {
+            this.journal.recordMove(this, startPit);
+        }
+        return result;
     }
 
     /**
@@ -193,6 +258,8 @@ public class MancalaGame implements Serializable {
 
     /**
      * Get the winner of the game.
+     * Stones still on the board count for the side they are on, whether or
+     * not finishGame() has stored them yet.
      *
      * @return The winning player.
      * @throws GameNotOverException If the game is not over.
@@ -200,8 +267,8 @@ public class MancalaGame implements Serializable {
     public Player getWinner() throws GameNotOverException {
         Player toReturn;
         if (this.isGameOver()) {
-            final int storeOneCount = this.dataStructure.getStoreCount(1);
-            final int storeTwoCount = this.dataStructure.getStoreCount(2);
+            final int storeOneCount = this.dataStructure.getStoreCount(1) + this.dataStructure.getSideTotal(1);
+            final int storeTwoCount = this.dataStructure.getStoreCount(2) + this.dataStructure.getSideTotal(2);
             if (storeOneCount == storeTwoCount) {
                 toReturn = null;
             } else if (storeOneCount > storeTwoCount) {
@@ -217,15 +284,22 @@ public class MancalaGame implements Serializable {
 
     /**
      * Check if the game is over.
+     * This only looks at the board; use finishGame() to store the remaining stones.
      *
      * @return True if the game is over, false otherwise.
      */
     public boolean isGameOver() {
-        boolean retVal = false;
-        if (this.board.isSideEmpty(1) || this.board.isSideEmpty(7)) {
-            retVal = true;
-        }
-        return retVal;
+        return this.board.isGameOver();
+    }
+
+    /**
+     * Finish the game if it is over by storing the stones left on each side
+     * in that side's store.
+     *
+     * @return True if the game was over, false otherwise.
+     */
+    public boolean finishGame() {
+        return this.board.finishGame();
     }
 
     /**
@@ -233,6 +307,45 @@ public class MancalaGame implements Serializable {
      */
     public void startNewGame() {
         this.board.resetBoard();
+        this.moveCount = 0;
+    }
+
+    /**
+     * Get the number of moves made since the game started. A bonus turn
+     * counts as a move of its own.
+     *
+     * @return The move count.
+     */
+    public int getMoveCount() {
+        return this.moveCount;
+    }
+
+    /**
+     * Record every move made from now on in a journal, so the game can be
+     * recovered after a crash.
+     *
+     * @param moveJournal The journal, or null to stop recording.
+     */
+    public void setJournal(final MoveJournal moveJournal) {
+        this.journal = moveJournal;
+    }
+
+    /**
+     * Get the journal moves are recorded in.
+     *
+     * @return The journal, or null if moves are not being recorded.
+     */
+    public MoveJournal getJournal() {
+        return this.journal;
+    }
+
+    /**
+     * Set the number of moves made, when a game is restored.
+     *
+     * @param count The move count.
+     */
+    void setMoveCount(final int count) {
+        this.moveCount = count;
     }
 
     /**
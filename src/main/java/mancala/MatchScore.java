@@ -0,0 +1,173 @@
+package mancala;
+
+/**
+ * The running score of one entrant against another, with the statistics a
+ * tournament reports: Elo difference with a 95% error bar, and the
+ * log-likelihood ratio used by a sequential probability ratio test (SPRT).
+ * Scores are added from many game threads, so updates are synchronized.
+ */
+public final class MatchScore {
+
+    private static final double Z95 = 1.959964; // two-sided 95% normal quantile
+
+    private final String first;
+    private final String second;
+    private int wins;
+    private int draws;
+    private int losses;
+
+    /**
+     * Constructor to initialize an empty score.
+     *
+     * @param firstName  The entrant the score is counted for.
+     * @param secondName The opponent.
+     */
+    public MatchScore(final String firstName, final String secondName) {
+        this.first = firstName;
+        this.second = secondName;
+    }
+
+    /**
+     * Add one game.
+     *
+     * @param points 1 for a win for the first entrant, 0.5 for a draw, 0 for a loss.
+     */
+    public synchronized void add(final double points) {
+        if (points > 0.5) {
+            this.wins++;
+        } else if (points < 0.5) {
+            this.losses++;
+        } else {
+            this.draws++;
+        }
+    }
+
+    /**
+     * Get the first entrant's name.
+     *
+     * @return The name.
+     */
+    public String getFirst() {
+        return this.first;
+    }
+
+    /**
+     * Get the opponent's name.
+     *
+     * @return The name.
+     */
+    public String getSecond() {
+        return this.second;
+    }
+
+    /**
+     * Get the number of games played.
+     *
+     * @return The game count.
+     */
+    public synchronized int getGames() {
+        return this.wins + this.draws + this.losses;
+    }
+
+    /**
+     * Get the first entrant's wins, draws and losses.
+     *
+     * @return {wins, draws, losses}.
+     */
+    public synchronized int[] getRecord() {
+        return new int[] {this.wins, this.draws, this.losses};
+    }
+
+    /**
+     * Get the Elo difference the score implies.
+     *
+     * @return The first entrant's Elo advantage; infinite after a clean sweep.
+     */
+    public synchronized double getElo() {
+        return elo(score());
+    }
+
+    /**
+     * Get half the width of the 95% confidence interval of the Elo difference.
+     *
+     * @return The error bar in Elo; infinite until it can be estimated.
+     */
+    public synchronized double getEloError() {
+        final int games = getGames();
+        if (games < 2) {
+            return Double.POSITIVE_INFINITY;
+        }
+        final double score = score();
+        if (score <= 0 || score >= 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        // delta method: the score's error bar times the slope of the Elo curve there
+        final double margin = Z95 * Math.sqrt(variance() / games);
+        return margin * 400 / (Math.log(10) * score * (1 - score));
+    }
+
+    /**
+     * Get the log-likelihood ratio of the hypothesis that the Elo difference
+     * is elo1 against the hypothesis that it is elo0, using the normal
+     * approximation to the game results.
+     *
+     * @param elo0 The Elo difference under the null hypothesis.
+     * @param elo1 The Elo difference under the alternative.
+     * @return The log-likelihood ratio, 0 before the first game.
+     */
+    public synchronized double getLlr(final double elo0, final double elo1) {
+        final int games = getGames();
+        if (games == 0) {
+            return 0;
+        }
+        // a sweep has no spread; take at least the spread one draw among the games would give
+        final double variance = Math.max(variance(), 0.25 / games);
+        final double s0 = expected(elo0);
+        final double s1 = expected(elo1);
+        return games * (s1 - s0) * (2 * score() - s0 - s1) / (2 * variance);
+    }
+
+    /**
+     * Returns a string representation of the score.
+     *
+     * @return The record, Elo difference and error bar.
+     */
+    @Override
+    public synchronized String toString() {
+        return String.format("%s vs %s: +%d =%d -%d, Elo %+.1f +/- %.1f", this.first, this.second,
+                this.wins, this.draws, this.losses, getElo(), getEloError());
+    }
+
+    /*mean points per game*/
+    private double score() {
+        final int games = getGames();
+        return games == 0 ? 0.5 : (this.wins + 0.5 * this.draws) / games;
+    }
+
+    /*variance of the points of one game*/
+    private double variance() {
+        final int games = getGames();
+        if (games == 0) {
+            return 0;
+        }
+        final double score = score();
+        return (this.wins * (1 - score) * (1 - score) + this.draws * (0.5 - score) * (0.5 - score)
+                + this.losses * score * score) / games;
+    }
+
+    /*Elo difference for a mean score*/
+    private static double elo(final double score) {
+        if (score <= 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        if (score >= 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return -400 * Math.log10(1 / score - 1);
+    }
+
+    /*mean score for an Elo difference*/
+    private static double expected(final double eloDiff) {
+        return 1 / (1 + Math.pow(10, -eloDiff / 400));
+    }
+}
@@ -0,0 +1,427 @@
+package mancala;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A Monte Carlo tree search (UCT) over a rule set. It needs no static
+ * evaluation, which suits Ayo, where relay sowing makes a move's outcome
+ * hard to judge without playing the game out.
+ * Worker threads share one tree. Each walks down it by UCT, adds a node,
+ * plays a random game to the end on its own scratch board and passes the
+ * result back up. A node counts as visited (and lost) as soon as a worker
+ * passes through it, which steers other workers elsewhere until the real
+ * result arrives. Nodes keep only their move; boards are rebuilt by
+ * replaying moves from the root.
+ * The tree is kept between searches, and a later search starts from the
+ * node for its position if that position is a few moves below the old root.
+ * Search stops when a playout or time budget runs out.
+ */
+public class MonteCarloSearch {
+
+    private static final double EXPLORATION = 1.4; // UCT exploration constant, about sqrt(2)
+    private static final int REUSE_PLIES = 4; // how far below the old root to look for the new position
+    private static final int MAX_PLAYOUT_MOVES = 1000; // stops playouts that never end
+    private static final int BATCH = 64; // playouts claimed from the budget at a time
+    private static final int MAX_PLY = 512;
+
+    private final int threads;
+    private final ExecutorService pool;
+    private final AtomicLong playouts = new AtomicLong(); // claimed from the budget
+    private final LongAdder finished = new LongAdder();
+    private final AtomicInteger nodeCount = new AtomicInteger();
+    private long playoutLimit = Long.MAX_VALUE;
+    private long timeLimitNanos = 1_000_000_000L;
+    private int maxNodes = 1_000_000;
+    private long seed = 1;
+    private volatile long deadline;
+    private GameRules rules;
+    private Node root;
+    private final MancalaDataStructure rootBoard = new MancalaDataStructure();
+    private long lastPlayouts;
+    private long lastNanos;
+
+    /**
+     * Constructor to initialize a search with its worker threads.
+     *
+     * @param workers The number of worker threads.
+     */
+    public MonteCarloSearch(final int workers) {
+        this.threads = Math.max(1, workers);
+        this.pool = Executors.newFixedThreadPool(this.threads, runnable -> {
+            final Thread thread = new Thread(runnable, "mcts-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Set how many playouts a search may run.
+     *
+     * @param limit The playout budget.
+     */
+    public void setPlayoutLimit(final long limit) {
+        this.playoutLimit = limit;
+    }
+
+    /**
+     * Set how long a search may run.
+     *
+     * @param millis The time budget in milliseconds.
+     */
+    public void setTimeLimit(final long millis) {
+        this.timeLimitNanos = millis * 1_000_000L;
+    }
+
+    /**
+     * Set the most tree nodes to keep. Once the tree is this big, playouts
+     * still run but no nodes are added.
+     *
+     * @param limit The node limit.
+     */
+    public void setMaxNodes(final int limit) {
+        this.maxNodes = limit;
+    }
+
+    /**
+     * Set the seed for the workers' random playouts.
+     *
+     * @param theSeed The seed.
+     */
+    public void setSeed(final long theSeed) {
+        this.seed = theSeed;
+    }
+
+    /**
+     * Find the best move for a player: the root move visited most.
+     *
+     * @param theRules  The rule set to search with.
+     * @param board     The position to search from (not changed).
+     * @param playerNum The player to move (1 or 2).
+     * @return The best pit to move, or -1 if the player has no move.
+     */
+    public int findBestMove(final GameRules theRules, final MancalaDataStructure board, final int playerNum) {
+        final long start = System.nanoTime();
+        reuseOrReset(theRules, board, playerNum);
+        if (this.root.legal == 0) {
+            return -1;
+        }
+
+        this.playouts.set(0);
+        this.finished.reset();
+        this.deadline = this.timeLimitNanos == Long.MAX_VALUE ? Long.MAX_VALUE : start + this.timeLimitNanos;
+        final List<Future<?>> running = new ArrayList<>();
+        for (int w = 0; w < this.threads; w++) {
+            final SplittableRandom random = new SplittableRandom(this.seed * 31 + w);
+            running.add(this.pool.submit(() -> work(random)));
+        }
+        for (final Future<?> future : running) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Search worker failed", e.getCause());
+            }
+        }
+        this.lastPlayouts = this.finished.sum();
+        this.lastNanos = System.nanoTime() - start;
+
+        Node best = null;
+        for (final Node child : this.root.children) {
+            if (child != null && (best == null || child.visits > best.visits
+                    || child.visits == best.visits && child.reward > best.reward)) {
+                best = child;
+            }
+        }
+        return best == null ? -1 : SearchEngine.pitFor(playerNum, best.move);
+    }
+
+    /**
+     * Get how many playouts the last search ran.
+     *
+     * @return The playout count.
+     */
+    public long getPlayoutCount() {
+        return this.lastPlayouts;
+    }
+
+    /**
+     * Get the playout rate of the last search.
+     *
+     * @return Playouts per second.
+     */
+    public double getPlayoutsPerSecond() {
+        return this.lastNanos == 0 ? 0 : this.lastPlayouts * 1e9 / this.lastNanos;
+    }
+
+    /**
+     * Get how often the player to move wins from the root, by the results
+     * of every playout through it (a draw counts as half a win).
+     *
+     * @return The win rate between 0 and 1, or 0.5 before any playouts.
+     */
+    public double getWinRate() {
+        if (this.root == null) {
+            return 0.5;
+        }
+        double best = -1;
+        for (final Node child : this.root.children) {
+            if (child != null && child.visits > 0) {
+                best = Math.max(best, child.reward / (2.0 * child.visits));
+            }
+        }
+        return best < 0 ? 0.5 : best;
+    }
+
+    /**
+     * Get how many times the root has been visited, including playouts
+     * kept from earlier searches.
+     *
+     * @return The root visit count.
+     */
+    public int getRootVisits() {
+        return this.root == null ? 0 : this.root.visits;
+    }
+
+    /**
+     * Stop the worker threads. The search cannot be used afterwards.
+     */
+    public void shutdown() {
+        this.pool.shutdown();
+    }
+
+    /*start from the old tree's node for this position if there is one*/
+    private void reuseOrReset(final GameRules theRules, final MancalaDataStructure board, final int playerNum) {
+        Node found = null;
+        if (this.root != null && theRules == this.rules) {
+            final MancalaDataStructure[] scratch = new MancalaDataStructure[REUSE_PLIES + 1];
+            for (int i = 0; i <= REUSE_PLIES; i++) {
+                scratch[i] = new MancalaDataStructure();
+            }
+            scratch[0].copyFrom(this.rootBoard);
+            found = find(this.root, scratch, 0, board, playerNum);
+        }
+        this.rules = theRules;
+        this.rootBoard.copyFrom(board);
+        this.rootBoard.setSideToMove(playerNum);
+        if (found == null) {
+            this.root = new Node(-1, playerNum, SearchEngine.isOver(board), legalMoves(board, playerNum));
+            this.nodeCount.set(1);
+        } else {
+            this.root = found;
+            this.nodeCount.set(found.visits + 1); // at most one node is added per visit
+        }
+    }
+
+    /*depth-first look for the node of a position, replaying moves on the scratch boards*/
+    private Node find(final Node node, final MancalaDataStructure[] scratch, final int ply,
+                      final MancalaDataStructure target, final int playerNum) {
+        final MancalaDataStructure board = scratch[ply];
+        board.setSideToMove(node.playerNum);
+        if (board.getHashKey() == target.getHashKey(playerNum) && samePosition(board, target)) {
+            return node;
+        }
+        if (ply == REUSE_PLIES) {
+            return null;
+        }
+        for (final Node child : node.children) {
+            if (child != null) {
+                scratch[ply + 1].copyFrom(board);
+                this.rules.sowStones(scratch[ply + 1], SearchEngine.pitFor(node.playerNum, child.move), node.playerNum);
+                final Node found = find(child, scratch, ply + 1, target, playerNum);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    /*true if every pit and store count matches*/
+    private static boolean samePosition(final MancalaDataStructure one, final MancalaDataStructure two) {
+        for (int pos = 0; pos < 14; pos++) {
+            if (one.getCell(pos) != two.getCell(pos)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*one worker: select, expand, play out and back up until the budget runs out*/
+    private void work(final SplittableRandom random) {
+        final MancalaDataStructure board = new MancalaDataStructure();
+        final Node[] path = new Node[MAX_PLY];
+        while (true) {
+            final long claimed = this.playouts.getAndAdd(BATCH);
+            if (claimed >= this.playoutLimit || System.nanoTime() >= this.deadline) {
+                return;
+            }
+            final long batch = Math.min(BATCH, this.playoutLimit - claimed);
+            for (int i = 0; i < batch; i++) {
+                iterate(board, path, random);
+            }
+            this.finished.add(batch);
+        }
+    }
+
+    /*one playout from the root*/
+    private void iterate(final MancalaDataStructure board, final Node[] path, final SplittableRandom random) {
+        board.copyFrom(this.rootBoard);
+        Node node = this.root;
+        int depth = 0;
+        path[depth++] = node;
+        Node.VISITS.incrementAndGet(node);
+
+        while (!node.terminal && depth < MAX_PLY) {
+            final int move = node.claimUntried(random, this.nodeCount.get() < this.maxNodes);
+            if (move >= 0) { // expand
+                final int outcome = this.rules.sowStones(board, SearchEngine.pitFor(node.playerNum, move), node.playerNum);
+                final int next = MoveOutcome.isFreeTurn(outcome) ? node.playerNum : SearchEngine.opponent(node.playerNum);
+                final Node child = new Node(move, next, SearchEngine.isOver(board), legalMoves(board, next));
+                node.children[move] = child;
+                this.nodeCount.incrementAndGet();
+                Node.VISITS.incrementAndGet(child);
+                path[depth++] = child;
+                node = child;
+                break;
+            }
+            final Node child = node.select();
+            if (child == null) {
+                break; // every move is being added by other workers; play out from here
+            }
+            Node.VISITS.incrementAndGet(child); // virtual loss until the result is added
+            this.rules.sowStones(board, SearchEngine.pitFor(node.playerNum, child.move), node.playerNum);
+            path[depth++] = child;
+            node = child;
+        }
+
+        final int winner = playOut(board, node.playerNum, random);
+        for (int i = 1; i < depth; i++) { // a node's reward is for the player who moved into it
+            final int mover = path[i - 1].playerNum;
+            final int reward = winner == 0 ? 1 : winner == mover ? 2 : 0;
+            Node.REWARD.addAndGet(path[i], reward);
+        }
+    }
+
+    /*random moves to the end of the game; returns the winner, or 0 for a draw*/
+    private int playOut(final MancalaDataStructure board, final int playerNum, final SplittableRandom random) {
+        int player = playerNum;
+        for (int moves = 0; moves < MAX_PLAYOUT_MOVES && !SearchEngine.isOver(board); moves++) {
+            final int outcome = this.rules.sowStones(board,
+                    SearchEngine.randomLegalPit(legalMoves(board, player), player, random), player);
+            if (!MoveOutcome.isFreeTurn(outcome)) {
+                player = SearchEngine.opponent(player);
+            }
+        }
+        final int one = board.getStoreCount(1) + board.getSideTotal(1);
+        final int two = board.getStoreCount(2) + board.getSideTotal(2);
+        return one > two ? 1 : two > one ? 2 : 0;
+    }
+
+    /*bit mask of a player's non-empty pits*/
+    private static int legalMoves(final MancalaDataStructure board, final int playerNum) {
+        final int firstPos = playerNum == 1 ? 0 : 7;
+        int mask = 0;
+        for (int i = 0; i < 6; i++) {
+            if (board.getCell(firstPos + i) > 0) {
+                mask |= 1 << i;
+            }
+        }
+        return mask;
+    }
+
+    /*a tree node; its fields other than the counters never change once it is published*/
+    private static final class Node {
+        private static final AtomicIntegerFieldUpdater<Node> VISITS =
+                AtomicIntegerFieldUpdater.newUpdater(Node.class, "visits");
+        private static final AtomicLongFieldUpdater<Node> REWARD =
+                AtomicLongFieldUpdater.newUpdater(Node.class, "reward");
+        private static final AtomicIntegerFieldUpdater<Node> UNTRIED =
+                AtomicIntegerFieldUpdater.newUpdater(Node.class, "untried");
+
+        private final int move; // pit index moved to get here
+        private final int playerNum; // player to move here
+        private final boolean terminal;
+        private final int legal;
+        private final Node[] children = new Node[6];
+        private volatile int visits;
+        private volatile long reward; // 2 per win and 1 per draw for the player who moved here
+        private volatile int untried;
+
+        private Node(final int theMove, final int player, final boolean over, final int legalMoves) {
+            this.move = theMove;
+            this.playerNum = player;
+            this.terminal = over;
+            this.legal = over ? 0 : legalMoves;
+            this.untried = this.legal;
+        }
+
+        /*take a random move nobody has added yet, or -1*/
+        private int claimUntried(final SplittableRandom random, final boolean roomLeft) {
+            while (roomLeft) {
+                final int mask = this.untried;
+                if (mask == 0) {
+                    return -1;
+                }
+                final int move = SearchEngine.randomMove(mask, random);
+                if (UNTRIED.compareAndSet(this, mask, mask & ~(1 << move))) {
+                    return move;
+                }
+            }
+            return -1;
+        }
+
+        /*the child with the best upper confidence bound*/
+        private Node select() {
+            final double logVisits = Math.log(Math.max(1, this.visits));
+            Node best = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (final Node child : this.children) {
+                if (child != null) {
+                    final int n = Math.max(1, child.visits);
+                    final double value = child.reward / (2.0 * n) + EXPLORATION * Math.sqrt(logVisits / n);
+                    if (value > bestValue) {
+                        bestValue = value;
+                        best = child;
+                    }
+                }
+            }
+            return best;
+        }
+    }
+
+    /**
+     * Measure playouts per second from the Kalah(6,4) and Ayo starting
+     * positions at 1, 2, 4, 8 and 16 threads.
+     *
+     * @param args Optional time per search in milliseconds (default 2000).
+     */
+    public static void main(final String[] args) {
+        final long millis = args.length > 0 ? Long.parseLong(args[0]) : 2000;
+        final GameRules[] games = {new KalahRules(), new AyoRules()};
+        for (final GameRules game : games) {
+            game.registerPlayers(new Player(), new Player());
+            for (final int workers : new int[] {1, 2, 4, 8, 16}) {
+                final MonteCarloSearch search = new MonteCarloSearch(workers);
+                search.setTimeLimit(millis);
+                final int pit = search.findBestMove(game, game.getDataStructure(), 1);
+                System.out.printf("%s, %d threads: %.0f playouts/s, best pit %d, win rate %.2f%n",
+                        game.getClass().getSimpleName(), workers, search.getPlayoutsPerSecond(),
+                        pit, search.getWinRate());
+                search.shutdown();
+            }
+        }
+    }
+}
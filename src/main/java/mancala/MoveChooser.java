@@ -0,0 +1,20 @@
+package mancala;
+
+/**
+ * Anything that can pick a move, such as a search engine, for matches
+ * played without the GUI. SearchEngine::findBestMove and
+ * MonteCarloSearch::findBestMove both fit.
+ */
+@FunctionalInterface
+public interface MoveChooser {
+
+    /**
+     * Choose a move.
+     *
+     * @param rules     The rule set being played.
+     * @param board     The position (must not be changed).
+     * @param playerNum The player to move (1 or 2).
+     * @return The pit to move, or -1 if there is no move.
+     */
+    int chooseMove(GameRules rules, MancalaDataStructure board, int playerNum);
+}
@@ -0,0 +1,339 @@
+package mancala;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * An append-only journal of the moves of a game in progress, so a game
+ * survives a crash without being saved.
+ * The file starts with a checkpoint, the whole game in GameStateCodec form,
+ * and then holds one byte per move: the pit moved from. Every
+ * CHECKPOINT_EVERY moves another checkpoint is written. Recovery loads the
+ * last checkpoint and replays the moves after it.
+ * Moves are handed to a writer thread, which writes everything that has
+ * arrived and then forces it to disk with one fsync, so moves made while an
+ * fsync is running share the next one. Recording a move only copies a byte.
+ */
+public final class MoveJournal implements Closeable {
+
+    /** Moves between checkpoints. */
+    public static final int CHECKPOINT_EVERY = 32;
+
+    static final int MAGIC = 0x4D4A4E4C; // "MJNL"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 5;
+    static final byte CHECKPOINT = 0x7F; // a move record is the pit, 1 to 12
+
+    private final FileChannel channel;
+    private final Path file;
+    private final Thread writer;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition pending = this.lock.newCondition();
+    private final Condition durable = this.lock.newCondition();
+    private byte[] buffer = new byte[256]; // appended, not yet handed to the writer
+    private byte[] spare = new byte[256];
+    private int buffered;
+    private long appended; // bytes appended since the journal was opened
+    private long synced; // bytes forced to disk
+    private long syncCount;
+    private boolean closed;
+    private IOException failure;
+
+    private MoveJournal(final Path theFile, final FileChannel theChannel) {
+        this.file = theFile;
+        this.channel = theChannel;
+        this.writer = new Thread(this::writeLoop, "move-journal");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Start a journal for a game, replacing any journal already in the file.
+     * The game's current state is the first checkpoint, and is on disk
+     * before this returns.
+     *
+     * @param file The journal file.
+     * @param game The game, with its players set.
+     * @return The journal; hand it to MancalaGame.setJournal to record moves.
+     * @throws IOException If the file cannot be written.
+     */
+    public static MoveJournal create(final Path file, final MancalaGame game) throws IOException {
+        final byte[] state = GameStateCodec.encode(game);
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).put((byte) VERSION).flip();
+        try {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        final MoveJournal journal = new MoveJournal(file, channel);
+        journal.appendCheckpoint(state);
+        journal.sync();
+        return journal;
+    }
+
+    /**
+     * Record a move that has just been made. Called by MancalaGame after
+     * each move; writes a checkpoint as well every CHECKPOINT_EVERY moves.
+     * Never blocks on the disk. A write failure is reported by the next sync().
+     *
+     * @param game     The game, after the move.
+     * @param startPit The pit the move was made from.
+     */
+    public void recordMove(final MancalaGame game, final int startPit) {
+        byte[] state = null;
+        if (game.getMoveCount() % CHECKPOINT_EVERY == 0) {
+            try {
+                state = GameStateCodec.encode(game);
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+        this.lock.lock();
+        try {
+            if (this.closed) {
+                return;
+            }
+            append((byte) startPit);
+            if (state != null) {
+                appendState(state);
+            }
+            this.pending.signal();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Wait until every move recorded so far is on disk.
+     *
+     * @throws IOException If the journal could not be written.
+     */
+    public void sync() throws IOException {
+        this.lock.lock();
+        try {
+            final long target = this.appended;
+            while (this.synced < target && this.failure == null) {
+                this.durable.awaitUninterruptibly();
+            }
+            if (this.failure != null) {
+                throw this.failure;
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Get how many times the journal has been forced to disk.
+     *
+     * @return The fsync count.
+     */
+    public long getSyncCount() {
+        this.lock.lock();
+        try {
+            return this.syncCount;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Write out every recorded move and close the file.
+     *
+     * @throws IOException If the journal could not be written.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            sync();
+        } finally {
+            this.lock.lock();
+            try {
+                this.closed = true;
+                this.pending.signal();
+            } finally {
+                this.lock.unlock();
+            }
+            try {
+                this.writer.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            this.channel.close();
+        }
+    }
+
+    /**
+     * Close the journal and delete its file, once the game no longer needs
+     * it: the game is over, saved, or abandoned.
+     *
+     * @throws IOException If the file cannot be deleted.
+     */
+    public void discard() throws IOException {
+        try {
+            close();
+        } catch (IOException e) {
+            // the journal is being thrown away, so a failed write no longer matters
+        }
+        Files.deleteIfExists(this.file);
+    }
+
+    /**
+     * Rebuild the game in a journal: its last checkpoint with the moves
+     * after it replayed. A move cut off by a crash, or anything after it,
+     * is ignored.
+     *
+     * @param file     The journal file.
+     * @param profiles Finds a player's profile by name; may return null.
+     * @return The game, or null if there is no journal or it holds no checkpoint.
+     * @throws IOException If the file cannot be read or is not a journal.
+     */
+    public static MancalaGame recover(final Path file, final Function<String, UserProfile> profiles)
+            throws IOException {
+        final byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (bytes.length < HEADER_BYTES || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a move journal.");
+        }
+        if (buffer.get() != VERSION) {
+            throw new IOException("Unsupported move journal version.");
+        }
+
+        MancalaGame game = null;
+        int pos = HEADER_BYTES;
+        while (pos < bytes.length) {
+            final int record = bytes[pos];
+            if (record == CHECKPOINT) {
+                if (pos + 5 > bytes.length) {
+                    break;
+                }
+                final int length = buffer.getInt(pos + 1);
+                if (length < 0 || pos + 5 + length > bytes.length) {
+                    break;
+                }
+                try {
+                    game = GameStateCodec.decode(Arrays.copyOfRange(bytes, pos + 5, pos + 5 + length), profiles);
+                } catch (IOException e) {
+                    break; // a checkpoint torn by the crash
+                }
+                pos += 5 + length;
+            } else if (game != null && game.tryMove(record) == GameRules.MOVE_OK) {
+                pos++;
+            } else {
+                break;
+            }
+        }
+        return game;
+    }
+
+    /*queue a checkpoint; used while the journal is being created*/
+    private void appendCheckpoint(final byte[] state) {
+        this.lock.lock();
+        try {
+            appendState(state);
+            this.pending.signal();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /*the checkpoint record: tag, length, state; lock held*/
+    private void appendState(final byte[] state) {
+        append(CHECKPOINT);
+        append((byte) (state.length >>> 24));
+        append((byte) (state.length >>> 16));
+        append((byte) (state.length >>> 8));
+        append((byte) state.length);
+        for (final byte b : state) {
+            append(b);
+        }
+    }
+
+    /*one byte into the pending buffer; lock held*/
+    private void append(final byte b) {
+        if (this.buffered == this.buffer.length) {
+            this.buffer = Arrays.copyOf(this.buffer, this.buffer.length * 2);
+        }
+        this.buffer[this.buffered++] = b;
+        this.appended++;
+    }
+
+    /*remember the first write failure and wake anyone waiting in sync*/
+    private void fail(final IOException e) {
+        this.lock.lock();
+        try {
+            if (this.failure == null) {
+                this.failure = e;
+            }
+            this.durable.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /*writer thread: take everything pending, write it, one fsync, repeat*/
+    private void writeLoop() {
+        while (true) {
+            final byte[] batch;
+            final int length;
+            final long target;
+            this.lock.lock();
+            try {
+                while (this.buffered == 0 && !this.closed) {
+                    this.pending.awaitUninterruptibly();
+                }
+                if (this.buffered == 0) {
+                    return; // closed with nothing left to write
+                }
+                batch = this.buffer;
+                length = this.buffered;
+                target = this.appended;
+                this.buffer = this.spare.length >= batch.length ? this.spare : new byte[batch.length];
+                this.buffered = 0;
+            } finally {
+                this.lock.unlock();
+            }
+            try {
+                final ByteBuffer out = ByteBuffer.wrap(batch, 0, length);
+                while (out.hasRemaining()) {
+                    this.channel.write(out);
+                }
+                this.channel.force(false);
+            } catch (IOException e) {
+                fail(e);
+                return;
+            }
+            this.lock.lock();
+            try {
+                this.spare = batch;
+                this.synced = target;
+                this.syncCount++;
+                this.durable.signalAll();
+            } finally {
+                this.lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package mancala;
+
+/**
+ * Packs what happened during one sowing into a single int, so the rules
+ * can report it without allocating.
+ * Bits 0-4 hold the landing position, 5-14 the stones captured, 15-28
+ * the number of relays, bit 29 a bonus turn and bit 30 a cut-short relay.
+ */
+final class MoveOutcome {
+
+    /** Largest relay count that fits in an outcome. */
+    static final int MAX_RELAYS = (1 << 14) - 1;
+
+    private static final int POS_MASK = 0x1F;
+    private static final int CAPTURE_SHIFT = 5;
+    private static final int CAPTURE_MASK = 0x3FF;
+    private static final int RELAY_SHIFT = 15;
+    private static final int FREE_TURN = 1 << 29;
+    private static final int CUT_SHORT = 1 << 30;
+
+    private MoveOutcome() {
+    }
+
+    /**
+     * Build an outcome.
+     *
+     * @param landingPos The array position the last stone landed in.
+     * @param captured   The number of stones captured.
+     * @param relays     The number of relays (ayo only).
+     * @param freeTurn   Whether the player gets a bonus turn.
+     * @param cutShort   Whether relay sowing was stopped by its budget or a cycle.
+     * @return The packed outcome.
+     */
+    static int of(final int landingPos, final int captured, final int relays,
+                  final boolean freeTurn, final boolean cutShort) {
+        int outcome = landingPos
+                | Math.min(captured, CAPTURE_MASK) << CAPTURE_SHIFT
+                | Math.min(relays, MAX_RELAYS) << RELAY_SHIFT;
+        if (freeTurn) {
+            outcome |= FREE_TURN;
+        }
+        if (cutShort) {
+            outcome |= CUT_SHORT;
+        }
+        return outcome;
+    }
+
+    static int landingPos(final int outcome) {
+        return outcome & POS_MASK;
+    }
+
+    static int captured(final int outcome) {
+        return outcome >>> CAPTURE_SHIFT & CAPTURE_MASK;
+    }
+
+    static int relays(final int outcome) {
+        return outcome >>> RELAY_SHIFT & MAX_RELAYS;
+    }
+
+    static boolean isFreeTurn(final int outcome) {
+        return (outcome & FREE_TURN) != 0;
+    }
+
+    static boolean isCutShort(final int outcome) {
+        return (outcome & CUT_SHORT) != 0;
+    }
+}
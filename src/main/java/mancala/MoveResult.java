@@ -0,0 +1,182 @@
+package mancala;
+
+/**
+ * Everything that happened in one move, so callers can update from a
+ * single result instead of asking the board again afterwards.
+ */
+public final class MoveResult {
+
+    private static final int CELLS = 14;
+    private final int startPit;
+    private final int playerNum;
+    private final int outcome;
+    private final int storeGain;
+    private final boolean gameOver;
+    private final int changedCells;
+
+    /**
+     * Constructor to initialize a move result.
+     *
+     * @param theStartPit  The pit the move started from.
+     * @param thePlayerNum The player who moved.
+     * @param theOutcome   The packed MoveOutcome of the sowing.
+     * @param theGain      The number of stones added to the player's store.
+     * @param isOver       Whether the game is over after the move.
+     * @param changed      Bit mask of array positions whose count changed.
+     */
+    MoveResult(final int theStartPit, final int thePlayerNum, final int theOutcome,
+               final int theGain, final boolean isOver, final int changed) {
+        this.startPit = theStartPit;
+        this.playerNum = thePlayerNum;
+        this.outcome = theOutcome;
+        this.storeGain = theGain;
+        this.gameOver = isOver;
+        this.changedCells = changed;
+    }
+
+    /**
+     * Gets the pit the move started from.
+     *
+     * @return The starting pit.
+     */
+    public int getStartPit() {
+        return this.startPit;
+    }
+
+    /**
+     * Gets the player who made the move.
+     *
+     * @return The player number (1 or 2).
+     */
+    public int getPlayerNum() {
+        return this.playerNum;
+    }
+
+    /**
+     * Gets the player to move next.
+     *
+     * @return The player number (1 or 2).
+     */
+    public int getNextPlayerNum() {
+        int next = this.playerNum;
+        if (!this.isFreeTurn()) {
+            next = this.playerNum == 1 ? 2 : 1;
+        }
+        return next;
+    }
+
+    /**
+     * Gets the pit the last stone landed in.
+     *
+     * @return The landing pit, or -1 if it landed in the player's store.
+     */
+    public int getLandingPit() {
+        return SowingTable.toPitNum(MoveOutcome.landingPos(this.outcome));
+    }
+
+    /**
+     * Gets the number of stones added to the player's store.
+     *
+     * @return The store gain.
+     */
+    public int getStoreGain() {
+        return this.storeGain;
+    }
+
+    /**
+     * Gets the number of stones captured from the opponent's side.
+     *
+     * @return The captured stones.
+     */
+    public int getCaptured() {
+        return MoveOutcome.captured(this.outcome);
+    }
+
+    /**
+     * Checks if the player gets a bonus turn.
+     *
+     * @return True if the player moves again, false otherwise.
+     */
+    public boolean isFreeTurn() {
+        return MoveOutcome.isFreeTurn(this.outcome);
+    }
+
+    /**
+     * Gets the number of relays in the move (always 0 for kalah).
+     *
+     * @return The relay count.
+     */
+    public int getRelayCount() {
+        return MoveOutcome.relays(this.outcome);
+    }
+
+    /**
+     * Checks if relay sowing was stopped by the relay limit or a cycle.
+     *
+     * @return True if the move was cut short, false otherwise.
+     */
+    public boolean isRelayCutShort() {
+        return MoveOutcome.isCutShort(this.outcome);
+    }
+
+    /**
+     * Checks if the game is over after the move.
+     *
+     * @return True if the game is over, false otherwise.
+     */
+    public boolean isGameOver() {
+        return this.gameOver;
+    }
+
+    /**
+     * Checks if the move changed the number of stones in a pit.
+     *
+     * @param pitNum The pit number.
+     * @return True if the pit changed, false otherwise.
+     */
+    public boolean isPitChanged(final int pitNum) {
+        return (this.changedCells >>> SowingTable.toPosition(pitNum) & 1) != 0;
+    }
+
+    /**
+     * Checks if the move changed the number of stones in a store.
+     *
+     * @param storePlayerNum The store's player number (1 or 2).
+     * @return True if the store changed, false otherwise.
+     */
+    public boolean isStoreChanged(final int storePlayerNum) {
+        return (this.changedCells >>> (storePlayerNum == 1 ? 6 : 13) & 1) != 0;
+    }
+
+    /**
+     * Gets the pits the move changed.
+     *
+     * @return The changed pit numbers in increasing order.
+     */
+    public int[] getChangedPits() {
+        final int pitBits = this.changedCells & ~(1 << 6 | 1 << 13);
+        final int[] pits = new int[Integer.bitCount(pitBits)];
+        int i = 0;
+        for (int pos = 0; pos < CELLS; pos++) {
+            if ((pitBits >>> pos & 1) != 0) {
+                pits[i++] = SowingTable.toPitNum(pos);
+            }
+        }
+        return pits;
+    }
+
+    /**
+     * Returns a string representation of the move result.
+     *
+     * @return A string representation of the move result.
+     */
+    @Override
+    public String toString() {
+        return "MoveResult[P" + this.playerNum + " pit " + this.startPit
+                + ", landed " + this.getLandingPit()
+                + ", +" + this.storeGain + " store, " + this.getCaptured() + " captured"
+                + (this.isFreeTurn() ? ", free turn" : "")
+                + (this.getRelayCount() > 0 ? ", " + this.getRelayCount() + " relays" : "")
+                + (this.gameOver ? ", game over" : "") + "]";
+    }
+}
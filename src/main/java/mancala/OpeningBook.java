@@ -0,0 +1,143 @@
+package mancala;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Book moves for the first few moves of a game, memory-mapped from a file
+ * built by OpeningBookBuilder.
+ * The file is a short header and then fixed-size entries sorted by the
+ * position's hash key, so a lookup is a binary search over the mapped
+ * buffer. Hash keys come from a fixed seed, so a book stays valid from
+ * one run to the next.
+ */
+public final class OpeningBook {
+
+    static final int MAGIC = 0x4D4F424B; // "MOBK"
+    static final int HEADER_BYTES = 32;
+    static final int MAX_NAME_BYTES = HEADER_BYTES - 12;
+    static final int ENTRY_BYTES = 12; // key, score, pit, depth
+
+    private final MappedByteBuffer entries;
+    private final int count;
+    private final String rulesName;
+
+    private OpeningBook(final MappedByteBuffer theEntries, final int entryCount, final String name) {
+        this.entries = theEntries;
+        this.count = entryCount;
+        this.rulesName = name;
+    }
+
+    /**
+     * Open a book file built by OpeningBookBuilder.
+     *
+     * @param file The file to map.
+     * @return The book.
+     * @throws IOException If the file cannot be read or is not a book.
+     */
+    public static OpeningBook open(final Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    break;
+                }
+            }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                throw new IOException("Not an opening book.");
+            }
+            final int entryCount = header.getInt();
+            final int nameLength = header.getInt();
+            if (entryCount < 0 || nameLength < 0 || nameLength > MAX_NAME_BYTES) {
+                throw new IOException("Corrupt opening book header.");
+            }
+            final byte[] name = new byte[nameLength];
+            header.get(name);
+            final long size = (long) entryCount * ENTRY_BYTES;
+            if (channel.size() != HEADER_BYTES + size) {
+                throw new IOException("Opening book is the wrong size.");
+            }
+            final MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, size);
+            return new OpeningBook(map, entryCount, new String(name, StandardCharsets.US_ASCII));
+        }
+    }
+
+    /**
+     * Get the number of positions in the book.
+     *
+     * @return The entry count.
+     */
+    public int size() {
+        return this.count;
+    }
+
+    /**
+     * Checks if this book was built for a rule set.
+     *
+     * @param rules The rule set.
+     * @return True if the book holds moves for those rules.
+     */
+    public boolean isFor(final GameRules rules) {
+        return rules.getClass().getSimpleName().equals(this.rulesName);
+    }
+
+    /**
+     * Look up the book move for a position.
+     *
+     * @param board     The position.
+     * @param playerNum The player to move (1 or 2).
+     * @return The pit to move, or -1 if the position is not in the book.
+     */
+    public int getMove(final MancalaDataStructure board, final int playerNum) {
+        final int entry = find(board.getHashKey(playerNum));
+        return entry < 0 ? -1 : this.entries.get(entry * ENTRY_BYTES + 10);
+    }
+
+    /**
+     * Look up the searched score of the book move for a position.
+     *
+     * @param board     The position.
+     * @param playerNum The player to move (1 or 2).
+     * @return The score for the player to move, or 0 if the position is not in the book.
+     */
+    public int getScore(final MancalaDataStructure board, final int playerNum) {
+        final int entry = find(board.getHashKey(playerNum));
+        return entry < 0 ? 0 : this.entries.getShort(entry * ENTRY_BYTES + 8);
+    }
+
+    /**
+     * Look up how deep the book move for a position was searched.
+     *
+     * @param board     The position.
+     * @param playerNum The player to move (1 or 2).
+     * @return The search depth, or 0 if the position is not in the book.
+     */
+    public int getDepth(final MancalaDataStructure board, final int playerNum) {
+        final int entry = find(board.getHashKey(playerNum));
+        return entry < 0 ? 0 : this.entries.get(entry * ENTRY_BYTES + 11);
+    }
+
+    /*binary search for a key; returns the entry number or -1*/
+    private int find(final long key) {
+        int low = 0;
+        int high = this.count - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final long midKey = this.entries.getLong(mid * ENTRY_BYTES);
+            if (midKey < key) {
+                low = mid + 1;
+            } else if (midKey > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,209 @@
+package mancala;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Builds an OpeningBook offline. Every position reachable in the first few
+ * moves from the starting board is searched to a fixed depth, the
+ * searches running in parallel with one SearchEngine per thread and a
+ * shared TranspositionTable. The book can hold openings for several
+ * numbers of starting stones at once.
+ */
+public class OpeningBookBuilder {
+
+    private final GameRules rules;
+    private final int plies;
+    private final int depth;
+    private final int threads;
+    private final Map<Long, MancalaDataStructure> positions = new LinkedHashMap<>();
+    private long[] keys = new long[0];
+    private int[] moves = new int[0];
+    private int[] scores = new int[0];
+
+    /**
+     * Constructor to initialize a builder.
+     *
+     * @param theRules   The rule set to build the book for.
+     * @param bookPlies  How many moves from the start the book covers.
+     * @param searchDepth The depth to search each book position to.
+     * @param workers    The number of search threads.
+     */
+    public OpeningBookBuilder(final GameRules theRules, final int bookPlies, final int searchDepth, final int workers) {
+        if (searchDepth < 1 || searchDepth > 127) {
+            throw new RuntimeException("Search depth out of range");
+        }
+        this.rules = theRules;
+        this.plies = bookPlies;
+        this.depth = searchDepth;
+        this.threads = Math.max(1, workers);
+    }
+
+    /**
+     * Add the positions reachable from a starting board to the book.
+     *
+     * @param startStones The number of stones in each pit at the start.
+     */
+    public void addOpenings(final int startStones) {
+        final MancalaDataStructure start = new MancalaDataStructure(startStones);
+        start.setUpPits();
+        List<MancalaDataStructure> frontier = new ArrayList<>();
+        frontier.add(start);
+        for (int ply = 0; ply <= this.plies && !frontier.isEmpty(); ply++) {
+            final List<MancalaDataStructure> next = new ArrayList<>();
+            for (final MancalaDataStructure board : frontier) {
+                if (SearchEngine.isOver(board) || this.positions.putIfAbsent(board.getHashKey(), board) != null) {
+                    continue;
+                }
+                if (ply == this.plies) {
+                    continue;
+                }
+                final int player = board.getSideToMove();
+                for (int i = 0; i < 6; i++) {
+                    final int pit = SearchEngine.pitFor(player, i);
+                    if (board.getNumStones(pit) > 0) {
+                        final MancalaDataStructure child = new MancalaDataStructure(startStones);
+                        child.copyFrom(board);
+                        final int outcome = this.rules.sowStones(child, pit, player);
+                        child.setSideToMove(MoveOutcome.isFreeTurn(outcome) ? player : SearchEngine.opponent(player));
+                        next.add(child);
+                    }
+                }
+            }
+            frontier = next;
+        }
+    }
+
+    /**
+     * Search every book position.
+     *
+     * @throws InterruptedException If the build is interrupted.
+     */
+    public void build() throws InterruptedException {
+        final List<MancalaDataStructure> boards = new ArrayList<>(this.positions.values());
+        final TranspositionTable table = new TranspositionTable(1 << 22);
+        final ThreadLocal<SearchEngine> engines = ThreadLocal.withInitial(() -> {
+            final SearchEngine engine = new SearchEngine();
+            engine.setMaxDepth(this.depth);
+            engine.setTranspositionTable(table);
+            return engine;
+        });
+        final ExecutorService pool = Executors.newFixedThreadPool(this.threads);
+        try {
+            final List<Future<int[]>> results = new ArrayList<>();
+            for (final MancalaDataStructure board : boards) {
+                results.add(pool.submit(() -> {
+                    final SearchEngine engine = engines.get();
+                    final int pit = engine.findBestMove(this.rules, board, board.getSideToMove());
+                    return new int[] {pit, engine.getLastScore()};
+                }));
+            }
+            final int count = boards.size();
+            final Integer[] order = new Integer[count];
+            final long[] unsorted = new long[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = i;
+                unsorted[i] = boards.get(i).getHashKey();
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(unsorted[a], unsorted[b]));
+            this.keys = new long[count];
+            this.moves = new int[count];
+            this.scores = new int[count];
+            for (int k = 0; k < count; k++) {
+                final int[] result = results.get(order[k]).get();
+                this.keys[k] = unsorted[order[k]];
+                this.moves[k] = result[0];
+                this.scores[k] = result[1];
+            }
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Book search failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Get the number of positions in the book.
+     *
+     * @return The position count.
+     */
+    public int size() {
+        return this.positions.size();
+    }
+
+    /**
+     * Write the book file. The file is written beside the target and then
+     * moved into place.
+     *
+     * @param file The file to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public void writeTo(final Path file) throws IOException {
+        final byte[] name = this.rules.getClass().getSimpleName().getBytes(StandardCharsets.US_ASCII);
+        if (name.length > OpeningBook.MAX_NAME_BYTES) {
+            throw new IOException("Rules name too long for the opening book header.");
+        }
+        final Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            output.writeInt(OpeningBook.MAGIC);
+            output.writeInt(this.keys.length);
+            output.writeInt(name.length);
+            output.write(name);
+            output.write(new byte[OpeningBook.HEADER_BYTES - 12 - name.length]);
+            for (int k = 0; k < this.keys.length; k++) {
+                output.writeLong(this.keys[k]);
+                output.writeShort(this.scores[k]);
+                output.writeByte(this.moves[k]);
+                output.writeByte(this.depth);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Build a Kalah book from the command line.
+     *
+     * @param args The file to write, then optionally the plies (default 4),
+     *             the search depth (default 14) and the starting stone counts (default 3 to 6).
+     * @throws IOException          If the file cannot be written.
+     * @throws InterruptedException If the build is interrupted.
+     */
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.out.println("usage: OpeningBookBuilder <file> [plies] [depth] [stones...]");
+            return;
+        }
+        final int bookPlies = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        final int searchDepth = args.length > 2 ? Integer.parseInt(args[2]) : 14;
+        final OpeningBookBuilder builder = new OpeningBookBuilder(new KalahRules(), bookPlies, searchDepth,
+                Runtime.getRuntime().availableProcessors());
+        if (args.length > 3) {
+            for (int i = 3; i < args.length; i++) {
+                builder.addOpenings(Integer.parseInt(args[i]));
+            }
+        } else {
+            for (int stones = 3; stones <= 6; stones++) {
+                builder.addOpenings(stones);
+            }
+        }
+        final long start = System.nanoTime();
+        builder.build();
+        builder.writeTo(Path.of(args[0]));
+        System.out.printf("%d positions searched to depth %d in %.1f s%n", builder.size(), searchDepth,
+                (System.nanoTime() - start) / 1e9);
+    }
+}
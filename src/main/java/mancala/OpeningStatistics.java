@@ -0,0 +1,330 @@
+package mancala;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * How each opening turned out: for every sequence of first moves up to a
+ * given depth, the games that began with it, who won them, the average
+ * margin and how often its last move captured. Kept apart for each rule set
+ * and number of start stones.
+ * The openings form a tree held in primitive arrays, six child links and a
+ * row of counters per node. A GameArchive scan gives each thread its own
+ * tree, and the trees are merged when the scan ends.
+ */
+public final class OpeningStatistics implements GameVisitor {
+
+    private static final int SIDE = 6;
+    private static final int ROOTS = 2 * GameRecord.MAX_START_STONES;
+    private static final int FIELDS = 6;
+    private static final int GAMES = 0;
+    private static final int FINISHED = 1;
+    private static final int ONE_WINS = 2;
+    private static final int TWO_WINS = 3;
+    private static final int MARGIN = 4; // player one's stones less player two's, summed over finished games
+    private static final int CAPTURES = 5;
+
+    private final int maxDepth;
+    private int[] children; // SIDE links per node, by the pit's place on the mover's side; 0 for none
+    private byte[] pits;
+    private long[] counts; // FIELDS counters per node
+    private int nodes;
+    private final int[] path; // the current game's nodes, from its root
+    private int pathLength;
+    private int result;
+
+    /**
+     * Constructor to initialize empty statistics.
+     *
+     * @param depth The longest opening to count, in moves.
+     */
+    public OpeningStatistics(final int depth) {
+        if (depth < 1) {
+            throw new RuntimeException("Openings must be at least one move long.");
+        }
+        this.maxDepth = depth;
+        this.path = new int[depth + 1];
+        this.nodes = ROOTS; // the roots are never anyone's child, so 0 can mean no child
+        final int capacity = 1024;
+        this.children = new int[capacity * SIDE];
+        this.pits = new byte[capacity];
+        this.counts = new long[capacity * FIELDS];
+    }
+
+    /**
+     * Count the openings of every game in some archives.
+     *
+     * @param archives The archives.
+     * @param depth    The longest opening to count, in moves.
+     * @param threads  The number of threads to scan each archive on.
+     * @return The statistics.
+     * @throws IOException If an archive cannot be read or is damaged.
+     */
+    public static OpeningStatistics analyze(final List<Path> archives, final int depth, final int threads)
+            throws IOException {
+        final OpeningStatistics total = new OpeningStatistics(depth);
+        for (final Path archive : archives) {
+            for (final OpeningStatistics part : GameArchive.scan(archive, threads,
+                    () -> new OpeningStatistics(depth))) {
+                total.merge(part);
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public void startGame(final int ruleSet, final int startStones, final int outcome, final int moveCount) {
+        final int root = (ruleSet - 1) * GameRecord.MAX_START_STONES + startStones - 1;
+        this.path[0] = root;
+        this.pathLength = 1;
+        this.result = outcome;
+        this.counts[root * FIELDS + GAMES]++;
+    }
+
+    @Override
+    public void move(final MancalaDataStructure board, final int ply, final int playerNum, final int pit,
+                     final int captured) {
+        if (ply >= this.maxDepth) {
+            return;
+        }
+        final int node = child(this.path[this.pathLength - 1], pit);
+        this.counts[node * FIELDS + GAMES]++;
+        if (captured > 0) {
+            this.counts[node * FIELDS + CAPTURES]++;
+        }
+        this.path[this.pathLength++] = node;
+    }
+
+    @Override
+    public void endGame(final MancalaDataStructure board) {
+        if (this.result == GameRecord.UNFINISHED) {
+            return;
+        }
+        final int margin = board.getStoreCount(1) + board.getSideTotal(1)
+                - board.getStoreCount(2) - board.getSideTotal(2);
+        for (int i = 0; i < this.pathLength; i++) {
+            final int at = this.path[i] * FIELDS;
+            this.counts[at + FINISHED]++;
+            this.counts[at + MARGIN] += margin;
+            if (this.result == GameRecord.ONE_WINS) {
+                this.counts[at + ONE_WINS]++;
+            } else if (this.result == GameRecord.TWO_WINS) {
+                this.counts[at + TWO_WINS]++;
+            }
+        }
+    }
+
+    /**
+     * Add another set of statistics, such as another thread's, to these.
+     *
+     * @param other The statistics to add; left as they are.
+     */
+    public void merge(final OpeningStatistics other) {
+        for (int root = 0; root < ROOTS; root++) {
+            mergeNode(other, root, root);
+        }
+    }
+
+    /*add other's node and everything under it to our node*/
+    private void mergeNode(final OpeningStatistics other, final int from, final int to) {
+        for (int f = 0; f < FIELDS; f++) {
+            this.counts[to * FIELDS + f] += other.counts[from * FIELDS + f];
+        }
+        for (int slot = 0; slot < SIDE; slot++) {
+            final int next = other.children[from * SIDE + slot];
+            if (next != 0) {
+                mergeNode(other, next, child(to, other.pits[next]));
+            }
+        }
+    }
+
+    /*the node for a move after a node, made if it is new*/
+    private int child(final int parent, final int pit) {
+        final int link = parent * SIDE + (pit - 1) % SIDE;
+        int node = this.children[link];
+        if (node == 0) {
+            if (this.nodes == this.pits.length) {
+                final int capacity = this.nodes * 2;
+                this.children = Arrays.copyOf(this.children, capacity * SIDE);
+                this.pits = Arrays.copyOf(this.pits, capacity);
+                this.counts = Arrays.copyOf(this.counts, capacity * FIELDS);
+            }
+            node = this.nodes++;
+            this.pits[node] = (byte) pit;
+            this.children[link] = node;
+        }
+        return node;
+    }
+
+    /*the node for an opening, or -1 if no game began with it*/
+    private int find(final int ruleSet, final int startStones, final int[] opening) {
+        if (ruleSet != 1 && ruleSet != 2 || startStones < 1 || startStones > GameRecord.MAX_START_STONES) {
+            return -1;
+        }
+        int node = (ruleSet - 1) * GameRecord.MAX_START_STONES + startStones - 1;
+        for (final int pit : opening) {
+            if (pit < 1 || pit > 12) {
+                return -1;
+            }
+            node = this.children[node * SIDE + (pit - 1) % SIDE];
+            if (node == 0 || this.pits[node] != pit) {
+                return -1;
+            }
+        }
+        return node;
+    }
+
+    private long count(final int node, final int field) {
+        return node < 0 ? 0 : this.counts[node * FIELDS + field];
+    }
+
+    /**
+     * Get the longest opening counted.
+     *
+     * @return The depth, in moves.
+     */
+    public int getDepth() {
+        return this.maxDepth;
+    }
+
+    /**
+     * Get the number of openings counted, of every length.
+     *
+     * @return The number of openings.
+     */
+    public int getOpeningCount() {
+        return this.nodes - ROOTS;
+    }
+
+    /**
+     * Get the number of games that began with an opening.
+     *
+     * @param ruleSet     The rule set: 1 for Kalah, 2 for Ayo.
+     * @param startStones The stones each pit started with.
+     * @param opening     The pit of each move, in order; none for every game.
+     * @return The number of games.
+     */
+    public long getGames(final int ruleSet, final int startStones, final int... opening) {
+        return count(find(ruleSet, startStones, opening), GAMES);
+    }
+
+    /**
+     * Get how often a player won the finished games that began with an opening.
+     *
+     * @param ruleSet     The rule set: 1 for Kalah, 2 for Ayo.
+     * @param startStones The stones each pit started with.
+     * @param playerNum   The player (1 or 2).
+     * @param opening     The pit of each move, in order.
+     * @return The share of games won, 0 to 1, or 0 if there are none.
+     */
+    public double getWinRate(final int ruleSet, final int startStones, final int playerNum, final int... opening) {
+        final int node = find(ruleSet, startStones, opening);
+        final long finished = count(node, FINISHED);
+        return finished == 0 ? 0 : (double) count(node, playerNum == 1 ? ONE_WINS : TWO_WINS) / finished;
+    }
+
+    /**
+     * Get player one's average margin over the finished games that began with an opening.
+     *
+     * @param ruleSet     The rule set: 1 for Kalah, 2 for Ayo.
+     * @param startStones The stones each pit started with.
+     * @param opening     The pit of each move, in order.
+     * @return Player one's stones less player two's, on average; negative if player two did better.
+     */
+    public double getAverageMargin(final int ruleSet, final int startStones, final int... opening) {
+        final int node = find(ruleSet, startStones, opening);
+        final long finished = count(node, FINISHED);
+        return finished == 0 ? 0 : (double) count(node, MARGIN) / finished;
+    }
+
+    /**
+     * Get how often an opening's last move captured.
+     *
+     * @param ruleSet     The rule set: 1 for Kalah, 2 for Ayo.
+     * @param startStones The stones each pit started with.
+     * @param opening     The pit of each move, in order; at least one.
+     * @return The share of games whose move captured, 0 to 1, or 0 if there are none.
+     */
+    public double getCaptureRate(final int ruleSet, final int startStones, final int... opening) {
+        final int node = find(ruleSet, startStones, opening);
+        final long games = count(node, GAMES);
+        return games == 0 ? 0 : (double) count(node, CAPTURES) / games;
+    }
+
+    /**
+     * Get a report of every opening played in at least a given number of
+     * games, for each rule set and number of start stones: the games, how
+     * often each player won and how often they drew, player one's average
+     * margin and how often the last move captured.
+     *
+     * @param minGames The fewest games an opening needs to be listed.
+     * @return The report text.
+     */
+    public String getReport(final long minGames) {
+        final StringBuilder report = new StringBuilder();
+        final int width = Math.max(7, this.maxDepth * 3);
+        for (int root = 0; root < ROOTS; root++) {
+            if (count(root, GAMES) == 0) {
+                continue;
+            }
+            report.append(String.format("%s, %d stones: %,d games%n", root < GameRecord.MAX_START_STONES
+                    ? "Kalah" : "Ayo", root % GameRecord.MAX_START_STONES + 1, count(root, GAMES)));
+            report.append(String.format("%-" + width + "s %12s %7s %7s %7s %7s %8s%n", "opening", "games", "one",
+                    "two", "draw", "margin", "captures"));
+            final List<Integer> opening = new ArrayList<>();
+            for (int slot = 0; slot < SIDE; slot++) {
+                reportNode(report, this.children[root * SIDE + slot], opening, minGames, width);
+            }
+        }
+        return report.toString();
+    }
+
+    /*one line for a node, then its children, depth first*/
+    private void reportNode(final StringBuilder report, final int node, final List<Integer> opening,
+                            final long minGames, final int width) {
+        if (node == 0 || count(node, GAMES) < minGames) {
+            return;
+        }
+        opening.add((int) this.pits[node]);
+        final StringBuilder moves = new StringBuilder();
+        for (final int pit : opening) {
+            moves.append(moves.length() == 0 ? "" : " ").append(pit);
+        }
+        final long finished = Math.max(1, count(node, FINISHED));
+        final long draws = count(node, FINISHED) - count(node, ONE_WINS) - count(node, TWO_WINS);
+        report.append(String.format("%-" + width + "s %,12d %6.1f%% %6.1f%% %6.1f%% %+7.2f %7.1f%%%n", moves,
+                count(node, GAMES), 100.0 * count(node, ONE_WINS) / finished,
+                100.0 * count(node, TWO_WINS) / finished, 100.0 * draws / finished,
+                (double) count(node, MARGIN) / finished, 100.0 * count(node, CAPTURES) / count(node, GAMES)));
+        for (int slot = 0; slot < SIDE; slot++) {
+            reportNode(report, this.children[node * SIDE + slot], opening, minGames, width);
+        }
+        opening.remove(opening.size() - 1);
+    }
+
+    /**
+     * Print the opening statistics of some archives.
+     *
+     * @param args The opening depth, the fewest games an opening needs to be listed, then the archives.
+     * @throws IOException If an archive cannot be read or is damaged.
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("usage: OpeningStatistics depth min-games archive...");
+            return;
+        }
+        final List<Path> archives = new ArrayList<>();
+        for (int i = 2; i < args.length; i++) {
+            archives.add(Path.of(args[i]));
+        }
+        final long start = System.nanoTime();
+        final OpeningStatistics statistics = analyze(archives, Integer.parseInt(args[0]),
+                Runtime.getRuntime().availableProcessors());
+        System.out.print(statistics.getReport(Long.parseLong(args[1])));
+        System.out.printf("%d openings counted in %.1f s%n", statistics.getOpeningCount(),
+                (System.nanoTime() - start) / 1e9);
+    }
+}
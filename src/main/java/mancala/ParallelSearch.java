@@ -0,0 +1,328 @@
+package mancala;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A parallel alpha-beta search for analysing positions on many cores.
+ * Every root move after the first is searched at the same time, and nodes
+ * near the root split young brothers wait style: the eldest child is
+ * searched first, then its brothers run in parallel with the tighter window.
+ * Each task sows on its own board copies and each worker thread has its own
+ * SearchEngine for the plies below the split; all of them share one
+ * TranspositionTable. At equal depth the best move is the one the
+ * sequential SearchEngine finds.
+ */
+public class ParallelSearch {
+
+    private static final int SPLIT_PLIES = 2; // nodes nearer the root than this split
+    private static final int SPLIT_DEPTH = 6; // shallower subtrees are searched by one engine
+    private static final int TABLE_SIZE = 1 << 20;
+
+    private final ForkJoinPool pool;
+    private final TranspositionTable table;
+    private final ThreadLocal<SearchEngine> engines;
+    private final LongAdder nodes = new LongAdder();
+    private long timeLimitNanos = Long.MAX_VALUE;
+    private volatile long deadline;
+    private volatile boolean aborted;
+    private int lastDepth;
+    private int lastScore;
+
+    /**
+     * Constructor to initialize a parallel search.
+     *
+     * @param threads The number of worker threads.
+     */
+    public ParallelSearch(final int threads) {
+        this.pool = new ForkJoinPool(Math.max(1, threads));
+        this.table = new TranspositionTable(TABLE_SIZE);
+        this.engines = ThreadLocal.withInitial(() -> {
+            final SearchEngine engine = new SearchEngine();
+            engine.setTranspositionTable(this.table);
+            return engine;
+        });
+    }
+
+    /**
+     * Set how long a search may run.
+     *
+     * @param millis The time budget in milliseconds.
+     */
+    public void setTimeLimit(final long millis) {
+        this.timeLimitNanos = millis * 1_000_000L;
+    }
+
+    /**
+     * Find the best move for a player by iterative deepening to a depth.
+     *
+     * @param rules     The rule set to search with.
+     * @param board     The position to search from (not changed).
+     * @param playerNum The player to move (1 or 2).
+     * @param maxDepth  The deepest iteration to search.
+     * @return The best pit to move, or -1 if the player has no move.
+     */
+    public int findBestMove(final GameRules rules, final MancalaDataStructure board,
+                            final int playerNum, final int maxDepth) {
+        this.nodes.reset();
+        this.aborted = false;
+        this.deadline = this.timeLimitNanos == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + this.timeLimitNanos;
+        this.lastDepth = 0;
+        this.lastScore = 0;
+
+        final Node root = new Node(board);
+        final int count = root.expand(rules, playerNum);
+        if (count == 0) {
+            return -1;
+        }
+        int bestIndex = root.moves[0];
+        for (int depth = 1; depth <= maxDepth && !this.aborted; depth++) {
+            final int[] scores = searchRoot(rules, root, count, depth, playerNum);
+            if (this.aborted) {
+                break;
+            }
+            // pick like the sequential engine: the first move, in order, that scores higher
+            int best = scores[0];
+            int iterationBest = root.moves[0];
+            for (int k = 1; k < count; k++) {
+                if (scores[k] > best) {
+                    best = scores[k];
+                    iterationBest = root.moves[k];
+                }
+            }
+            bestIndex = iterationBest;
+            this.lastDepth = depth;
+            this.lastScore = best;
+            SearchEngine.moveToFront(root.moves, count, bestIndex);
+        }
+        return SearchEngine.pitFor(playerNum, bestIndex);
+    }
+
+    /*eldest root move with a full window, then the rest in parallel above its score*/
+    private int[] searchRoot(final GameRules rules, final Node root, final int count,
+                             final int depth, final int playerNum) {
+        final int[] scores = new int[count];
+        scores[0] = this.pool.invoke(childTask(rules, root, root.moves[0], 0, depth, -SearchEngine.INFINITY,
+                SearchEngine.INFINITY, playerNum));
+        final List<ForkJoinTask<Integer>> tasks = new ArrayList<>();
+        for (int k = 1; k < count; k++) {
+            tasks.add(this.pool.submit(childTask(rules, root, root.moves[k], 0, depth, scores[0],
+                    SearchEngine.INFINITY, playerNum)));
+        }
+        for (int k = 1; k < count; k++) {
+            scores[k] = tasks.get(k - 1).join();
+        }
+        return scores;
+    }
+
+    /*a task scoring one child for the parent's side, keeping the side on a bonus turn*/
+    private ChildTask childTask(final GameRules rules, final Node parent, final int i, final int ply,
+                                final int depth, final int alpha, final int beta, final int playerNum) {
+        return new ChildTask(rules, parent.children[i], MoveOutcome.isFreeTurn(parent.outcomes[i]),
+                depth - 1, alpha, beta, playerNum, ply + 1);
+    }
+
+    /**
+     * Get the depth of the last finished iteration.
+     *
+     * @return The depth reached by the last search.
+     */
+    public int getLastDepth() {
+        return this.lastDepth;
+    }
+
+    /**
+     * Get the score of the last search, in stones, for the player who moved.
+     *
+     * @return The score of the best move.
+     */
+    public int getLastScore() {
+        return this.lastScore;
+    }
+
+    /**
+     * Get the number of nodes the last search visited over all threads.
+     *
+     * @return The node count.
+     */
+    public long getNodeCount() {
+        return this.nodes.sum();
+    }
+
+    /**
+     * Get the transposition table shared by the workers.
+     *
+     * @return The shared table.
+     */
+    public TranspositionTable getTable() {
+        return this.table;
+    }
+
+    /**
+     * Stop the worker threads. The search cannot be used afterwards.
+     */
+    public void shutdown() {
+        this.pool.shutdown();
+    }
+
+    /*a position with its own board copies for the children*/
+    private static final class Node {
+        private final MancalaDataStructure board;
+        private final MancalaDataStructure[] children = new MancalaDataStructure[6];
+        private final int[] outcomes = new int[6];
+        private final int[] moves = new int[6];
+
+        private Node(final MancalaDataStructure source) {
+            this.board = new MancalaDataStructure();
+            this.board.copyFrom(source);
+            for (int i = 0; i < 6; i++) {
+                this.children[i] = new MancalaDataStructure();
+            }
+        }
+
+        private int expand(final GameRules rules, final int playerNum) {
+            return SearchEngine.orderMoves(rules, this.board, playerNum, this.children, this.outcomes,
+                    this.moves, new int[6]);
+        }
+    }
+
+    /*scores a child position for the side that moved into it*/
+    private final class ChildTask extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+        private final GameRules rules;
+        private final MancalaDataStructure board;
+        private final boolean freeTurn;
+        private final int depth;
+        private final int alpha;
+        private final int beta;
+        private final int playerNum;
+        private final int ply;
+
+        private ChildTask(final GameRules theRules, final MancalaDataStructure theBoard, final boolean bonus,
+                          final int theDepth, final int theAlpha, final int theBeta, final int player,
+                          final int thePly) {
+            this.rules = theRules;
+            this.board = theBoard;
+            this.freeTurn = bonus;
+            this.depth = theDepth;
+            this.alpha = theAlpha;
+            this.beta = theBeta;
+            this.playerNum = player;
+            this.ply = thePly;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (this.freeTurn) {
+                return search(this.rules, this.board, this.playerNum, this.ply, this.depth, this.alpha, this.beta);
+            }
+            return -search(this.rules, this.board, SearchEngine.opponent(this.playerNum), this.ply, this.depth,
+                    -this.beta, -this.alpha);
+        }
+    }
+
+    /*young brothers wait near the root, one engine below that*/
+    private int search(final GameRules rules, final MancalaDataStructure board, final int playerNum,
+                       final int ply, final int depth, int alpha, final int beta) {
+        if (this.aborted) {
+            return 0;
+        }
+        if (ply >= SPLIT_PLIES || depth < SPLIT_DEPTH || SearchEngine.isOver(board)) {
+            final SearchEngine engine = this.engines.get();
+            final int score = engine.searchPosition(rules, board, playerNum, depth, alpha, beta, this.deadline);
+            this.nodes.add(engine.getNodeCount());
+            if (engine.isAborted()) {
+                this.aborted = true;
+            }
+            return score;
+        }
+        this.nodes.increment();
+
+        final Node node = new Node(board);
+        final int count = node.expand(rules, playerNum);
+        int best = childTask(rules, node, node.moves[0], ply, depth, alpha, beta, playerNum).compute();
+        if (best >= beta || count == 1) {
+            return best;
+        }
+        alpha = Math.max(alpha, best);
+        final List<ChildTask> brothers = new ArrayList<>();
+        for (int k = 1; k < count; k++) {
+            brothers.add(childTask(rules, node, node.moves[k], ply, depth, alpha, beta, playerNum));
+        }
+        for (final ChildTask brother : ForkJoinTask.invokeAll(brothers)) {
+            best = Math.max(best, brother.join());
+        }
+        return best;
+    }
+
+    /**
+     * Time the search on a fixed suite of Kalah(6,4) positions at 1, 2, 4
+     * and 8 threads, checking each best move against the sequential search.
+     *
+     * @param args Optional search depth (default 12) and position count (default 16).
+     */
+    public static void main(final String[] args) {
+        final int depth = args.length > 0 ? Integer.parseInt(args[0]) : 12;
+        final int positions = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        final KalahRules rules = new KalahRules();
+        rules.registerPlayers(new Player(), new Player());
+        final List<MancalaDataStructure> suite = new ArrayList<>();
+        final List<Integer> movers = new ArrayList<>();
+        final Random random = new Random(4L); // fixed seed, so the suite never changes
+        while (suite.size() < positions) {
+            rules.resetBoard();
+            int player = 1;
+            for (int ply = random.nextInt(10); ply > 0 && !rules.isGameOver(); ply--) {
+                final int moves = rules.legalMoves(player);
+                int index = random.nextInt(6);
+                while ((moves & 1 << index) == 0) {
+                    index = random.nextInt(6);
+                }
+                final int outcome = rules.sowStones(rules.getDataStructure(), SearchEngine.pitFor(player, index), player);
+                if (!MoveOutcome.isFreeTurn(outcome)) {
+                    player = SearchEngine.opponent(player);
+                }
+            }
+            if (!rules.isGameOver()) {
+                final MancalaDataStructure copy = new MancalaDataStructure();
+                copy.copyFrom(rules.getDataStructure());
+                suite.add(copy);
+                movers.add(player);
+            }
+        }
+
+        final SearchEngine sequential = new SearchEngine();
+        sequential.setMaxDepth(depth);
+        final int[] expected = new int[positions];
+        for (int p = 0; p < positions; p++) { // warm up
+            sequential.findBestMove(rules, suite.get(p), movers.get(p));
+        }
+        long start = System.nanoTime();
+        for (int p = 0; p < positions; p++) {
+            expected[p] = sequential.findBestMove(rules, suite.get(p), movers.get(p));
+        }
+        final double baseMillis = (System.nanoTime() - start) / 1e6;
+        System.out.printf("sequential: %.0f ms%n", baseMillis);
+
+        for (final int threads : new int[] {1, 2, 4, 8}) {
+            final ParallelSearch search = new ParallelSearch(threads);
+            int mismatches = 0;
+            start = System.nanoTime();
+            for (int p = 0; p < positions; p++) {
+                search.getTable().clear();
+                if (search.findBestMove(rules, suite.get(p), movers.get(p), depth) != expected[p]) {
+                    mismatches++;
+                }
+            }
+            final double millis = (System.nanoTime() - start) / 1e6;
+            System.out.printf("%d threads: %.0f ms, speedup %.2f, %d moves differ%n",
+                    threads, millis, baseMillis / millis, mismatches);
+            search.shutdown();
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package mancala;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the positions reached after a number of moves from a board, to
+ * check the sowing code against known counts and to time it.
+ * Every legal move is sown, including those of the last move, so the count
+ * exercises distributeStones and captureStones on every leaf. A bonus turn
+ * counts as a move of its own, and a game that ends before the last move
+ * adds no positions.
+ */
+public class Perft {
+
+    /** Kalah counts from the four stone start, player one to move, for depths 0 to 12. */
+    static final long[] KALAH_COUNTS = {
+        1L, 6L, 35L, 185L, 942L, 4_690L, 23_233L, 114_430L, 563_055L,
+        2_763_490L, 13_519_607L, 65_870_758L, 318_739_550L,
+    };
+
+    /** Ayo counts from the four stone start, player one to move, for depths 0 to 12. */
+    static final long[] AYO_COUNTS = {
+        1L, 6L, 30L, 151L, 735L, 3_515L, 16_422L, 75_026L, 338_255L,
+        1_497_939L, 6_527_714L, 27_959_970L, 117_739_464L,
+    };
+
+    private static final int SPLIT_DEPTH = 5; // shallower subtrees are counted by one thread
+
+    private final GameRules rules;
+    private final List<MancalaDataStructure> scratch = new ArrayList<>();
+    private long lastNanos;
+
+    /**
+     * Constructor to initialize a counter.
+     *
+     * @param theRules The rule set to sow with.
+     */
+    public Perft(final GameRules theRules) {
+        this.rules = theRules;
+    }
+
+    /**
+     * Count the positions after some moves on one thread. Reuses this
+     * counter's scratch boards, so one counter counts one board at a time.
+     *
+     * @param board     The position to count from (not changed).
+     * @param playerNum The player to move (1 or 2).
+     * @param depth     The number of moves.
+     * @return The number of positions.
+     */
+    public long count(final MancalaDataStructure board, final int playerNum, final int depth) {
+        final long start = System.nanoTime();
+        final long nodes = countFrom(this.rules, board, playerNum, depth, this.scratch, 0);
+        this.lastNanos = System.nanoTime() - start;
+        return nodes;
+    }
+
+    /**
+     * Count the positions after some moves on several threads. The moves
+     * near the start are split into tasks, and each task counts its subtree
+     * on its own boards.
+     *
+     * @param board     The position to count from (not changed).
+     * @param playerNum The player to move (1 or 2).
+     * @param depth     The number of moves.
+     * @param threads   The number of threads.
+     * @return The number of positions.
+     */
+    public long countParallel(final MancalaDataStructure board, final int playerNum, final int depth,
+                              final int threads) {
+        final ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+        try {
+            final long start = System.nanoTime();
+            final long nodes = pool.invoke(new CountTask(this.rules, copyOf(board), playerNum, depth));
+            this.lastNanos = System.nanoTime() - start;
+            return nodes;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Count the positions after some moves separately for each first move.
+     *
+     * @param board     The position to count from (not changed).
+     * @param playerNum The player to move (1 or 2).
+     * @param depth     The number of moves, at least 1.
+     * @return The count for each pit on the player's side, 0 for empty pits.
+     */
+    public long[] divide(final MancalaDataStructure board, final int playerNum, final int depth) {
+        final long[] counts = new long[6];
+        final MancalaDataStructure child = copyOf(board);
+        for (int i = 0; i < 6; i++) {
+            final int pit = SearchEngine.pitFor(playerNum, i);
+            if (board.getNumStones(pit) > 0) {
+                child.copyFrom(board);
+                final int outcome = this.rules.sowStones(child, pit, playerNum);
+                counts[i] = count(child, nextPlayer(outcome, playerNum), depth - 1);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Get the speed of the last count.
+     *
+     * @param nodes The number of positions the count returned.
+     * @return Positions per second.
+     */
+    public double getNodesPerSecond(final long nodes) {
+        return this.lastNanos == 0 ? 0 : nodes * 1e9 / this.lastNanos;
+    }
+
+    /**
+     * Get how long the last count took.
+     *
+     * @return The time in milliseconds.
+     */
+    public double getLastMillis() {
+        return this.lastNanos / 1e6;
+    }
+
+    /*depth-first count using one scratch board per ply*/
+    private static long countFrom(final GameRules theRules, final MancalaDataStructure board, final int playerNum,
+                                  final int depth, final List<MancalaDataStructure> boards, final int ply) {
+        if (depth == 0) {
+            return 1;
+        }
+        if (SearchEngine.isOver(board)) {
+            return 0;
+        }
+        if (boards.size() == ply) {
+            boards.add(new MancalaDataStructure(board.getStartStones()));
+        }
+        final MancalaDataStructure child = boards.get(ply);
+        long nodes = 0;
+        for (int i = 0; i < 6; i++) {
+            final int pit = SearchEngine.pitFor(playerNum, i);
+            if (board.getNumStones(pit) > 0) {
+                child.copyFrom(board);
+                final int outcome = theRules.sowStones(child, pit, playerNum);
+                nodes += countFrom(theRules, child, nextPlayer(outcome, playerNum), depth - 1, boards, ply + 1);
+            }
+        }
+        return nodes;
+    }
+
+    /*who moves after a sowing*/
+    private static int nextPlayer(final int outcome, final int playerNum) {
+        return MoveOutcome.isFreeTurn(outcome) ? playerNum : SearchEngine.opponent(playerNum);
+    }
+
+    /*a fresh board with the same cells*/
+    private static MancalaDataStructure copyOf(final MancalaDataStructure board) {
+        final MancalaDataStructure copy = new MancalaDataStructure(board.getStartStones());
+        copy.copyFrom(board);
+        return copy;
+    }
+
+    /*counts one subtree, splitting into a task per move while the subtree is deep*/
+    private static final class CountTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+        private final GameRules rules;
+        private final MancalaDataStructure board;
+        private final int playerNum;
+        private final int depth;
+
+        CountTask(final GameRules theRules, final MancalaDataStructure theBoard, final int player, final int plies) {
+            this.rules = theRules;
+            this.board = theBoard;
+            this.playerNum = player;
+            this.depth = plies;
+        }
+
+        @Override
+        protected Long compute() {
+            if (this.depth <= SPLIT_DEPTH || SearchEngine.isOver(this.board)) {
+                return countFrom(this.rules, this.board, this.playerNum, this.depth, new ArrayList<>(), 0);
+            }
+            final List<CountTask> children = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                final int pit = SearchEngine.pitFor(this.playerNum, i);
+                if (this.board.getNumStones(pit) > 0) {
+                    final MancalaDataStructure child = copyOf(this.board);
+                    final int outcome = this.rules.sowStones(child, pit, this.playerNum);
+                    children.add(new CountTask(this.rules, child, nextPlayer(outcome, this.playerNum), this.depth - 1));
+                }
+            }
+            long nodes = 0;
+            for (final CountTask child : ForkJoinTask.invokeAll(children)) {
+                nodes += child.join();
+            }
+            return nodes;
+        }
+    }
+
+    /**
+     * Count from the four stone start for both rule sets, check the counts
+     * against the reference counts and report the speed.
+     *
+     * @param args Optionally the deepest depth (default 10) and the number of threads
+     *             (default the number of processors).
+     */
+    public static void main(final String[] args) {
+        final int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        final int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        boolean allMatch = true;
+        for (final GameRules gameRules : new GameRules[] {new KalahRules(), new AyoRules()}) {
+            final long[] reference = gameRules instanceof AyoRules ? AYO_COUNTS : KALAH_COUNTS;
+            gameRules.registerPlayers(new Player(), new Player());
+            final MancalaDataStructure start = gameRules.getDataStructure();
+            final Perft perft = new Perft(gameRules);
+            System.out.println(gameRules.getClass().getSimpleName());
+            for (int depth = 1; depth <= maxDepth; depth++) {
+                final long single = perft.count(start, 1, depth);
+                final double singleRate = perft.getNodesPerSecond(single);
+                final long parallel = perft.countParallel(start, 1, depth, threads);
+                final double parallelRate = perft.getNodesPerSecond(parallel);
+                final boolean match = depth < reference.length && single == reference[depth] && parallel == single;
+                allMatch &= match;
+                System.out.printf("  depth %2d: %,15d %s  %,12.0f nodes/s, %,12.0f nodes/s on %d threads%n",
+                        depth, single, match ? "ok" : "MISMATCH", singleRate, parallelRate, threads);
+            }
+        }
+        System.out.println(allMatch ? "all counts match" : "counts differ from the reference");
+    }
+}
@@ -0,0 +1,27 @@
+package mancala;
+
+import java.io.IOException;
+
+/**
+ * Where user profiles are kept, such as a ProfileStore, for a ProfileCache
+ * to read and write through.
+ */
+public interface ProfileBackend {
+
+    /**
+     * Look up a profile.
+     *
+     * @param name The user's name.
+     * @return The profile, or null if there is none by that name.
+     * @throws IOException If the profiles cannot be read.
+     */
+    UserProfile get(String name) throws IOException;
+
+    /**
+     * Save a profile, adding it if there is none by its name yet.
+     *
+     * @param profile The profile.
+     * @throws IOException If the profile cannot be written.
+     */
+    void put(UserProfile profile) throws IOException;
+}
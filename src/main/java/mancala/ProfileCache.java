@@ -0,0 +1,255 @@
+package mancala;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps recently used user profiles in memory in front of a ProfileBackend,
+ * so looking up the same players again does not go back to disk.
+ * The cache is bounded by an estimate of the memory its profiles take, and
+ * when it is full the least recently used profile is dropped. Saving a
+ * profile replaces the cached copy, and either writes it straight to the
+ * backend (write-through) or marks it to be written when it is dropped,
+ * flushed or the cache is closed (write-behind).
+ * Profiles are returned as they are cached, not copied; a caller that
+ * changes one saves it with put.
+ */
+public final class ProfileCache implements Closeable {
+
+    /** Write policy: a saved profile is written to the backend at once. */
+    public static final int WRITE_THROUGH = 1;
+    /** Write policy: a saved profile is written when it leaves the cache or on flush. */
+    public static final int WRITE_BEHIND = 2;
+
+    static final int ENTRY_BYTES = 128; // map node, entry, profile and string, without the name's characters
+
+    private final ProfileBackend backend;
+    private final long maxBytes;
+    private final int writePolicy;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long writeCount;
+
+    /*a cached profile, its estimated size and whether the backend is behind it*/
+    private static final class Entry {
+        private UserProfile profile;
+        private int weight;
+        private boolean dirty;
+    }
+
+    /**
+     * Constructor to initialize a cache.
+     *
+     * @param theBackend Where the profiles are kept.
+     * @param maxSize    The most memory the cached profiles may take, in bytes (estimated).
+     * @param policy     WRITE_THROUGH or WRITE_BEHIND.
+     */
+    public ProfileCache(final ProfileBackend theBackend, final long maxSize, final int policy) {
+        if (policy != WRITE_THROUGH && policy != WRITE_BEHIND) {
+            throw new RuntimeException("Unknown write policy.");
+        }
+        if (maxSize < ENTRY_BYTES) {
+            throw new RuntimeException("Cache is too small to hold a profile.");
+        }
+        this.backend = theBackend;
+        this.maxBytes = maxSize;
+        this.writePolicy = policy;
+    }
+
+    /**
+     * Look up a profile, from memory if it is cached.
+     *
+     * @param name The user's name.
+     * @return The profile, or null if there is none by that name.
+     * @throws IOException If the backend cannot be read, or a profile being
+     *                     dropped to make room cannot be written.
+     */
+    public synchronized UserProfile get(final String name) throws IOException {
+        final Entry cached = this.entries.get(name);
+        if (cached != null) {
+            this.hitCount++;
+            return cached.profile;
+        }
+        this.missCount++;
+        final UserProfile profile = this.backend.get(name);
+        if (profile != null) {
+            store(profile, false);
+        }
+        return profile;
+    }
+
+    /**
+     * Save a profile, replacing any cached copy.
+     *
+     * @param profile The profile.
+     * @throws IOException If the profile, or one dropped to make room for it, cannot be written.
+     */
+    public synchronized void put(final UserProfile profile) throws IOException {
+        if (this.writePolicy == WRITE_THROUGH) {
+            try {
+                this.backend.put(profile);
+                this.writeCount++;
+            } catch (IOException e) {
+                discard(profile.getUserName()); // the cached copy may no longer match the backend
+                throw e;
+            }
+            store(profile, false);
+        } else {
+            store(profile, true);
+        }
+    }
+
+    /**
+     * Drop a profile from the cache, so the next lookup reads it from the
+     * backend again; used after the backend was changed directly. A change
+     * not yet written is written first.
+     *
+     * @param name The user's name.
+     * @throws IOException If an unwritten change cannot be written.
+     */
+    public synchronized void invalidate(final String name) throws IOException {
+        final Entry entry = this.entries.get(name);
+        if (entry != null) {
+            writeBack(entry);
+            discard(name);
+        }
+    }
+
+    /**
+     * Write every unwritten change to the backend.
+     *
+     * @throws IOException If a profile cannot be written.
+     */
+    public synchronized void flush() throws IOException {
+        for (final Entry entry : this.entries.values()) {
+            writeBack(entry);
+        }
+    }
+
+    /**
+     * Write every unwritten change and empty the cache.
+     *
+     * @throws IOException If a profile cannot be written.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        this.entries.clear();
+        this.bytes = 0;
+    }
+
+    /**
+     * Get the number of lookups answered from memory.
+     *
+     * @return The hit count.
+     */
+    public synchronized long getHitCount() {
+        return this.hitCount;
+    }
+
+    /**
+     * Get the number of lookups that went to the backend.
+     *
+     * @return The miss count.
+     */
+    public synchronized long getMissCount() {
+        return this.missCount;
+    }
+
+    /**
+     * Get the number of profiles dropped to make room.
+     *
+     * @return The eviction count.
+     */
+    public synchronized long getEvictionCount() {
+        return this.evictionCount;
+    }
+
+    /**
+     * Get the number of profiles written to the backend.
+     *
+     * @return The write count.
+     */
+    public synchronized long getWriteCount() {
+        return this.writeCount;
+    }
+
+    /**
+     * Get the number of cached profiles.
+     *
+     * @return The profile count.
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Get the estimated memory the cached profiles take.
+     *
+     * @return The size in bytes.
+     */
+    public synchronized long getSize() {
+        return this.bytes;
+    }
+
+    /**
+     * Estimate the memory a cached profile takes.
+     *
+     * @param profile The profile.
+     * @return The size in bytes.
+     */
+    static int weigh(final UserProfile profile) {
+        return ENTRY_BYTES + 2 * profile.getUserName().length();
+    }
+
+    /*cache a profile as the most recently used, then make room*/
+    private void store(final UserProfile profile, final boolean dirty) throws IOException {
+        Entry entry = this.entries.get(profile.getUserName());
+        if (entry == null) {
+            entry = new Entry();
+            this.entries.put(profile.getUserName(), entry);
+        } else {
+            this.bytes -= entry.weight;
+        }
+        entry.profile = profile;
+        entry.weight = weigh(profile);
+        entry.dirty |= dirty;
+        this.bytes += entry.weight;
+        evict();
+    }
+
+    /*drop least recently used profiles, writing back any changes, until the cache fits; always keeps the newest*/
+    private void evict() throws IOException {
+        final Iterator<Map.Entry<String, Entry>> eldest = this.entries.entrySet().iterator();
+        while (this.bytes > this.maxBytes && this.entries.size() > 1) {
+            final Entry entry = eldest.next().getValue();
+            writeBack(entry);
+            eldest.remove();
+            this.bytes -= entry.weight;
+            this.evictionCount++;
+        }
+    }
+
+    /*write a profile the backend does not have yet*/
+    private void writeBack(final Entry entry) throws IOException {
+        if (entry.dirty) {
+            this.backend.put(entry.profile);
+            entry.dirty = false;
+            this.writeCount++;
+        }
+    }
+
+    /*drop a cached profile without writing it*/
+    private void discard(final String name) {
+        final Entry entry = this.entries.remove(name);
+        if (entry != null) {
+            this.bytes -= entry.weight;
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package mancala;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Every user profile in one file of fixed-width records, in place of a
+ * serialized file per user.
+ * The file is a 16-byte header and then one 64-byte record per profile:
+ * a used flag, the name's length, the name in UTF-8 and the four game
+ * counters. Opening the store reads the names once to build a name to
+ * record index, so looking a profile up is one positioned read, and saving
+ * one is one positioned write. Recording a game rewrites only that game's
+ * two counters.
+ * Records are written in place and carry no checksum, so a crash in the
+ * middle of a write can leave a record part old and part new, and nothing
+ * will notice. Call flush after a group of writes to get them to disk.
+ */
+public final class ProfileStore implements ProfileBackend, Closeable {
+
+    static final int MAGIC = 0x4D505246; // "MPRF"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int RECORD_BYTES = 64;
+    static final int MAX_NAME_BYTES = 46;
+
+    private static final int NAME_OFFSET = 2;
+    private static final int COUNTERS_OFFSET = NAME_OFFSET + MAX_NAME_BYTES; // kalah played, ayo played, kalah won, ayo won
+    private static final int KALAH_OFFSET = COUNTERS_OFFSET; // played, then won 8 bytes later
+    private static final int AYO_OFFSET = COUNTERS_OFFSET + 4;
+
+    private final FileChannel channel;
+    private final Map<String, Integer> index = new HashMap<>();
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+    private int records;
+
+    private ProfileStore(final FileChannel theChannel) {
+        this.channel = theChannel;
+    }
+
+    /**
+     * Open a profile store, creating the file if there is none.
+     *
+     * @param file The store file.
+     * @return The store.
+     * @throws IOException If the file cannot be read or is not a profile store.
+     */
+    public static ProfileStore open(final Path file) throws IOException {
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        final ProfileStore store = new ProfileStore(channel);
+        try {
+            store.load();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return store;
+    }
+
+    /*read the header, or write one for a new file, then index every record*/
+    private void load() throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        final long size = this.channel.size();
+        if (size < HEADER_BYTES) {
+            // a new file, or an empty store whose header was written 8 bytes short
+            header.limit((int) size);
+            readFully(header, 0);
+            if (size > 0 && (size < 8 || header.getInt(0) != MAGIC || header.getInt(4) != VERSION)) {
+                throw new IOException("Not a profile store.");
+            }
+            header.clear();
+            header.putInt(MAGIC).putInt(VERSION).position(HEADER_BYTES).flip();
+            writeFully(header, 0);
+            return;
+        }
+        readFully(header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not a profile store.");
+        }
+        if (header.getInt() != VERSION) {
+            throw new IOException("Unsupported profile store version.");
+        }
+        final long body = this.channel.size() - HEADER_BYTES;
+        this.records = (int) (body / RECORD_BYTES); // a record torn by a crash is written over by the next put
+        final ByteBuffer all = ByteBuffer.allocate(this.records * RECORD_BYTES);
+        readFully(all, HEADER_BYTES);
+        all.flip();
+        for (int slot = 0; slot < this.records; slot++) {
+            final int start = slot * RECORD_BYTES;
+            if (all.get(start) != 0) {
+                final byte[] name = new byte[Math.min(all.get(start + 1) & 0xFF, MAX_NAME_BYTES)];
+                all.get(start + NAME_OFFSET, name);
+                this.index.put(new String(name, StandardCharsets.UTF_8), slot);
+            }
+        }
+    }
+
+    /**
+     * Look up a profile.
+     *
+     * @param name The user's name.
+     * @return The profile, or null if there is none by that name.
+     * @throws IOException If the store cannot be read.
+     */
+    @Override
+    public synchronized UserProfile get(final String name) throws IOException {
+        final Integer slot = this.index.get(name);
+        if (slot == null) {
+            return null;
+        }
+        this.record.clear();
+        readFully(this.record, offset(slot));
+        return new UserProfile(name, this.record.getInt(COUNTERS_OFFSET), this.record.getInt(COUNTERS_OFFSET + 4),
+                this.record.getInt(COUNTERS_OFFSET + 8), this.record.getInt(COUNTERS_OFFSET + 12));
+    }
+
+    /**
+     * Save a profile, adding it if the store does not have it yet.
+     *
+     * @param profile The profile.
+     * @throws IOException If the name is too long for a record or the store cannot be written.
+     */
+    @Override
+    public synchronized void put(final UserProfile profile) throws IOException {
+        final byte[] name = profile.getUserName().getBytes(StandardCharsets.UTF_8);
+        if (name.length == 0 || name.length > MAX_NAME_BYTES) {
+            throw new IOException("Player name does not fit the profile store.");
+        }
+        Integer slot = this.index.get(profile.getUserName());
+        if (slot == null) {
+            slot = this.records;
+        }
+        this.record.clear();
+        this.record.put((byte) 1).put((byte) name.length).put(name);
+        this.record.position(COUNTERS_OFFSET);
+        this.record.putInt(profile.getKalahGamesPlayed()).putInt(profile.getAyoGamesPlayed())
+                .putInt(profile.getKalahGamesWon()).putInt(profile.getAyoGamesWon());
+        this.record.flip();
+        writeFully(this.record, offset(slot));
+        if (slot == this.records) {
+            this.records++;
+            this.index.put(profile.getUserName(), slot);
+        }
+    }
+
+    /**
+     * Record a finished Kalah game for a user, in place.
+     *
+     * @param name    The user's name.
+     * @param wonGame Whether the user won.
+     * @return False if the store has no profile by that name.
+     * @throws IOException If the store cannot be written.
+     */
+    public boolean addKalahGame(final String name, final boolean wonGame) throws IOException {
+        return addGame(name, KALAH_OFFSET, wonGame);
+    }
+
+    /**
+     * Record a finished Ayo game for a user, in place.
+     *
+     * @param name    The user's name.
+     * @param wonGame Whether the user won.
+     * @return False if the store has no profile by that name.
+     * @throws IOException If the store cannot be written.
+     */
+    public boolean addAyoGame(final String name, final boolean wonGame) throws IOException {
+        return addGame(name, AYO_OFFSET, wonGame);
+    }
+
+    /*bump a played counter, and its won counter 8 bytes on, in the record itself*/
+    private synchronized boolean addGame(final String name, final int playedOffset, final boolean wonGame)
+            throws IOException {
+        final Integer slot = this.index.get(name);
+        if (slot == null) {
+            return false;
+        }
+        final ByteBuffer counters = ByteBuffer.allocate(12);
+        final long position = offset(slot) + playedOffset;
+        readFully(counters, position);
+        counters.putInt(0, counters.getInt(0) + 1);
+        if (wonGame) {
+            counters.putInt(8, counters.getInt(8) + 1);
+        }
+        counters.flip();
+        writeFully(counters, position);
+        return true;
+    }
+
+    /**
+     * Checks whether the store has a profile.
+     *
+     * @param name The user's name.
+     * @return True if there is a profile by that name.
+     */
+    public synchronized boolean contains(final String name) {
+        return this.index.containsKey(name);
+    }
+
+    /**
+     * Get the number of profiles in the store.
+     *
+     * @return The profile count.
+     */
+    public synchronized int size() {
+        return this.index.size();
+    }
+
+    /**
+     * Get every user name in the store, in the order they were added.
+     *
+     * @return The names.
+     */
+    public synchronized List<String> getNames() {
+        final String[] names = new String[this.records];
+        for (final Map.Entry<String, Integer> entry : this.index.entrySet()) {
+            names[entry.getValue()] = entry.getKey();
+        }
+        final List<String> inOrder = new ArrayList<>();
+        for (final String name : names) {
+            if (name != null) {
+                inOrder.add(name);
+            }
+        }
+        return inOrder;
+    }
+
+    /**
+     * Force every change to disk.
+     *
+     * @throws IOException If the store cannot be written.
+     */
+    public synchronized void flush() throws IOException {
+        this.channel.force(false);
+    }
+
+    /**
+     * Force every change to disk and close the file.
+     *
+     * @throws IOException If the store cannot be written.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.channel.isOpen()) {
+            this.channel.force(false);
+            this.channel.close();
+        }
+    }
+
+    private static long offset(final int slot) {
+        return HEADER_BYTES + (long) slot * RECORD_BYTES;
+    }
+
+    private void readFully(final ByteBuffer buffer, final long position) throws IOException {
+        long at = position;
+        while (buffer.hasRemaining()) {
+            final int read = this.channel.read(buffer, at);
+            if (read < 0) {
+                throw new IOException("Profile store is shorter than its index.");
+            }
+            at += read;
+        }
+    }
+
+    private void writeFully(final ByteBuffer buffer, final long position) throws IOException {
+        long at = position;
+        while (buffer.hasRemaining()) {
+            at += this.channel.write(buffer, at);
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package mancala;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Any number of saved games, one per numbered slot, in place of the single
+ * saved game file.
+ * A slot file is an 8-byte tag, then the slot's SaveSlot header, then the
+ * game in GameStateCodec form. The header of every slot is also kept in an
+ * index file, read through a memory mapping, so listing the slots reads
+ * neither the slot files nor any game. A game is only decoded when its slot
+ * is opened.
+ * Opening the catalogue lists the folder and brings the index up to date
+ * with the slot files in it, reading the header of any slot it is missing
+ * or whose file changed after the index was last written, as when the
+ * program stopped between writing a slot and recording it.
+ */
+public final class SaveCatalogue implements Closeable {
+
+    static final String INDEX_FILE = "slots.idx";
+    static final int SLOT_MAGIC = 0x4D534C54; // "MSLT"
+    static final int INDEX_MAGIC = 0x4D534958; // "MSIX"
+    static final int VERSION = 1;
+    static final int SLOT_HEADER_BYTES = 8 + SaveSlot.BYTES; // tag, then the header
+    static final int INDEX_HEADER_BYTES = 16;
+
+    private static final String SLOT_PREFIX = "slot-";
+    private static final String SLOT_SUFFIX = ".save";
+    private static final int FIRST_CAPACITY = 64;
+
+    private final Path folder;
+    private final FileChannel channel;
+    private MappedByteBuffer index;
+    private int capacity; // entries the mapping holds
+    private int highestSlot;
+
+    private SaveCatalogue(final Path theFolder, final FileChannel theChannel) {
+        this.folder = theFolder;
+        this.channel = theChannel;
+    }
+
+    /**
+     * Open the saved games in a folder, creating the folder and its index if
+     * there are none.
+     *
+     * @param folder The folder the slot files are kept in.
+     * @return The catalogue.
+     * @throws IOException If the folder or its index cannot be used.
+     */
+    public static SaveCatalogue open(final Path folder) throws IOException {
+        Files.createDirectories(folder);
+        final FileChannel channel = FileChannel.open(folder.resolve(INDEX_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        final SaveCatalogue catalogue = new SaveCatalogue(folder, channel);
+        try {
+            catalogue.load();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return catalogue;
+    }
+
+    /*map the index, starting a new one if it is missing or unreadable, then catch up with the folder*/
+    private void load() throws IOException {
+        final long size = this.channel.size();
+        final ByteBuffer header = ByteBuffer.allocate(INDEX_HEADER_BYTES);
+        final FileTime indexTime = Files.getLastModifiedTime(this.folder.resolve(INDEX_FILE));
+        boolean valid = false;
+        if (size >= INDEX_HEADER_BYTES) {
+            this.channel.read(header, 0);
+            valid = header.getInt(0) == INDEX_MAGIC && header.getInt(4) == VERSION;
+        }
+        if (valid) {
+            this.highestSlot = Math.max(0, header.getInt(8));
+            mapFor((int) Math.min(Integer.MAX_VALUE, (size - INDEX_HEADER_BYTES) / SaveSlot.BYTES));
+            this.highestSlot = Math.min(this.highestSlot, this.capacity);
+        } else {
+            this.channel.truncate(0);
+            mapFor(0);
+            this.index.putInt(0, INDEX_MAGIC);
+            this.index.putInt(4, VERSION);
+            this.highestSlot = 0;
+        }
+        catchUp(indexTime);
+    }
+
+    /**
+     * Read the index from scratch, from the header of every slot file.
+     *
+     * @throws IOException If the folder cannot be listed.
+     */
+    public synchronized void rebuildIndex() throws IOException {
+        for (int slot = 1; slot <= this.highestSlot; slot++) {
+            clearEntry(slot);
+        }
+        this.highestSlot = 0;
+        catchUp(null);
+    }
+
+    /*drop entries whose file is gone, add entries for files the index is missing or that changed since indexTime*/
+    private void catchUp(final FileTime indexTime) throws IOException {
+        final Set<Integer> onDisk = new HashSet<>();
+        final Set<Integer> changed = new HashSet<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(this.folder, SLOT_PREFIX + "*" + SLOT_SUFFIX)) {
+            for (final Path file : files) {
+                final int slot = slotOf(file.getFileName().toString());
+                if (slot > 0) {
+                    onDisk.add(slot);
+                    // not before, since a coarse clock can give a slot and its index entry the same time
+                    if (indexTime != null && Files.getLastModifiedTime(file).compareTo(indexTime) >= 0) {
+                        changed.add(slot);
+                    }
+                }
+            }
+        }
+        for (int slot = 1; slot <= this.highestSlot; slot++) {
+            if (!onDisk.contains(slot)) {
+                clearEntry(slot);
+            }
+        }
+        for (final int slot : onDisk) {
+            if (slot > this.highestSlot || changed.contains(slot) || readEntry(slot) == null) {
+                final SaveSlot header = readHeader(slot);
+                if (header != null) {
+                    writeEntry(header);
+                } else if (slot <= this.highestSlot) {
+                    clearEntry(slot);
+                }
+            }
+        }
+        writeHighestSlot();
+    }
+
+    /**
+     * List the saved games, without reading any of them.
+     *
+     * @return The header of every slot, in slot order.
+     */
+    public synchronized List<SaveSlot> list() {
+        final List<SaveSlot> slots = new ArrayList<>();
+        for (int slot = 1; slot <= this.highestSlot; slot++) {
+            final SaveSlot header = readEntry(slot);
+            if (header != null) {
+                slots.add(header);
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Get the header of one slot, without reading it.
+     *
+     * @param slot The slot number.
+     * @return The header, or null if the slot is empty.
+     */
+    public synchronized SaveSlot getSlot(final int slot) {
+        return slot < 1 || slot > this.highestSlot ? null : readEntry(slot);
+    }
+
+    /**
+     * Reserve a slot number for a new saved game.
+     *
+     * @return The slot number.
+     * @throws IOException If the index cannot be grown.
+     */
+    public synchronized int newSlot() throws IOException {
+        final int slot = this.highestSlot + 1;
+        mapFor(slot);
+        this.highestSlot = slot;
+        writeHighestSlot();
+        return slot;
+    }
+
+    /**
+     * Save a game in a slot, replacing whatever it held.
+     *
+     * @param slot The slot number, from newSlot or list.
+     * @param game The game, with its players set.
+     * @throws IOException If the game cannot be written.
+     */
+    public void save(final int slot, final MancalaGame game) throws IOException {
+        final byte[] contents = encode(slot, game);
+        SaveService.writeAtomically(getPath(slot), contents);
+        record(contents);
+    }
+
+    /**
+     * Write a slot file's contents, for saving with a SaveService into the
+     * catalogue's folder under getFileName(slot). Pass the same bytes to
+     * record once they are written.
+     *
+     * @param slot The slot number.
+     * @param game The game, with its players set.
+     * @return The slot file's contents.
+     * @throws IOException If the game cannot be stored in this format.
+     */
+    public static byte[] encode(final int slot, final MancalaGame game) throws IOException {
+        if (slot < 1) {
+            throw new IOException("No such save slot.");
+        }
+        final byte[] state = GameStateCodec.encode(game);
+        final ByteBuffer buffer = ByteBuffer.allocate(SLOT_HEADER_BYTES + state.length);
+        buffer.putInt(SLOT_MAGIC).put((byte) VERSION).put(new byte[3]);
+        SaveSlot.of(slot, game, System.currentTimeMillis()).writeTo(buffer);
+        buffer.put(state);
+        return buffer.array();
+    }
+
+    /**
+     * Put the header of a slot file that has just been written into the index.
+     *
+     * @param contents The slot file's contents, from encode.
+     * @throws IOException If the contents are not a slot file or the index cannot be written.
+     */
+    public synchronized void record(final byte[] contents) throws IOException {
+        final SaveSlot header = parseHeader(ByteBuffer.wrap(contents));
+        if (header == null) {
+            throw new IOException("Not a save slot.");
+        }
+        writeEntry(header);
+        writeHighestSlot();
+        this.index.force();
+    }
+
+    /**
+     * Open the game saved in a slot.
+     *
+     * @param slot     The slot number.
+     * @param profiles Finds a player's profile by name; may return null.
+     * @return The game, ready to play on.
+     * @throws IOException If the slot is empty, or its file cannot be read or is damaged.
+     */
+    public MancalaGame load(final int slot, final Function<String, UserProfile> profiles) throws IOException {
+        final byte[] contents;
+        try {
+            contents = Files.readAllBytes(getPath(slot));
+        } catch (NoSuchFileException e) {
+            throw new IOException("Save slot " + slot + " is empty.");
+        }
+        if (parseHeader(ByteBuffer.wrap(contents)) == null) {
+            throw new IOException("Not a save slot.");
+        }
+        final byte[] state = new byte[contents.length - SLOT_HEADER_BYTES];
+        System.arraycopy(contents, SLOT_HEADER_BYTES, state, 0, state.length);
+        return GameStateCodec.decode(state, profiles);
+    }
+
+    /**
+     * Delete the game saved in a slot.
+     *
+     * @param slot The slot number.
+     * @throws IOException If the file cannot be deleted.
+     */
+    public synchronized void delete(final int slot) throws IOException {
+        Files.deleteIfExists(getPath(slot));
+        if (slot >= 1 && slot <= this.highestSlot) {
+            clearEntry(slot);
+            this.index.force();
+        }
+    }
+
+    /**
+     * Get the name of a slot's file within the catalogue's folder.
+     *
+     * @param slot The slot number.
+     * @return The file name.
+     */
+    public static String getFileName(final int slot) {
+        return SLOT_PREFIX + slot + SLOT_SUFFIX;
+    }
+
+    /**
+     * Get the path of a slot's file.
+     *
+     * @param slot The slot number.
+     * @return The path.
+     */
+    public Path getPath(final int slot) {
+        return this.folder.resolve(getFileName(slot));
+    }
+
+    /**
+     * Force the index to disk and close it.
+     *
+     * @throws IOException If the index cannot be written.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.channel.isOpen()) {
+            this.index.force();
+            this.channel.close();
+        }
+    }
+
+    /*slot number from a slot file's name, or 0 if it is not one*/
+    private static int slotOf(final String filename) {
+        final String digits = filename.substring(SLOT_PREFIX.length(), filename.length() - SLOT_SUFFIX.length());
+        try {
+            return Integer.parseInt(digits);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /*the header at the start of a slot file, or null if it is not a slot file*/
+    private static SaveSlot parseHeader(final ByteBuffer buffer) {
+        if (buffer.remaining() < SLOT_HEADER_BYTES || buffer.getInt() != SLOT_MAGIC || buffer.get() != VERSION) {
+            return null;
+        }
+        buffer.position(buffer.position() + 3);
+        return SaveSlot.readFrom(buffer);
+    }
+
+    /*one positioned read of a slot file's header*/
+    private SaveSlot readHeader(final int slot) throws IOException {
+        try (FileChannel file = FileChannel.open(getPath(slot), StandardOpenOption.READ)) {
+            final ByteBuffer buffer = ByteBuffer.allocate(SLOT_HEADER_BYTES);
+            int read = 0;
+            while (buffer.hasRemaining() && read >= 0) {
+                read = file.read(buffer, buffer.position());
+            }
+            buffer.flip();
+            final SaveSlot header = parseHeader(buffer);
+            return header != null && header.getSlot() == slot ? header : null;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /*grow the mapping, and with it the file, to hold at least this many entries*/
+    private void mapFor(final int entries) throws IOException {
+        if (this.index != null && entries <= this.capacity) {
+            return;
+        }
+        this.capacity = Math.max(Math.max(entries, FIRST_CAPACITY), this.capacity * 2);
+        this.index = this.channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                INDEX_HEADER_BYTES + (long) this.capacity * SaveSlot.BYTES);
+    }
+
+    private static int offset(final int slot) {
+        return INDEX_HEADER_BYTES + (slot - 1) * SaveSlot.BYTES;
+    }
+
+    private SaveSlot readEntry(final int slot) {
+        final ByteBuffer entry = this.index.duplicate();
+        entry.position(offset(slot));
+        return SaveSlot.readFrom(entry);
+    }
+
+    private void writeEntry(final SaveSlot header) throws IOException {
+        mapFor(header.getSlot());
+        final ByteBuffer entry = this.index.duplicate();
+        entry.position(offset(header.getSlot()));
+        header.writeTo(entry);
+        this.highestSlot = Math.max(this.highestSlot, header.getSlot());
+    }
+
+    private void clearEntry(final int slot) {
+        this.index.putInt(offset(slot), 0);
+    }
+
+    private void writeHighestSlot() {
+        this.index.putInt(8, this.highestSlot);
+    }
+}
@@ -0,0 +1,249 @@
+package mancala;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes files in the background, so saving never holds up the caller.
+ * Each file is written to a temporary file beside it, forced to disk and
+ * then renamed over the old one, so a crash leaves either the old file or
+ * the new one, never part of one.
+ * A group of files saved together is all-or-nothing: every temporary file
+ * is written first, then an intent file listing the group is put in
+ * place, then the renames are made. If the program stops during the
+ * renames, the next SaveService on the folder finishes them.
+ * A save requested while an earlier save of the same files is still
+ * waiting replaces it, and both callers are told when the newer one is done.
+ */
+public final class SaveService implements Closeable {
+
+    static final String INTENT_FILE = "save.intent";
+    static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path folder;
+    private final ExecutorService writer;
+    private final Map<String, Request> waiting = new LinkedHashMap<>(); // by file group, not yet started
+    private long writeCount;
+    private long coalescedCount;
+
+    /*one queued save of a group of files, and everyone waiting on it*/
+    private static final class Request {
+        private Map<String, byte[]> files;
+        private final List<CompletableFuture<Void>> futures = new ArrayList<>();
+    }
+
+    /**
+     * Constructor to initialize a save service for a folder. Finishes any
+     * group of renames a previous run was stopped in the middle of.
+     *
+     * @param saveFolder The folder files are saved in.
+     * @throws IOException If an unfinished save cannot be completed.
+     */
+    public SaveService(final Path saveFolder) throws IOException {
+        this.folder = saveFolder;
+        Files.createDirectories(saveFolder);
+        finishRenames(saveFolder);
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "save-service");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Save one file in the background.
+     *
+     * @param filename The file's name within the folder.
+     * @param contents The bytes to write.
+     * @return A future that completes when the file is on disk, or
+     *         completes exceptionally with the IOException that stopped it.
+     */
+    public CompletableFuture<Void> save(final String filename, final byte[] contents) {
+        final Map<String, byte[]> files = new TreeMap<>();
+        files.put(filename, contents);
+        return saveAll(files);
+    }
+
+    /**
+     * Save several files in the background, all or none of them.
+     *
+     * @param files The bytes to write, by file name within the folder.
+     * @return A future that completes when every file is on disk, or
+     *         completes exceptionally with the IOException that stopped them.
+     */
+    public CompletableFuture<Void> saveAll(final Map<String, byte[]> files) {
+        final Map<String, byte[]> sorted = new TreeMap<>(files);
+        final String key = String.join("\n", sorted.keySet());
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        synchronized (this) {
+            Request request = this.waiting.get(key);
+            if (request != null) {
+                request.files = sorted; // not started yet: write the newer contents instead
+                this.coalescedCount++;
+            } else {
+                request = new Request();
+                request.files = sorted;
+                this.waiting.put(key, request);
+                this.writer.execute(() -> write(key));
+            }
+            request.futures.add(future);
+        }
+        return future;
+    }
+
+    /**
+     * Get the number of file groups written.
+     *
+     * @return The write count.
+     */
+    public synchronized long getWriteCount() {
+        return this.writeCount;
+    }
+
+    /**
+     * Get the number of save requests folded into a later one.
+     *
+     * @return The coalesced request count.
+     */
+    public synchronized long getCoalescedCount() {
+        return this.coalescedCount;
+    }
+
+    /**
+     * Finish every requested save, then stop.
+     */
+    @Override
+    public void close() {
+        this.writer.shutdown();
+        try {
+            this.writer.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /*writer thread: take the latest contents for a group and write them*/
+    private void write(final String key) {
+        final Request request;
+        synchronized (this) {
+            request = this.waiting.remove(key);
+        }
+        try {
+            writeGroup(this.folder, request.files);
+            synchronized (this) {
+                this.writeCount++;
+            }
+            for (final CompletableFuture<Void> future : request.futures) {
+                future.complete(null);
+            }
+        } catch (IOException | RuntimeException e) {
+            for (final CompletableFuture<Void> future : request.futures) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Write one file so that it is replaced whole or not at all.
+     *
+     * @param target   The file to write.
+     * @param contents The bytes to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void writeAtomically(final Path target, final byte[] contents) throws IOException {
+        final Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+        writeDurably(temp, contents);
+        moveIntoPlace(temp, target);
+        syncFolder(target.toAbsolutePath().getParent());
+    }
+
+    /*temporary files, then the intent, then the renames*/
+    private static void writeGroup(final Path folder, final Map<String, byte[]> files) throws IOException {
+        if (files.size() == 1) {
+            final Map.Entry<String, byte[]> only = files.entrySet().iterator().next();
+            writeAtomically(folder.resolve(only.getKey()), only.getValue());
+            return;
+        }
+        final List<Path> temps = new ArrayList<>();
+        try {
+            for (final Map.Entry<String, byte[]> file : files.entrySet()) {
+                final Path temp = folder.resolve(file.getKey() + TEMP_SUFFIX);
+                temps.add(temp);
+                writeDurably(temp, file.getValue());
+            }
+        } catch (IOException e) {
+            for (final Path temp : temps) {
+                Files.deleteIfExists(temp);
+            }
+            throw e;
+        }
+        // once the intent is in place the group is committed: finishRenames completes it after a crash
+        writeAtomically(folder.resolve(INTENT_FILE),
+                String.join("\n", files.keySet()).getBytes(StandardCharsets.UTF_8));
+        finishRenames(folder);
+    }
+
+    /*rename every file a committed group lists, then drop the intent*/
+    private static void finishRenames(final Path folder) throws IOException {
+        final Path intent = folder.resolve(INTENT_FILE);
+        if (!Files.exists(intent)) {
+            return;
+        }
+        for (final String name : new String(Files.readAllBytes(intent), StandardCharsets.UTF_8).split("\n")) {
+            final Path temp = folder.resolve(name + TEMP_SUFFIX);
+            if (!name.isEmpty() && Files.exists(temp)) {
+                moveIntoPlace(temp, folder.resolve(name));
+            }
+        }
+        syncFolder(folder);
+        Files.delete(intent);
+        syncFolder(folder);
+    }
+
+    /*write and force a file to disk*/
+    private static void writeDurably(final Path file, final byte[] contents) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            final ByteBuffer buffer = ByteBuffer.wrap(contents);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+    }
+
+    /*rename over the target, atomically where the file system can*/
+    private static void moveIntoPlace(final Path temp, final Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /*make renames in a folder durable; not every platform can open a folder, which is fine*/
+    private static void syncFolder(final Path folder) {
+        try (FileChannel channel = FileChannel.open(folder, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            return; // the renames still happened, they are just not forced yet
+        }
+    }
+}
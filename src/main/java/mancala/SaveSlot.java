@@ -0,0 +1,201 @@
+package mancala;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * What a save slot shows before it is opened: the rule set, the players,
+ * how far the game has got, when it was saved and the stores so far.
+ * Written as a fixed-width header at the start of each slot file and as
+ * one entry of the SaveCatalogue index.
+ *
+ * <pre>
+ * offset  size  field
+ *  0      4     slot number, 0 for an empty entry
+ *  4      1     rule set (1 Kalah, 2 Ayo)
+ *  5      1     unused
+ *  6      2     stones in store one
+ *  8      2     stones in store two
+ *  10     2     unused
+ *  12     4     moves made
+ *  16     8     time saved, milliseconds since 1970
+ *  24     1+32  player one's name, UTF-8, cut to 32 bytes
+ *  57     1+32  player two's name
+ *  90     6     unused
+ * </pre>
+ */
+public final class SaveSlot {
+
+    static final int BYTES = 96;
+    static final int NAME_BYTES = 32;
+
+    private final int slot;
+    private final int ruleSet;
+    private final String playerOne;
+    private final String playerTwo;
+    private final int moveCount;
+    private final long timestamp;
+    private final int storeOne;
+    private final int storeTwo;
+
+    /**
+     * Constructor to initialize a slot's header.
+     *
+     * @param slotNum   The slot number, from 1.
+     * @param rules     The rule set: 1 for Kalah, 2 for Ayo.
+     * @param nameOne   Player one's name.
+     * @param nameTwo   Player two's name.
+     * @param moves     The number of moves made.
+     * @param saved     When the game was saved, in milliseconds since 1970.
+     * @param stonesOne The stones in store one.
+     * @param stonesTwo The stones in store two.
+     */
+    public SaveSlot(final int slotNum, final int rules, final String nameOne, final String nameTwo, final int moves,
+                    final long saved, final int stonesOne, final int stonesTwo) {
+        this.slot = slotNum;
+        this.ruleSet = rules;
+        this.playerOne = nameOne;
+        this.playerTwo = nameTwo;
+        this.moveCount = moves;
+        this.timestamp = saved;
+        this.storeOne = stonesOne;
+        this.storeTwo = stonesTwo;
+    }
+
+    /**
+     * Make the header for a game about to be saved.
+     *
+     * @param slotNum The slot number.
+     * @param game    The game, with its players set.
+     * @param saved   When the game is saved, in milliseconds since 1970.
+     * @return The header.
+     */
+    public static SaveSlot of(final int slotNum, final MancalaGame game, final long saved) {
+        final MancalaDataStructure data = game.getDataStructure();
+        return new SaveSlot(slotNum, game.getBoard() instanceof AyoRules ? 2 : 1, game.getPlayer(1).getName(),
+                game.getPlayer(2).getName(), game.getMoveCount(), saved, data.getStoreCount(1), data.getStoreCount(2));
+    }
+
+    /**
+     * Get the slot number.
+     *
+     * @return The slot number, from 1.
+     */
+    public int getSlot() {
+        return this.slot;
+    }
+
+    /**
+     * Get the rule set.
+     *
+     * @return 1 for Kalah, 2 for Ayo.
+     */
+    public int getRuleSet() {
+        return this.ruleSet;
+    }
+
+    /**
+     * Get a player's name, cut to 32 bytes.
+     *
+     * @param playerNum The player (1 or 2).
+     * @return The name.
+     */
+    public String getPlayerName(final int playerNum) {
+        return playerNum == 1 ? this.playerOne : this.playerTwo;
+    }
+
+    /**
+     * Get the number of moves made.
+     *
+     * @return The move count.
+     */
+    public int getMoveCount() {
+        return this.moveCount;
+    }
+
+    /**
+     * Get when the game was saved.
+     *
+     * @return Milliseconds since 1970.
+     */
+    public long getTimestamp() {
+        return this.timestamp;
+    }
+
+    /**
+     * Get the stones in a player's store when the game was saved.
+     *
+     * @param playerNum The player (1 or 2).
+     * @return The store count.
+     */
+    public int getStoreCount(final int playerNum) {
+        return playerNum == 1 ? this.storeOne : this.storeTwo;
+    }
+
+    /**
+     * Write the header at a buffer's position, moving it on by BYTES.
+     *
+     * @param buffer The buffer.
+     */
+    void writeTo(final ByteBuffer buffer) {
+        final int start = buffer.position();
+        buffer.putInt(this.slot);
+        buffer.put((byte) this.ruleSet).put((byte) 0);
+        buffer.putShort((short) this.storeOne).putShort((short) this.storeTwo).putShort((short) 0);
+        buffer.putInt(this.moveCount);
+        buffer.putLong(this.timestamp);
+        putName(buffer, this.playerOne);
+        putName(buffer, this.playerTwo);
+        while (buffer.position() < start + BYTES) {
+            buffer.put((byte) 0);
+        }
+    }
+
+    /**
+     * Read a header at a buffer's position, moving it on by BYTES.
+     *
+     * @param buffer The buffer.
+     * @return The header, or null if the entry is empty.
+     */
+    static SaveSlot readFrom(final ByteBuffer buffer) {
+        final int start = buffer.position();
+        final int slotNum = buffer.getInt();
+        final int rules = buffer.get();
+        buffer.get();
+        final int stonesOne = buffer.getShort() & 0xFFFF;
+        final int stonesTwo = buffer.getShort() & 0xFFFF;
+        buffer.getShort();
+        final int moves = buffer.getInt();
+        final long saved = buffer.getLong();
+        final String nameOne = getName(buffer);
+        final String nameTwo = getName(buffer);
+        buffer.position(start + BYTES);
+        if (slotNum <= 0) {
+            return null;
+        }
+        return new SaveSlot(slotNum, rules, nameOne, nameTwo, moves, saved, stonesOne, stonesTwo);
+    }
+
+    /*length and up to NAME_BYTES of UTF-8, cut between characters, padded*/
+    private static void putName(final ByteBuffer buffer, final String name) {
+        final ByteBuffer out = ByteBuffer.allocate(NAME_BYTES);
+        StandardCharsets.UTF_8.newEncoder().encode(CharBuffer.wrap(name), out, true);
+        buffer.put((byte) out.position());
+        buffer.put(out.array());
+    }
+
+    /*reads a name written by putName*/
+    private static String getName(final ByteBuffer buffer) {
+        final byte[] name = new byte[NAME_BYTES];
+        final int length = Math.min(buffer.get() & 0xFF, NAME_BYTES);
+        buffer.get(name);
+        return new String(name, 0, length, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return (this.ruleSet == 2 ? "Ayo" : "Kalah") + ": " + this.playerOne + " " + this.storeOne + " - "
+                + this.storeTwo + " " + this.playerTwo + ", move " + this.moveCount;
+    }
+}
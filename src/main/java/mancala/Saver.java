@@ -1,13 +1,14 @@
 package mancala;
 
+import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.FileNotFoundException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.nio.file.*;
+import java.util.function.Function;
 
 /**
  * A utility class for saving and loading objects to/from files.
@@ -50,15 +51,28 @@ public class Saver implements Serializable {
         }
 
         try {
-            final ObjectOutputStream output = new ObjectOutputStream(new FileOutputStream("assets/" + filename));
-            output.writeObject(toSave);
-            output.close();
-        } catch (FileNotFoundException e) {
+            SaveService.writeAtomically(getPath(filename), serialize(toSave));
+        } catch (NoSuchFileException e) {
             throw new IOException("Error saving to file.");
         }
 
     }
 
+    /**
+     * Serializes an object to bytes, for saving with a SaveService.
+     *
+     * @param toSave The object to serialize.
+     * @return The serialized bytes.
+     * @throws IOException If the object cannot be serialized.
+     */
+    public static byte[] serialize(final Serializable toSave) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(toSave);
+        }
+        return bytes.toByteArray();
+    }
+
     /**
      * Loads a serializable object from a file.
      *
@@ -84,4 +98,61 @@ public class Saver implements Serializable {
         return retVal;
     }
 
+    /**
+     * Saves the state of a game in the compact GameStateCodec format.
+     * Player profiles are not included; save them separately.
+     *
+     * @param game     The game to save.
+     * @param filename The name of the file to save the game to.
+     * @throws IOException If an I/O error occurs during the save process.
+     */
+    public static void saveGame(final MancalaGame game, final String filename) throws IOException {
+
+        if (filename.isBlank() || filename.isEmpty()) {
+            throw new IOException("Filename is null.");
+        }
+        SaveService.writeAtomically(getPath(filename), GameStateCodec.encode(game));
+    }
+
+    /**
+     * Loads a game saved by saveGame.
+     *
+     * @param filename The name of the file to load the game from.
+     * @param profiles Finds a player's profile by name, or returns null for a new profile.
+     * @return The loaded game.
+     * @throws IOException If the file cannot be read or is not a saved game.
+     */
+    public static MancalaGame loadGame(final String filename, final Function<String, UserProfile> profiles)
+            throws IOException {
+
+        if (filename.isBlank() || filename.isEmpty()) {
+            throw new IOException("Filename is null.");
+        }
+        try {
+            return GameStateCodec.decode(Files.readAllBytes(getPath(filename)), profiles);
+        } catch (NoSuchFileException e) {
+            throw new IOException("Error loading file.");
+        }
+    }
+
+    /**
+     * Get the path of a file in the assets folder.
+     *
+     * @param filename The name of the file.
+     * @return The path.
+     */
+    public static Path getPath(final String filename) {
+        return Paths.get(ASSETS_FOLDER, filename);
+    }
+
+    /**
+     * Checks whether a file has been saved.
+     *
+     * @param filename The name of the file.
+     * @return True if the file exists in the assets folder.
+     */
+    public static boolean fileExists(final String filename) {
+        return Files.exists(getPath(filename));
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,419 @@
+package mancala;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * A negamax alpha-beta search over a rule set, used by the computer player.
+ * Search runs by iterative deepening until a depth, node or time budget
+ * runs out, and always has the best move of the last finished depth.
+ * A move that earns a bonus turn keeps the same side to move, so its score
+ * is not negated. Each ply sows on its own preallocated scratch board.
+ * An optional TranspositionTable, which may be shared with other engines,
+ * orders moves and cuts off positions already searched to the same depth.
+ * Cutoffs need an exact depth match, so a search gives the same result
+ * with or without the table.
+ * With an EndgameDatabase for the same rules, positions it covers are
+ * scored exactly instead of searched, and with an OpeningBook for the same
+ * rules, book positions are not searched at all.
+ * An engine is not thread safe; use one per thread.
+ */
+public class SearchEngine {
+
+    /** Score bound larger than any real score. */
+    static final int INFINITY = 1_000_000;
+
+    private static final int MAX_PLY = 128;
+    private static final int CHECK_EVERY = 1024; // nodes between budget checks
+
+    private final MancalaDataStructure[][] boards = new MancalaDataStructure[MAX_PLY][6];
+    private final int[][] outcomes = new int[MAX_PLY][6];
+    private final int[][] order = new int[MAX_PLY][6];
+    private final int[][] keys = new int[MAX_PLY][6];
+    private GameRules rules;
+    private TranspositionTable table;
+    private EndgameDatabase database;
+    private OpeningBook book;
+    private boolean useDatabase;
+    private int maxDepth = 64;
+    private long nodeLimit = Long.MAX_VALUE;
+    private long timeLimitNanos = Long.MAX_VALUE;
+    private long deadline;
+    private long nodes;
+    private boolean aborted;
+    private int lastDepth;
+    private int lastScore;
+
+    /**
+     * Constructor to initialize a search engine.
+     */
+    public SearchEngine() {
+        for (int ply = 0; ply < MAX_PLY; ply++) {
+            for (int i = 0; i < 6; i++) {
+                boards[ply][i] = new MancalaDataStructure();
+            }
+        }
+    }
+
+    /**
+     * Set the deepest iteration to search.
+     *
+     * @param depth The maximum depth in moves.
+     */
+    public void setMaxDepth(final int depth) {
+        maxDepth = Math.max(1, Math.min(depth, MAX_PLY - 2));
+    }
+
+    /**
+     * Set how many nodes a search may visit.
+     *
+     * @param limit The node budget.
+     */
+    public void setNodeLimit(final long limit) {
+        nodeLimit = limit;
+    }
+
+    /**
+     * Set how long a search may run.
+     *
+     * @param millis The time budget in milliseconds.
+     */
+    public void setTimeLimit(final long millis) {
+        timeLimitNanos = millis * 1_000_000L;
+    }
+
+    /**
+     * Set a transposition table to use, possibly shared with other engines.
+     *
+     * @param theTable The table, or null to search without one.
+     */
+    public void setTranspositionTable(final TranspositionTable theTable) {
+        table = theTable;
+    }
+
+    /**
+     * Set an endgame database to score the positions it covers.
+     *
+     * @param theDatabase The database, or null to search every position.
+     */
+    public void setEndgameDatabase(final EndgameDatabase theDatabase) {
+        database = theDatabase;
+    }
+
+    /**
+     * Set an opening book to take moves from.
+     *
+     * @param theBook The book, or null to search every position.
+     */
+    public void setOpeningBook(final OpeningBook theBook) {
+        book = theBook;
+    }
+
+    /**
+     * Find the best move for a player.
+     *
+     * @param theRules  The rule set to search with.
+     * @param board     The position to search from (not changed).
+     * @param playerNum The player to move (1 or 2).
+     * @return The best pit to move, or -1 if the player has no move.
+     */
+    public int findBestMove(final GameRules theRules, final MancalaDataStructure board, final int playerNum) {
+
+        start(theRules, timeLimitNanos == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + timeLimitNanos);
+        lastDepth = 0;
+        lastScore = 0;
+        if (book != null && book.isFor(theRules)) {
+            final int pit = book.getMove(board, playerNum);
+            final int firstPit = pitFor(playerNum, 0);
+            if (pit >= firstPit && pit < firstPit + 6 && board.getNumStones(pit) > 0) { // guards against key collisions
+                lastDepth = book.getDepth(board, playerNum);
+                lastScore = book.getScore(board, playerNum);
+                return pit;
+            }
+        }
+
+        final int count = expand(board, 0, playerNum);
+        if (count == 0) {
+            return -1;
+        }
+        int bestIndex = order[0][0];
+        for (int depth = 1; depth <= maxDepth && !aborted; depth++) {
+            int alpha = -INFINITY;
+            int iterationBest = -1;
+            for (int k = 0; k < count; k++) {
+                final int i = order[0][k];
+                final int score = child(0, i, depth, alpha, INFINITY, playerNum);
+                if (aborted) {
+                    break;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    iterationBest = i;
+                }
+            }
+            if (aborted) {
+                break;
+            }
+            bestIndex = iterationBest;
+            lastDepth = depth;
+            lastScore = alpha;
+            moveToFront(order[0], count, bestIndex);
+        }
+        return pitFor(playerNum, bestIndex);
+    }
+
+    /**
+     * Search one position with a window, for the parallel search.
+     *
+     * @param theRules    The rule set to search with.
+     * @param board       The position to search (not changed).
+     * @param playerNum   The player to move.
+     * @param depth       The depth to search.
+     * @param alpha       The lower window bound.
+     * @param beta        The upper window bound.
+     * @param theDeadline The System.nanoTime() to stop at.
+     * @return The score for the player to move; meaningless if aborted.
+     */
+    int searchPosition(final GameRules theRules, final MancalaDataStructure board, final int playerNum,
+                       final int depth, final int alpha, final int beta, final long theDeadline) {
+        start(theRules, theDeadline);
+        return search(board, 0, depth, alpha, beta, playerNum);
+    }
+
+    /**
+     * Checks if the last search ran out of budget.
+     *
+     * @return True if the search was aborted, false otherwise.
+     */
+    boolean isAborted() {
+        return aborted;
+    }
+
+    /*resets the per-search state*/
+    private void start(final GameRules theRules, final long theDeadline) {
+        rules = theRules;
+        useDatabase = database != null && database.isFor(theRules);
+        nodes = 0;
+        aborted = false;
+        deadline = theDeadline;
+    }
+
+    /**
+     * Get the depth of the last finished iteration.
+     *
+     * @return The depth reached by the last search.
+     */
+    public int getLastDepth() {
+        return lastDepth;
+    }
+
+    /**
+     * Get the score of the last search, in stones, for the player who moved.
+     *
+     * @return The score of the best move.
+     */
+    public int getLastScore() {
+        return lastScore;
+    }
+
+    /**
+     * Get the number of nodes the last search visited.
+     *
+     * @return The node count.
+     */
+    public long getNodeCount() {
+        return nodes;
+    }
+
+    /*negamax alpha-beta; board is the position reached at this ply*/
+    private int search(final MancalaDataStructure board, final int ply, final int depth,
+                       int alpha, final int beta, final int playerNum) {
+
+        if (++nodes % CHECK_EVERY == 0 && (nodes >= nodeLimit || System.nanoTime() >= deadline)) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0;
+        }
+        if (isOver(board)) {
+            return finalScore(board, playerNum);
+        }
+        if (useDatabase && database.covers(board)) {
+            return evaluate(board, playerNum) + database.getValue(board, playerNum);
+        }
+        if (depth <= 0 || ply >= MAX_PLY - 1) {
+            return evaluate(board, playerNum);
+        }
+
+        final int alphaIn = alpha;
+        long key = 0;
+        int tableMove = TranspositionTable.NO_MOVE;
+        if (table != null) {
+            key = board.getHashKey(playerNum);
+            final long entry = table.probe(key);
+            if (entry != 0) {
+                tableMove = TranspositionTable.move(entry);
+                if (TranspositionTable.depth(entry) == depth) {
+                    final int score = TranspositionTable.score(entry);
+                    final int bound = TranspositionTable.bound(entry);
+                    if (bound == TranspositionTable.EXACT
+                            || bound == TranspositionTable.LOWER && score >= beta
+                            || bound == TranspositionTable.UPPER && score <= alpha) {
+                        return score;
+                    }
+                }
+            }
+        }
+
+        final int count = expand(board, ply, playerNum);
+        if (tableMove != TranspositionTable.NO_MOVE) {
+            moveToFront(order[ply], count, tableMove);
+        }
+        int best = -INFINITY;
+        int bestIndex = TranspositionTable.NO_MOVE;
+        for (int k = 0; k < count; k++) {
+            final int i = order[ply][k];
+            final int score = child(ply, i, depth, alpha, beta, playerNum);
+            if (score > best) {
+                best = score;
+                bestIndex = i;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (table != null && !aborted) {
+            int bound = TranspositionTable.EXACT;
+            if (best <= alphaIn) {
+                bound = TranspositionTable.UPPER;
+            } else if (best >= beta) {
+                bound = TranspositionTable.LOWER;
+            }
+            table.store(key, depth, best, bound, bestIndex);
+        }
+        return best;
+    }
+
+    /*search one child made by expand, keeping the side to move on a bonus turn*/
+    private int child(final int ply, final int i, final int depth, final int alpha, final int beta, final int playerNum) {
+        final MancalaDataStructure next = boards[ply][i];
+        if (MoveOutcome.isFreeTurn(outcomes[ply][i])) {
+            return search(next, ply + 1, depth - 1, alpha, beta, playerNum);
+        }
+        return -search(next, ply + 1, depth - 1, -beta, -alpha, opponent(playerNum));
+    }
+
+    /*make every legal move into this ply's scratch boards and order them*/
+    private int expand(final MancalaDataStructure board, final int ply, final int playerNum) {
+        return orderMoves(rules, board, playerNum, boards[ply], outcomes[ply], order[ply], keys[ply]);
+    }
+
+    /**
+     * Make every legal move into scratch boards and order them, best guesses
+     * first: bonus turns, then by stones gained and captured, with ties
+     * going to the pit nearest the store.
+     *
+     * @param theRules  The rule set to move with.
+     * @param board     The position to move from (not changed).
+     * @param playerNum The player to move.
+     * @param children  Six scratch boards, indexed by pit on the player's side.
+     * @param outcomes  Filled with each move's packed MoveOutcome.
+     * @param moves     Filled with the ordered pit indexes.
+     * @param keys      Scratch space for the ordering keys.
+     * @return The number of legal moves.
+     */
+    static int orderMoves(final GameRules theRules, final MancalaDataStructure board, final int playerNum,
+                          final MancalaDataStructure[] children, final int[] outcomes, final int[] moves,
+                          final int[] keys) {
+        final int firstPit = playerNum == 1 ? 1 : 7;
+        int count = 0;
+        for (int i = 5; i >= 0; i--) { // pits nearest the store first
+            if (board.getNumStones(firstPit + i) > 0) {
+                final MancalaDataStructure next = children[i];
+                next.copyFrom(board);
+                final int outcome = theRules.sowStones(next, firstPit + i, playerNum);
+                outcomes[i] = outcome;
+                keys[i] = moveKey(next, outcome, playerNum);
+                int k = count; // insertion sort, stable so ties keep pit order
+                while (k > 0 && keys[moves[k - 1]] < keys[i]) {
+                    moves[k] = moves[k - 1];
+                    k--;
+                }
+                moves[k] = i;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /*bonus turns first, then by stones gained and captured*/
+    private static int moveKey(final MancalaDataStructure next, final int outcome, final int playerNum) {
+        int key = next.getStoreCount(playerNum) * 4 + MoveOutcome.captured(outcome);
+        if (MoveOutcome.isFreeTurn(outcome)) {
+            key += 1 << 16;
+        }
+        return key;
+    }
+
+    /**
+     * Move an index to the front of an order, if it is there.
+     *
+     * @param moves The ordered indexes.
+     * @param count The number of indexes in use.
+     * @param index The index to move.
+     */
+    static void moveToFront(final int[] moves, final int count, final int index) {
+        int k = 0;
+        while (k < count && moves[k] != index) {
+            k++;
+        }
+        if (k == count) {
+            return;
+        }
+        for (; k > 0; k--) {
+            moves[k] = moves[k - 1];
+        }
+        moves[0] = index;
+    }
+
+    static boolean isOver(final MancalaDataStructure board) {
+        return board.getSideTotal(1) == 0 || board.getSideTotal(2) == 0;
+    }
+
+    /*score once the game is over: stones left on a side go to that side's store*/
+    private static int finalScore(final MancalaDataStructure board, final int playerNum) {
+        final int opp = opponent(playerNum);
+        return board.getStoreCount(playerNum) + board.getSideTotal(playerNum)
+                - board.getStoreCount(opp) - board.getSideTotal(opp);
+    }
+
+    /*static score: the store difference*/
+    private static int evaluate(final MancalaDataStructure board, final int playerNum) {
+        return board.getStoreCount(playerNum) - board.getStoreCount(opponent(playerNum));
+    }
+
+    static int opponent(final int playerNum) {
+        return playerNum == 1 ? 2 : 1;
+    }
+
+    static int pitFor(final int playerNum, final int index) {
+        return (playerNum == 1 ? 1 : 7) + index;
+    }
+
+    /*a random pit from a legal move mask, for the player the mask belongs to*/
+    static int randomLegalPit(final int legalMask, final int playerNum, final RandomGenerator random) {
+        return pitFor(playerNum, randomMove(legalMask, random));
+    }
+
+    /*the index of a random set bit of a non-empty move mask*/
+    static int randomMove(final int legalMask, final RandomGenerator random) {
+        int legal = legalMask;
+        for (int k = random.nextInt(Integer.bitCount(legal)); k > 0; k--) {
+            legal &= legal - 1; // drop the lowest move
+        }
+        return Integer.numberOfTrailingZeros(legal);
+    }
+}
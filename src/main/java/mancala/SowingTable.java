@@ -0,0 +1,103 @@
+package mancala;
+
+import java.util.Arrays;
+
+/**
+ * Precomputed sowing orders for the board.
+ * For every player, skipped pit and starting position the table holds the
+ * array positions stones are dropped into, in order, for one full lap.
+ * Sowing n stones then drops n / lap stones in every cell of the lap, one
+ * more in the first n % lap cells, and lands on cell (n - 1) % lap, so the
+ * cost of a move no longer depends on how many stones are sown.
+ */
+final class SowingTable {
+
+    /** Skip position meaning no pit is skipped (kalah). */
+    static final int NO_SKIP = -1;
+
+    private static final int CELLS = 14;
+    private static final int STORE_ONE = 6;
+    private static final int STORE_TWO = 13;
+    private static final int[][][][] ORDERS = buildOrders();
+
+    private SowingTable() {
+    }
+
+    /*orders[player][skip + 1][from] for every player, skipped position and starting position*/
+    private static int[][][][] buildOrders() {
+        final int[][][][] orders = new int[2][CELLS + 1][CELLS][];
+        for (int player = 0; player < 2; player++) {
+            final int oppStore = player == 0 ? STORE_TWO : STORE_ONE;
+            for (int skip = NO_SKIP; skip < CELLS; skip++) {
+                for (int from = 0; from < CELLS; from++) {
+                    final int[] lap = new int[CELLS];
+                    int len = 0;
+                    for (int step = 1; step <= CELLS; step++) {
+                        final int pos = (from + step) % CELLS;
+                        if (pos != oppStore && pos != skip) {
+                            lap[len++] = pos;
+                        }
+                    }
+                    orders[player][skip + 1][from] = Arrays.copyOf(lap, len);
+                }
+            }
+        }
+        return orders;
+    }
+
+    /**
+     * Get the positions one lap of sowing visits.
+     *
+     * @param playerNum The player sowing (1 or 2).
+     * @param skipPos   The array position never sown into, or NO_SKIP.
+     * @param fromPos   The array position sowing starts after.
+     * @return The array positions of one lap, in sowing order. Do not modify.
+     */
+    static int[] order(final int playerNum, final int skipPos, final int fromPos) {
+        return ORDERS[playerNum - 1][skipPos + 1][fromPos];
+    }
+
+    /**
+     * Sow stones along a lap, whole laps at a time.
+     *
+     * @param board     The board to sow on.
+     * @param lap       The lap from order().
+     * @param numStones The number of stones to sow (at least one).
+     * @return The array position the last stone landed in.
+     */
+    static int sow(final MancalaDataStructure board, final int[] lap, final int numStones) {
+        final int laps = numStones / lap.length;
+        final int rest = numStones % lap.length;
+        final int touched = laps > 0 ? lap.length : rest;
+        for (int i = 0; i < touched; i++) {
+            board.addToCell(lap[i], i < rest ? laps + 1 : laps);
+        }
+        return lap[(numStones - 1) % lap.length];
+    }
+
+    /**
+     * Convert a pit number to its array position.
+     *
+     * @param pitNum The pit number (1 to 12).
+     * @return The array position.
+     */
+    static int toPosition(final int pitNum) {
+        return pitNum <= 6 ? pitNum - 1 : pitNum;
+    }
+
+    /**
+     * Convert an array position to its pit number.
+     *
+     * @param pos The array position.
+     * @return The pit number, or -1 for a store.
+     */
+    static int toPitNum(final int pos) {
+        int pitNum = -1;
+        if (pos < STORE_ONE) {
+            pitNum = pos + 1;
+        } else if (pos > STORE_ONE && pos < STORE_TWO) {
+            pitNum = pos;
+        }
+        return pitNum;
+    }
+}
@@ -4,12 +4,16 @@ import java.io.Serializable;
 
 /**
  * Represents a store in the Mancala game.
+ * While a store is attached to a board its stones live in the board's
+ * store cell, so counts read and written here go straight to the board.
  */
 public class Store implements Countable, Serializable {
 
     private static final long serialVersionUID = 1L;
     private Player storeOwner;
     private int totalStones;
+    private MancalaDataStructure board;
+    private int playerNum;
 
     /**
      * Default constructor to initialize a new store.
@@ -28,6 +32,27 @@ public class Store implements Countable, Serializable {
         this.storeOwner = player;
     }
 
+    /**
+     * Attaches the store to a board cell.
+     *
+     * @param theBoard The board holding the store's stones.
+     * @param player   The player number (1 or 2) of the store cell.
+     */
+    void attach(final MancalaDataStructure theBoard, final int player) {
+        this.board = theBoard;
+        this.playerNum = player;
+    }
+
+    /**
+     * Detaches the store from its board, keeping the last count.
+     *
+     * @param lastCount The number of stones in the store cell when detached.
+     */
+    void detach(final int lastCount) {
+        this.board = null;
+        this.totalStones = lastCount;
+    }
+
     /**
      * Gets the owner of the store.
      *
@@ -44,6 +69,9 @@ public class Store implements Countable, Serializable {
      */
     @Override
     public int getStoneCount() {
+        if (this.board != null) {
+            return this.board.getStoreCount(this.playerNum);
+        }
         return this.totalStones;
     }
 
@@ -54,6 +82,10 @@ public class Store implements Countable, Serializable {
      */
     @Override
     public void addStones(final int numToAdd) {
+        if (this.board != null) {
+            this.board.addToStore(this.playerNum, numToAdd);
+            return;
+        }
         this.totalStones += numToAdd;
     }
 
@@ -62,7 +94,7 @@ public class Store implements Countable, Serializable {
      */
     @Override
     public void addStone() {
-        this.totalStones++;
+        this.addStones(1);
     }
 
     /**
@@ -72,6 +104,11 @@ public class Store implements Countable, Serializable {
      */
     @Override
     public int removeStones() {
+        if (this.board != null) {
+            final int removedStones = this.board.getStoreCount(this.playerNum);
+            this.board.addToStore(this.playerNum, -removedStones);
+            return removedStones;
+        }
         final int removedStones = this.totalStones;
         this.totalStones = 0;
         return removedStones;
@@ -84,6 +121,6 @@ public class Store implements Countable, Serializable {
      */
     @Override
     public String toString() {
-        return this.storeOwner + "'s Store[" + this.totalStones + "]";
+        return this.storeOwner + "'s Store[" + this.getStoneCount() + "]";
     }
 }
\ No newline at end of file
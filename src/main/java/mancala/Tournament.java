@@ -0,0 +1,422 @@
+package mancala;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Plays matches between move choosers without the GUI, to compare bots.
+ * Entrants meet in a round robin, or in a gauntlet where the first entrant
+ * plays each of the others. Games come in pairs from the same random
+ * opening with the sides swapped, and each game is a MancalaGame on its own
+ * thread: a virtual thread where the Java runtime has them, otherwise a
+ * pool thread per core. Each result is written to a CSV file as soon as
+ * the game ends, and each game's moves can be kept as game records.
+ * With SPRT set, a pairing stops as soon as the test accepts either
+ * hypothesis.
+ */
+public class Tournament {
+
+    /** Every entrant plays every other entrant. */
+    public static final int ROUND_ROBIN = 0;
+    /** The first entrant plays each of the others. */
+    public static final int GAUNTLET = 1;
+
+    private static final int MAX_MOVES = 2000; // games still going after this many moves are scored as they stand
+    private static final String CSV_HEADER = "game,first,second,player_one,player_two,stones_one,stones_two,points_first,moves";
+
+    private final int ruleSet;
+    private final List<String> names = new ArrayList<>();
+    private final List<Supplier<MoveChooser>> factories = new ArrayList<>();
+    private final List<MatchScore> scores = new ArrayList<>();
+    private final AtomicLong gamesPlayed = new AtomicLong();
+    private int mode = ROUND_ROBIN;
+    private int gamePairs = 100;
+    private int openingPlies = 4;
+    private long seed = 1;
+    private Path resultsFile;
+    private Path recordsFile;
+    private boolean sprt;
+    private double elo0;
+    private double elo1;
+    private double lowerBound;
+    private double upperBound;
+    private AtomicIntegerArray decisions = new AtomicIntegerArray(0); // per pairing: 0 running, -1 H0 accepted, 1 H1 accepted
+    private long elapsedNanos;
+    private boolean virtualThreads;
+    private BufferedWriter results;
+    private GameRecordWriter records;
+
+    /**
+     * Constructor to initialize a tournament.
+     *
+     * @param gameRuleSet The game rule set to play (1 for Kalah, 2 for Ayo).
+     */
+    public Tournament(final int gameRuleSet) {
+        this.ruleSet = gameRuleSet;
+    }
+
+    /**
+     * Add an entrant. Each game gets its own choosers from the factory, so
+     * choosers need not be thread safe.
+     *
+     * @param name    The entrant's name.
+     * @param factory Makes a move chooser for one game.
+     */
+    public void addEntrant(final String name, final Supplier<MoveChooser> factory) {
+        this.names.add(name);
+        this.factories.add(factory);
+    }
+
+    /**
+     * Set who plays whom.
+     *
+     * @param theMode ROUND_ROBIN or GAUNTLET.
+     */
+    public void setMode(final int theMode) {
+        this.mode = theMode;
+    }
+
+    /**
+     * Set how many pairs of games each pairing plays at most.
+     *
+     * @param pairs The number of game pairs.
+     */
+    public void setGamePairs(final int pairs) {
+        this.gamePairs = pairs;
+    }
+
+    /**
+     * Set how many random moves open each game pair.
+     *
+     * @param plies The number of opening moves.
+     */
+    public void setOpeningPlies(final int plies) {
+        this.openingPlies = plies;
+    }
+
+    /**
+     * Set the seed for the random openings.
+     *
+     * @param theSeed The seed.
+     */
+    public void setSeed(final long theSeed) {
+        this.seed = theSeed;
+    }
+
+    /**
+     * Set a CSV file to write each game's result to as it finishes.
+     *
+     * @param file The file, or null for no file.
+     */
+    public void setResultsFile(final Path file) {
+        this.resultsFile = file;
+    }
+
+    /**
+     * Set a file to write every game's moves to, as game records.
+     *
+     * @param file The file, or null for no file.
+     */
+    public void setRecordsFile(final Path file) {
+        this.recordsFile = file;
+    }
+
+    /**
+     * Stop each pairing early by a sequential probability ratio test of the
+     * first entrant's Elo advantage being elo1 rather than elo0.
+     *
+     * @param nullElo  The Elo difference under H0.
+     * @param altElo   The Elo difference under H1.
+     * @param alpha    The chance of accepting H1 when H0 is true.
+     * @param beta     The chance of accepting H0 when H1 is true.
+     */
+    public void setSprt(final double nullElo, final double altElo, final double alpha, final double beta) {
+        this.sprt = true;
+        this.elo0 = nullElo;
+        this.elo1 = altElo;
+        this.lowerBound = Math.log(beta / (1 - alpha));
+        this.upperBound = Math.log((1 - beta) / alpha);
+    }
+
+    /**
+     * Play the tournament.
+     *
+     * @return The score of each pairing, counted for the first entrant named.
+     * @throws IOException          If the results file cannot be written.
+     * @throws InterruptedException If the tournament is interrupted.
+     */
+    public List<MatchScore> run() throws IOException, InterruptedException {
+        final List<int[]> pairings = new ArrayList<>();
+        for (int i = 0; i < this.names.size(); i++) {
+            for (int j = i + 1; j < this.names.size(); j++) {
+                if (this.mode == ROUND_ROBIN || i == 0) {
+                    pairings.add(new int[] {i, j});
+                }
+            }
+        }
+        this.scores.clear();
+        for (final int[] pairing : pairings) {
+            this.scores.add(new MatchScore(this.names.get(pairing[0]), this.names.get(pairing[1])));
+        }
+        this.decisions = new AtomicIntegerArray(pairings.size());
+        this.gamesPlayed.set(0);
+
+        final int cores = Runtime.getRuntime().availableProcessors();
+        final Semaphore inFlight = new Semaphore(4 * cores); // don't queue games a stopped pairing won't need
+        final long start = System.nanoTime();
+        this.results = this.resultsFile == null ? null : Files.newBufferedWriter(this.resultsFile, StandardCharsets.UTF_8);
+        this.records = this.recordsFile == null ? null
+                : new GameRecordWriter(Files.newBufferedWriter(this.recordsFile, StandardCharsets.UTF_8));
+        final ExecutorService executor = newGameExecutor(cores);
+        try {
+            writeLine(CSV_HEADER);
+            for (int pair = 0; pair < this.gamePairs; pair++) {
+                final long opening = this.seed * 1_000_003L + pair;
+                for (int p = 0; p < pairings.size(); p++) {
+                    for (int side = 0; side < 2; side++) {
+                        if (this.decisions.get(p) != 0) {
+                            break;
+                        }
+                        inFlight.acquire();
+                        final int pairingIndex = p;
+                        final int game = 2 * pair + side;
+                        executor.execute(() -> {
+                            try {
+                                playAndRecord(pairings.get(pairingIndex), pairingIndex, game, opening);
+                            } finally {
+                                inFlight.release();
+                            }
+                        });
+                    }
+                }
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            this.elapsedNanos = System.nanoTime() - start;
+            if (this.results != null) {
+                this.results.close();
+            }
+            if (this.records != null) {
+                this.records.close();
+            }
+        }
+        return new ArrayList<>(this.scores);
+    }
+
+    /*a virtual thread per game where the runtime has them (Java 21 on), else a thread per core*/
+    private ExecutorService newGameExecutor(final int cores) {
+        try {
+            this.virtualThreads = true;
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            this.virtualThreads = false;
+            return Executors.newFixedThreadPool(cores);
+        }
+    }
+
+    /*play one game of a pairing, the first entrant moving first in even games*/
+    private void playAndRecord(final int[] pairing, final int pairingIndex, final int game, final long opening) {
+        final boolean swapped = game % 2 == 1;
+        final int one = swapped ? pairing[1] : pairing[0];
+        final int two = swapped ? pairing[0] : pairing[1];
+        final int[] pits = new int[MAX_MOVES];
+        final int[] outcome = playGame(one, two, opening, pits);
+        final double pointsOne = outcome[0] > outcome[1] ? 1 : outcome[0] == outcome[1] ? 0.5 : 0;
+        final double pointsFirst = swapped ? 1 - pointsOne : pointsOne;
+
+        final MatchScore score = this.scores.get(pairingIndex);
+        score.add(pointsFirst);
+        this.gamesPlayed.incrementAndGet();
+        if (this.sprt && this.decisions.get(pairingIndex) == 0) {
+            final double llr = score.getLlr(this.elo0, this.elo1);
+            if (llr >= this.upperBound) {
+                this.decisions.compareAndSet(pairingIndex, 0, 1);
+            } else if (llr <= this.lowerBound) {
+                this.decisions.compareAndSet(pairingIndex, 0, -1);
+            }
+        }
+        writeLine(game + "," + this.names.get(pairing[0]) + "," + this.names.get(pairing[1]) + ","
+                + this.names.get(one) + "," + this.names.get(two) + "," + outcome[0] + "," + outcome[1] + ","
+                + pointsFirst + "," + outcome[2]);
+        if (this.records != null) {
+            final int result = outcome[3] == 0 ? GameRecord.UNFINISHED : outcome[0] == outcome[1] ? GameRecord.DRAW
+                    : outcome[0] > outcome[1] ? GameRecord.ONE_WINS : GameRecord.TWO_WINS;
+            writeRecord(new GameRecord(this.ruleSet, 4, this.names.get(one), this.names.get(two),
+                    Arrays.copyOf(pits, outcome[2]), result, outcome[3] == 2));
+        }
+    }
+
+    /*returns the final stones of each player, the number of moves and 0 if the game was cut off at MAX_MOVES,
+      2 if it was lost by an illegal move, else 1; fills in the pits moved*/
+    private int[] playGame(final int one, final int two, final long opening, final int[] pits) {
+        final MancalaGame game = new MancalaGame(this.ruleSet);
+        final Player playerOne = new Player(new UserProfile(this.names.get(one) + " (1)"));
+        final Player playerTwo = new Player(new UserProfile(this.names.get(two) + " (2)"));
+        game.setPlayers(playerOne, playerTwo);
+        game.setCurrentPlayer(playerOne);
+        final MoveChooser[] choosers = {this.factories.get(one).get(), this.factories.get(two).get()};
+        final MancalaDataStructure board = game.getDataStructure();
+
+        final Random random = new Random(opening);
+        int moves = 0;
+        while (!game.isGameOver() && moves < MAX_MOVES) {
+            final int playerNum = game.getCurrentPlayer() == playerOne ? 1 : 2;
+            int pit;
+            if (moves < this.openingPlies) {
+                pit = SearchEngine.randomLegalPit(game.legalMoves(), playerNum, random);
+            } else {
+                pit = choosers[playerNum - 1].chooseMove(game.getBoard(), board, playerNum);
+            }
+            if (pit < 1 || pit > 12 || game.tryMove(pit) != GameRules.MOVE_OK) {
+                // an illegal move loses: the other side is given every stone
+                final int total = board.getSideTotal(1) + board.getSideTotal(2)
+                        + board.getStoreCount(1) + board.getStoreCount(2);
+                return playerNum == 1 ? new int[] {0, total, moves, 2} : new int[] {total, 0, moves, 2};
+            }
+            pits[moves++] = pit;
+        }
+        final int over = game.isGameOver() ? 1 : 0;
+        game.finishGame();
+        return new int[] {board.getStoreCount(1) + board.getSideTotal(1),
+                board.getStoreCount(2) + board.getSideTotal(2), moves, over};
+    }
+
+    /*append one CSV line, if there is a results file*/
+    private void writeLine(final String line) {
+        if (this.results == null) {
+            return;
+        }
+        synchronized (this) {
+            try {
+                this.results.write(line);
+                this.results.newLine();
+            } catch (IOException e) {
+                throw new RuntimeException("Cannot write tournament results", e);
+            }
+        }
+    }
+
+    /*append one game record, if there is a records file*/
+    private void writeRecord(final GameRecord record) {
+        synchronized (this) {
+            try {
+                this.records.write(record);
+            } catch (IOException e) {
+                throw new RuntimeException("Cannot write tournament games", e);
+            }
+        }
+    }
+
+    /**
+     * Get the number of games finished by the last run.
+     *
+     * @return The game count.
+     */
+    public long getGamesPlayed() {
+        return this.gamesPlayed.get();
+    }
+
+    /**
+     * Get the throughput of the last run.
+     *
+     * @return Games per second.
+     */
+    public double getGamesPerSecond() {
+        return this.elapsedNanos == 0 ? 0 : this.gamesPlayed.get() * 1e9 / this.elapsedNanos;
+    }
+
+    /**
+     * Get the SPRT decision for a pairing of the last run.
+     *
+     * @param pairingIndex The pairing, in the order run() returns them.
+     * @return 1 if H1 was accepted, -1 if H0 was, 0 if the test did not finish.
+     */
+    public int getSprtDecision(final int pairingIndex) {
+        return this.decisions.get(pairingIndex);
+    }
+
+    /**
+     * Get a report of the last run: each pairing's record, Elo difference
+     * with a 95% error bar and SPRT decision, then the throughput.
+     *
+     * @return The report text.
+     */
+    public String getReport() {
+        final StringBuilder report = new StringBuilder();
+        for (int p = 0; p < this.scores.size(); p++) {
+            report.append(this.scores.get(p));
+            if (this.sprt) {
+                final String decision = this.decisions.get(p) > 0 ? "H1 accepted"
+                        : this.decisions.get(p) < 0 ? "H0 accepted" : "inconclusive";
+                report.append(String.format(", SPRT [%.0f, %.0f] %s (LLR %.2f)", this.elo0, this.elo1, decision,
+                        this.scores.get(p).getLlr(this.elo0, this.elo1)));
+            }
+            report.append('\n');
+        }
+        report.append(String.format("%d games in %.1f s, %.1f games/s on %s%n", this.gamesPlayed.get(),
+                this.elapsedNanos / 1e9, getGamesPerSecond(), this.virtualThreads ? "virtual threads" : "a thread pool"));
+        return report.toString();
+    }
+
+    /**
+     * Run a sample Kalah round robin between alpha-beta searches of two
+     * depths and a random mover.
+     *
+     * @param args Optional game pairs per pairing (default 200), CSV file and game record file.
+     * @throws IOException          If the results file cannot be written.
+     * @throws InterruptedException If the tournament is interrupted.
+     */
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        final Tournament tournament = new Tournament(1);
+        tournament.setGamePairs(args.length > 0 ? Integer.parseInt(args[0]) : 200);
+        if (args.length > 1) {
+            tournament.setResultsFile(Path.of(args[1]));
+        }
+        if (args.length > 2) {
+            tournament.setRecordsFile(Path.of(args[2]));
+        }
+        tournament.addEntrant("alphabeta-6", () -> depthLimited(6));
+        tournament.addEntrant("alphabeta-3", () -> depthLimited(3));
+        tournament.addEntrant("random", () -> (rules, board, playerNum) -> {
+            final int legal = legalMoves(board, playerNum);
+            return legal == 0 ? -1 : SearchEngine.randomLegalPit(legal, playerNum, ThreadLocalRandom.current());
+        });
+        tournament.setSprt(0, 50, 0.05, 0.05);
+        tournament.run();
+        System.out.print(tournament.getReport());
+    }
+
+    /*a search engine that stops at a fixed depth*/
+    private static MoveChooser depthLimited(final int depth) {
+        final SearchEngine engine = new SearchEngine();
+        engine.setMaxDepth(depth);
+        return engine::findBestMove;
+    }
+
+    /*bit mask of a player's non-empty pits*/
+    private static int legalMoves(final MancalaDataStructure board, final int playerNum) {
+        int mask = 0;
+        for (int i = 0; i < 6; i++) {
+            if (board.getNumStones(SearchEngine.pitFor(playerNum, i)) > 0) {
+                mask |= 1 << i;
+            }
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,138 @@
+package mancala;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size transposition table shared by search threads without locks.
+ * Each entry packs a score, the depth it was searched to, the kind of
+ * bound the score is and the best move index into one long, and is kept in
+ * a primitive array next to its hash key XORed with that long. A reader
+ * only accepts an entry when the two agree, so an entry half written by
+ * another thread looks like a miss rather than a wrong answer.
+ * Entries go in buckets of two: the first keeps the deeper search, the
+ * second always takes the newest.
+ */
+public class TranspositionTable {
+
+    /** Bound kind: the score is exact. */
+    static final int EXACT = 0;
+    /** Bound kind: the real score is at least this score. */
+    static final int LOWER = 1;
+    /** Bound kind: the real score is at most this score. */
+    static final int UPPER = 2;
+    /** Move index stored when there is no best move. */
+    static final int NO_MOVE = 7;
+
+    private static final long PRESENT = 1L << 45;
+    private final long[] slots; // per entry: key ^ data, then data
+    private final int bucketMask;
+
+    /**
+     * Constructor to initialize a transposition table.
+     *
+     * @param capacity The number of entries, rounded up to a power of two.
+     */
+    public TranspositionTable(final int capacity) {
+        if (capacity < 1 || capacity > 1 << 29) {
+            throw new RuntimeException("Table capacity out of range");
+        }
+        final int entries = Math.max(2, Integer.highestOneBit(capacity - 1) << 1);
+        this.slots = new long[entries * 2];
+        this.bucketMask = entries / 2 - 1;
+    }
+
+    /**
+     * Look up a position.
+     *
+     * @param key The position's hash key.
+     * @return The packed entry, or 0 if the position is not stored.
+     */
+    long probe(final long key) {
+        final int base = bucket(key);
+        for (int i = base; i < base + 4; i += 2) {
+            final long data = this.slots[i + 1];
+            if (data != 0 && (this.slots[i] ^ data) == key) {
+                return data;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Store a search result. A result for the same position replaces the
+     * old one; otherwise the deeper of the two goes in the first slot.
+     *
+     * @param key   The position's hash key.
+     * @param depth The depth searched.
+     * @param score The score found.
+     * @param bound EXACT, LOWER or UPPER.
+     * @param move  The best move index, or NO_MOVE.
+     */
+    void store(final long key, final int depth, final int score, final int bound, final int move) {
+        final long data = pack(depth, score, bound, move);
+        final int base = bucket(key);
+        final long deepData = this.slots[base + 1];
+        int i = base + 2;
+        if (deepData == 0 || (this.slots[base] ^ deepData) == key || depth >= depth(deepData)) {
+            i = base;
+        }
+        this.slots[i] = key ^ data;
+        this.slots[i + 1] = data;
+    }
+
+    /*first of the bucket's two entries for a key*/
+    private int bucket(final long key) {
+        return ((int) (key ^ key >>> 32) & this.bucketMask) * 4;
+    }
+
+    /**
+     * Remove every entry.
+     */
+    public void clear() {
+        Arrays.fill(this.slots, 0);
+    }
+
+    /**
+     * Get the number of entries the table holds when full.
+     *
+     * @return The entry capacity.
+     */
+    public int getCapacity() {
+        return this.slots.length / 2;
+    }
+
+    /**
+     * Count the stored entries. This scans the whole table.
+     *
+     * @return The entry count.
+     */
+    public int size() {
+        int count = 0;
+        for (int i = 1; i < this.slots.length; i += 2) {
+            if (this.slots[i] != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    static long pack(final int depth, final int score, final int bound, final int move) {
+        return PRESENT | (long) move << 42 | (long) bound << 40 | (long) (depth & 0xFF) << 32 | score & 0xFFFFFFFFL;
+    }
+
+    static int score(final long entry) {
+        return (int) entry;
+    }
+
+    static int depth(final long entry) {
+        return (int) (entry >>> 32) & 0xFF;
+    }
+
+    static int bound(final long entry) {
+        return (int) (entry >>> 40) & 0x3;
+    }
+
+    static int move(final long entry) {
+        return (int) (entry >>> 42) & 0x7;
+    }
+}
@@ -9,10 +9,21 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 public class GUI extends JFrame {
 
     private static final long serialVersionUID = 1L;
+    private static final String SAVE_FILE = "savedGame.bin";
+    private static final String LEGACY_SAVE_FILE = "savedGame.ser";
+    private static final String JOURNAL_FILE = "game.journal";
+    private static final String PROFILE_FILE = "profiles.db";
+    private transient SaveService saveService;
+    private static final long PROFILE_CACHE_BYTES = 64 * 1024;
+    private transient ProfileStore profileStore;
+    private transient ProfileCache profileCache;
+    private transient SaveCatalogue saveCatalogue;
+    private int saveSlot; // the slot this game was loaded from or saved to, 0 for none yet
     private MancalaGame newGame;
     private int ruleSet;
     private JPanel pitsPanel;
@@ -33,6 +44,7 @@ public class GUI extends JFrame {
     private JPanel playersPanel;
     private JTextField player1NameField;
     private JTextField player2NameField;
+    private JCheckBox computerCheckBox;
     private Player player1;
     private Player player2;
     private UserProfile user1;
@@ -51,6 +63,22 @@ public class GUI extends JFrame {
         });
 
         gameLoaded = false;
+        try {
+            saveService = new SaveService(Saver.getPath(""));
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Error finishing the last save: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        }
+        try {
+            saveCatalogue = SaveCatalogue.open(Saver.getPath(""));
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Error opening the saved games: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        }
+        try {
+            profileStore = ProfileStore.open(Saver.getPath(PROFILE_FILE));
+            profileCache = new ProfileCache(profileStore, PROFILE_CACHE_BYTES, ProfileCache.WRITE_THROUGH);
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Error opening user profiles: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        }
 
         //Creating the MenuBar and adding components
         menuBar = new JMenuBar();
@@ -104,6 +132,9 @@ public class GUI extends JFrame {
         playersPanel.add(new JButton("Load Saved Game"));
         playersPanel.add(new JButton("View User Profile"));
 
+        computerCheckBox = new JCheckBox("Player Two is the computer");
+        playersPanel.add(computerCheckBox);
+
         getContentPane().add(playersPanel, BorderLayout.CENTER);
 
     }
@@ -112,6 +143,7 @@ public class GUI extends JFrame {
         if (gameLoaded) {
             int input = JOptionPane.showConfirmDialog(this,"Are you sure you want to exit without saving?", "Game in progress!", JOptionPane.YES_NO_OPTION);
             if (input == 0) {
+                discardJournal();
                 System.exit(0);
             } else {
                 setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
@@ -141,37 +173,51 @@ public class GUI extends JFrame {
             String player1Name = player1NameField.getText().trim();
             String player2Name = player2NameField.getText().trim();
 
+            discardJournal(); // the game being replaced no longer needs recovering
+            stopComputer();
             newGame = new MancalaGame(ruleSet); // Initialize the MancalaGame
+            saveSlot = 0;
             player1 = createPlayer(player1Name, 1);
-            player2 = createPlayer(player2Name, 2);
+            if (computerCheckBox.isSelected()) {
+                player2 = new ComputerPlayer(player2Name);
+            } else {
+                player2 = createPlayer(player2Name, 2);
+            }
             user1 = player1.getUserProfile();
             user2 = player2.getUserProfile();
 
             newGame.setPlayers(player1, player2);
             newGame.startNewGame();
             newGame.setCurrentPlayer(player1);
+            startJournal();
+
+            showBoard();
+
+        } else {
+            backToMain();
+        }
+    }
 
-            pitsPanel = makePitsPanel();
+    // lay out the pits and stores for the current game
+    private void showBoard() {
 
-            Container contentPane = getContentPane();
-            contentPane.removeAll(); // Clear existing components
-            contentPane.setLayout(new BorderLayout());
+        pitsPanel = makePitsPanel();
 
-            contentPane.add(pitsPanel, BorderLayout.CENTER);
+        Container contentPane = getContentPane();
+        contentPane.removeAll(); // Clear existing components
+        contentPane.setLayout(new BorderLayout());
 
-            createStoreButton(1);
-            createStoreButton(2);
+        contentPane.add(pitsPanel, BorderLayout.CENTER);
 
-            pitButtons = new ArrayList<>();
-            createPitButtons();
-            contentPane.setVisible(false);
-            contentPane.setVisible(true);
+        createStoreButton(1);
+        createStoreButton(2);
 
-            refreshUI();
+        pitButtons = new ArrayList<>();
+        createPitButtons();
+        contentPane.setVisible(false);
+        contentPane.setVisible(true);
 
-        } else {
-            backToMain();
-        }
+        refreshUI();
     }
 
     private void restartMancala() {
@@ -184,10 +230,13 @@ public class GUI extends JFrame {
     Player createPlayer(String playerName, int playerNum) {
 
         Player player = new Player();
-        UserProfile playerProfile = new UserProfile();
+        UserProfile playerProfile = loadProfile(playerName);
 
+        if (playerProfile == null) {
+            playerProfile = new UserProfile();
+            playerProfile.setUserName(playerName);
+        }
         player.setUserProfile(playerProfile);
-        playerProfile.setUserName(playerName);
 
         return player;
 
@@ -272,6 +321,25 @@ public class GUI extends JFrame {
 
     }
 
+    private void refreshUI(MoveResult result) {
+
+        // Update the buttons for the cells the move changed
+        for (PositionAwareButton pitButton : pitButtons) {
+            int pitNumber = pitButton.getAcross();
+            if (result.isPitChanged(pitNumber)) {
+                pitButton.setText(getPitButtonText(pitNumber));
+            }
+        }
+        if (result.isStoreChanged(1)) {
+            store1Button.setText(getStoreButtonText(1));
+        }
+        if (result.isStoreChanged(2)) {
+            store2Button.setText(getStoreButtonText(2));
+        }
+        displayLabel();
+
+    }
+
     private void handleMenuClick(ActionEvent e) {
 
         if (e.getSource() == loadGame) {
@@ -292,12 +360,14 @@ public class GUI extends JFrame {
                 JOptionPane.showMessageDialog(this, "No game in progress to save.");
                 System.exit(0);
             } else {
-                saveGame();
-                int input = JOptionPane.showConfirmDialog(this,
-                "Would you still like to quit?", "Confirm",JOptionPane.YES_NO_OPTION);
-                if (input == 0) {
-                    System.exit(0);
-                }
+                saveGame(() -> {
+                    int input = JOptionPane.showConfirmDialog(this,
+                    "Would you still like to quit?", "Confirm",JOptionPane.YES_NO_OPTION);
+                    if (input == 0) {
+                        discardJournal();
+                        System.exit(0);
+                    }
+                });
             }
         }
 
@@ -306,6 +376,7 @@ public class GUI extends JFrame {
                 int input = JOptionPane.showConfirmDialog(this,
                 "Are you sure you want to quit without saving?", "Game in progress!",JOptionPane.YES_NO_OPTION);
                 if (input == 0) {
+                    discardJournal();
                     System.exit(0);
                 }
             } else {
@@ -321,6 +392,8 @@ public class GUI extends JFrame {
             int input = JOptionPane.showConfirmDialog(this,
                 "You are about to leave this game unsaved.", "Back to Main Screen?",JOptionPane.YES_NO_OPTION);
             if (input == 0) {
+                discardJournal();
+                stopComputer();
                 backToMain();
             }
         }
@@ -354,40 +427,156 @@ public class GUI extends JFrame {
         PositionAwareButton button = (PositionAwareButton) e.getSource();
         int pitNumber = button.getAcross();
 
+        if (newGame.getCurrentPlayer() instanceof ComputerPlayer) {
+            return; // wait for the computer to finish its turn
+        }
+        playPit(pitNumber);
+    }
+
+    private void playPit(int pitNumber) {
+
         try {
-            newGame.move(pitNumber);
-            refreshUI(); // Update the UI after the move
+            MoveResult result = newGame.playMove(pitNumber);
+            refreshUI(result); // Update only what the move changed
+            // display the winner if the game is over
+            if (result.isGameOver()) {
+                discardJournal();
+                stopComputer();
+                newGame.finishGame();
+                refreshUI();
+                displayGameOver();
+            } else {
+                playComputerTurn();
+            }
         } catch (InvalidMoveException ex) {
             // show an error message
             JOptionPane.showMessageDialog(this, "Invalid move. Please try again.");
         }
-        // Check for game over and display the winner if the game is over
-        if (newGame.isGameOver()) {
-            refreshUI();
-            displayGameOver();
-        }
 
     }
 
-    private void saveGame() {
+    private void playComputerTurn() {
+
+        if (newGame.getCurrentPlayer() instanceof ComputerPlayer) {
+            MancalaGame game = newGame;
+            ComputerPlayer computer = (ComputerPlayer) game.getCurrentPlayer();
+            // short pause so the human's move is drawn before the computer replies
+            Timer timer = new Timer(400, e -> new SwingWorker<Integer, Void>() {
+                @Override
+                protected Integer doInBackground() {
+                    return computer.chooseMove(game); // search off the event thread, so the window stays responsive
+                }
+
+                @Override
+                protected void done() {
+                    if (game != newGame || !gameLoaded) {
+                        return; // the game was replaced while the computer was thinking
+                    }
+                    try {
+                        playPit(get());
+                    } catch (InterruptedException | ExecutionException ex) {
+                        JOptionPane.showMessageDialog(GUI.this, "The computer could not move: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                }
+            }.execute());
+            timer.setRepeats(false);
+            timer.start();
+        }
+    }
+
+    // save in the background, so the window stays responsive; then carries on with afterSave
+    private void saveGame(Runnable afterSave) {
+        if (saveService == null || saveCatalogue == null) {
+            JOptionPane.showMessageDialog(this, "Error saving game: the save folder is not usable.", "Error", JOptionPane.ERROR_MESSAGE);
+            afterSave.run();
+            return;
+        }
+        byte[] contents;
         try {
-            Saver.saveObject(newGame, "savedGame.ser");
-            Saver.saveObject(user1, user1.getUserName() + "_Profile.ser");
-            Saver.saveObject(user2, user2.getUserName() + "_Profile.ser");
-            JOptionPane.showMessageDialog(this, "Your game has been saved.", "Saved", JOptionPane.INFORMATION_MESSAGE);
+            if (saveSlot == 0) {
+                saveSlot = saveCatalogue.newSlot();
+            }
+            contents = SaveCatalogue.encode(saveSlot, newGame);
         } catch (IOException e) {
             JOptionPane.showMessageDialog(this, "Error saving game: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            afterSave.run();
+            return;
         }
+        UserProfile[] profiles = {user1, user2};
+        saveGame.setEnabled(false);
+        saveService.save(SaveCatalogue.getFileName(saveSlot), contents).whenComplete((done, failure) -> {
+            Throwable error = failure;
+            if (error == null) {
+                try {
+                    saveCatalogue.record(contents); // list the slot, still off the event thread
+                    // the profiles only once the game is on disk, so a failed save leaves them as they were
+                    for (UserProfile profile : profiles) {
+                        saveProfile(profile);
+                    }
+                    profileStore.flush();
+                } catch (IOException e) {
+                    error = e;
+                }
+            }
+            finishSave(error, afterSave);
+        });
+    }
 
+    // report how a background save went, back on the event thread
+    private void finishSave(Throwable error, Runnable afterSave) {
+        SwingUtilities.invokeLater(() -> {
+            saveGame.setEnabled(true);
+            if (error == null) {
+                startJournal(); // the save holds everything the journal did
+                JOptionPane.showMessageDialog(this, "Your game has been saved.", "Saved", JOptionPane.INFORMATION_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(this, "Error saving game: " + error.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            }
+            afterSave.run();
+        });
     }
 
     // method that loads a game state
     private void loadSavedGame() {
         try {
-            newGame = (MancalaGame) Saver.loadObject("savedGame.ser");
-            user1 = (UserProfile) Saver.loadObject(user1.getUserName() + "_Profile.ser");
-            user2 = (UserProfile) Saver.loadObject(user2.getUserName() + "_Profile.ser");
-            refreshUI(); // Refresh the UI with the loaded game state
+            // games saved before save slots come first, oldest first, so the newest slot is picked by default
+            List<Object> choices = new ArrayList<>();
+            List<MancalaGame> olderSaves = new ArrayList<>();
+            for (String file : new String[] {LEGACY_SAVE_FILE, SAVE_FILE}) {
+                MancalaGame older = loadOlderSave(file);
+                if (older != null) {
+                    olderSaves.add(older);
+                    choices.add("Saved before save slots: " + SaveSlot.of(0, older, 0));
+                }
+            }
+            if (saveCatalogue != null) {
+                choices.addAll(saveCatalogue.list());
+            }
+            if (choices.isEmpty()) {
+                throw new IOException("there is no saved game.");
+            }
+            Object chosen = JOptionPane.showInputDialog(this, "Choose a saved game:", "Load Saved Game",
+                JOptionPane.QUESTION_MESSAGE, null, choices.toArray(), choices.get(choices.size() - 1));
+            if (chosen == null) {
+                return;
+            }
+            discardJournal();
+            stopComputer();
+            if (chosen instanceof SaveSlot) {
+                newGame = saveCatalogue.load(((SaveSlot) chosen).getSlot(), this::loadProfile);
+                saveSlot = ((SaveSlot) chosen).getSlot();
+            } else {
+                newGame = olderSaves.get(choices.indexOf(chosen));
+                saveSlot = 0; // saving it puts it in a new slot
+            }
+            player1 = newGame.getPlayer(1);
+            player2 = newGame.getPlayer(2);
+            user1 = player1.getUserProfile();
+            user2 = player2.getUserProfile();
+            ruleSet = newGame.getBoard() instanceof AyoRules ? 2 : 1;
+            gameLoaded = true;
+            startJournal();
+            showBoard(); // Show the loaded game state
             JOptionPane.showMessageDialog(this, "Game loaded successfully.", "Loaded", JOptionPane.INFORMATION_MESSAGE);
         } catch (IOException e) {
             JOptionPane.showMessageDialog(this, "Error loading game: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
@@ -396,10 +585,150 @@ public class GUI extends JFrame {
         }
     }
 
+    // a game saved in one of the files used before save slots, or null if there is none that can be read
+    private MancalaGame loadOlderSave(String file) {
+        if (!Saver.fileExists(file)) {
+            return null;
+        }
+        try {
+            MancalaGame older = file.equals(SAVE_FILE) ? Saver.loadGame(file, this::loadProfile)
+                : (MancalaGame) Saver.loadObject(file); // saved before the compact format
+            return older.getPlayer(1) == null || older.getPlayer(2) == null ? null : older;
+        } catch (IOException | ClassCastException e) {
+            return null;
+        }
+    }
+
+    // record this game's moves so it can be recovered after a crash
+    private void startJournal() {
+        if (newGame.getJournal() != null) {
+            try {
+                newGame.getJournal().close();
+            } catch (IOException e) {
+                // the new journal below replaces it
+            }
+        }
+        try {
+            newGame.setJournal(MoveJournal.create(Saver.getPath(JOURNAL_FILE), newGame));
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "This game cannot be recovered after a crash: " + e.getMessage(),
+                "Warning", JOptionPane.WARNING_MESSAGE);
+        }
+    }
+
+    // stop recording once the game is over, saved or abandoned
+    private void discardJournal() {
+        if (newGame != null && newGame.getJournal() != null) {
+            try {
+                newGame.getJournal().discard();
+            } catch (IOException e) {
+                // a leftover journal is only offered for recovery, which can be declined
+            }
+            newGame.setJournal(null);
+        }
+    }
+
+    // stop the computer player's search threads once its game is over or replaced
+    private void stopComputer() {
+        if (newGame == null) {
+            return;
+        }
+        for (int playerNum = 1; playerNum <= 2; playerNum++) {
+            Player player = newGame.getPlayer(playerNum);
+            if (player instanceof ComputerPlayer) {
+                ((ComputerPlayer) player).stopSearch();
+            }
+        }
+    }
+
+    // offer to resume a game that was still being played when the program stopped
+    private void offerRecovery() {
+        MancalaGame recovered;
+        try {
+            recovered = MoveJournal.recover(Saver.getPath(JOURNAL_FILE), this::loadProfile);
+        } catch (IOException e) {
+            recovered = null;
+        }
+        if (recovered == null || recovered.isGameOver()) {
+            return;
+        }
+        int input = JOptionPane.showConfirmDialog(this,
+            "A game between " + recovered.getPlayer(1).getName() + " and " + recovered.getPlayer(2).getName()
+            + " was not finished. Resume it?", "Unfinished game", JOptionPane.YES_NO_OPTION);
+        newGame = recovered;
+        saveSlot = 0;
+        if (input == 0) {
+            player1 = newGame.getPlayer(1);
+            player2 = newGame.getPlayer(2);
+            user1 = player1.getUserProfile();
+            user2 = player2.getUserProfile();
+            ruleSet = newGame.getBoard() instanceof AyoRules ? 2 : 1;
+            gameLoaded = true;
+            startJournal();
+            showBoard();
+            playComputerTurn();
+        } else {
+            try {
+                java.nio.file.Files.deleteIfExists(Saver.getPath(JOURNAL_FILE));
+            } catch (IOException e) {
+                // it will be offered again next time
+            }
+        }
+    }
+
+    // profile saved for a player name, or null to start a new one
+    private UserProfile loadProfile(String name) {
+        try {
+            UserProfile profile = profileCache == null ? null : profileCache.get(name);
+            if (profile == null && Saver.fileExists(name + "_Profile.ser")) {
+                profile = (UserProfile) Saver.loadObject(name + "_Profile.ser"); // saved before the profile store
+                saveProfile(profile);
+            }
+            return profile;
+        } catch (IOException | ClassCastException e) {
+            return null;
+        }
+    }
+
+    // one record in the profile store, written in place through the cache
+    private void saveProfile(UserProfile profile) throws IOException {
+        if (profileCache == null) {
+            throw new IOException("the profile store is not usable.");
+        }
+        profileCache.put(profile);
+    }
+
+    // count a finished game for both players, in their profiles and in the store
+    private void recordResult(Player winner) {
+        for (Player player : new Player[] {player1, player2}) {
+            UserProfile profile = player.getUserProfile();
+            boolean won = player == winner;
+            if (ruleSet == 2) {
+                profile.addAyoGames(won);
+            } else {
+                profile.addKalahGames(won);
+            }
+            try {
+                if (profileStore == null) {
+                    continue;
+                }
+                if (ruleSet == 2 ? profileStore.addAyoGame(profile.getUserName(), won)
+                        : profileStore.addKalahGame(profile.getUserName(), won)) {
+                    profileCache.invalidate(profile.getUserName()); // changed behind the cache's back
+                } else {
+                    saveProfile(profile);
+                }
+            } catch (IOException e) {
+                // the profile is written whole the next time the game is saved
+            }
+        }
+    }
+
     private void displayGameOver() {
         Player winner;
         try {
             winner = newGame.getWinner();
+            recordResult(winner);
             if (winner != null) {
                 JOptionPane.showMessageDialog(this, winner.getName() + " wins!");
             } else {
@@ -420,5 +749,6 @@ public class GUI extends JFrame {
     public static void main(String[] args) {
         GUI gui = new GUI("MANCALA", 900, 300);
         gui.setVisible(true);
+        gui.offerRecovery();
     }
 }
\ No newline at end of file
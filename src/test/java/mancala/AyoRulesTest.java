@@ -75,6 +75,32 @@ public class AyoRulesTest {
         assertEquals(1,data.getNumStones(7));                
   }
 
+    @Test
+    public void testMoveStonesRelayDepth() throws InvalidMoveException {
+
+        /* same set up as the multi move test:
+        pit 4 relays from pit 7 and then from pit 12 */
+        data.addStones(12,2);
+        rules.moveStones(4,1);
+        assertEquals(2,rules.getRelayDepth());
+        assertFalse(rules.isRelayCutShort());
+  }
+
+    @Test
+    public void testMoveStonesRelayLimit() throws InvalidMoveException {
+
+        /* with no relays allowed the move stops where
+        the first lap ends, in pit 7 */
+        data.addStones(12,2);
+        rules.setRelayLimit(0);
+        int num = rules.moveStones(4,1);
+        assertEquals(1,num);
+        assertEquals(0,rules.getRelayDepth());
+        assertTrue(rules.isRelayCutShort());
+        //pit 7 keeps its stones
+        assertEquals(5,data.getNumStones(7));
+  }
+
     @Test
     public void testDistributeStonesSingleMove() {
         /*empty pit 9  setup*/
@@ -0,0 +1,73 @@
+package mancala;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class BoardStateTest {
+
+    private GameRules setUpRules(GameRules rules) {
+        rules.registerPlayers(new Player(), new Player());
+        return rules;
+    }
+
+    @Test
+    public void testRoundTrip() {
+        MancalaDataStructure data = new MancalaDataStructure();
+        data.setUpPits();
+        data.addStones(3, 20);
+        data.addToStore(2, 9);
+
+        BoardState state = BoardState.of(data, 2);
+        assertEquals(24, state.getNumStones(3));
+        assertEquals(9, state.getStoreCount(2));
+        assertEquals(2, state.getPlayer());
+
+        MancalaDataStructure copy = state.toDataStructure();
+        for (int pit = 1; pit <= 12; pit++) {
+            assertEquals(data.getNumStones(pit), copy.getNumStones(pit));
+        }
+        assertEquals(9, copy.getStoreCount(2));
+    }
+
+    @Test
+    public void testEqualsAndHashCode() {
+        MancalaDataStructure data = new MancalaDataStructure();
+        data.setUpPits();
+        BoardState one = BoardState.of(data, 1);
+        BoardState two = BoardState.of(data, 1);
+        assertEquals(one, two);
+        assertEquals(one.hashCode(), two.hashCode());
+        // same stones, different player to move
+        assertNotEquals(one, one.withPlayer(2));
+        assertEquals(one, one.withPlayer(2).withPlayer(1));
+    }
+
+    @Test
+    public void testKalahApplyMatchesMoveStones() throws InvalidMoveException {
+        GameRules rules = setUpRules(new KalahRules());
+        BoardState before = BoardState.of(rules.getDataStructure(), 1);
+        // pit 3 holds 4 stones and ends in the store: bonus turn
+        BoardState after = rules.applyMove(before, 3);
+        rules.moveStones(3, 1);
+        assertEquals(BoardState.of(rules.getDataStructure(), 1), after);
+        // the packed state it was made from is unchanged
+        assertEquals(4, before.getNumStones(3));
+    }
+
+    @Test
+    public void testAyoApplyMatchesMoveStones() throws InvalidMoveException {
+        GameRules rules = setUpRules(new AyoRules());
+        BoardState after = rules.applyMove(BoardState.of(rules.getDataStructure(), 1), 4);
+        rules.moveStones(4, 1);
+        assertEquals(BoardState.of(rules.getDataStructure(), 2), after);
+    }
+
+    @Test
+    public void testApplyInvalidMove() {
+        GameRules rules = setUpRules(new KalahRules());
+        BoardState state = BoardState.of(rules.getDataStructure(), 1);
+        assertThrows(InvalidMoveException.class, () -> rules.applyMove(state, 8));
+    }
+}
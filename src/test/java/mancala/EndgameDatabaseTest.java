@@ -0,0 +1,88 @@
+package mancala;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class EndgameDatabaseTest {
+    @TempDir
+    Path folder;
+
+    @Test
+    public void testIndexIsPerfect() {
+        // every board with up to 3 stones gets its own index below the count
+        Set<Long> seen = new HashSet<>();
+        MancalaDataStructure data = new MancalaDataStructure();
+        for (int a = 0; a < 12; a++) {
+            for (int b = a; b < 12; b++) {
+                for (int c = b; c < 12; c++) {
+                    for (int stones = 0; stones <= 3; stones++) {
+                        data.emptyPits();
+                        int[] pits = {a, b, c};
+                        for (int s = 0; s < stones; s++) {
+                            data.addToCell(EndgameDatabase.position(1, pits[s]), 1);
+                        }
+                        long index = EndgameDatabase.index(data, 1);
+                        assertTrue(index < EndgameDatabase.positionCount(stones));
+                        seen.add(index);
+                    }
+                }
+            }
+        }
+        assertEquals(EndgameDatabase.positionCount(3), seen.size());
+    }
+
+    @Test
+    public void testKalahMatchesSearch() throws IOException {
+        checkAgainstSearch(new KalahRules());
+    }
+
+    @Test
+    public void testAyoMatchesSearch() throws IOException {
+        checkAgainstSearch(new AyoRules());
+    }
+
+    @Test
+    public void testRejectsOtherFiles() throws IOException {
+        Path file = folder.resolve("junk.db");
+        Files.write(file, new byte[40]);
+        assertThrows(IOException.class, () -> EndgameDatabase.open(file));
+    }
+
+    /*the database value plus the stores is what a full search finds*/
+    private void checkAgainstSearch(GameRules rules) throws IOException {
+        Path file = folder.resolve("endgame.db");
+        EndgameBuilder builder = new EndgameBuilder(rules, 6);
+        builder.build();
+        builder.writeTo(file);
+        EndgameDatabase database = EndgameDatabase.open(file);
+        assertTrue(database.isFor(rules));
+        assertEquals(6, database.getMaxStones());
+
+        SearchEngine engine = new SearchEngine();
+        engine.setMaxDepth(40);
+        Random random = new Random(12);
+        MancalaDataStructure data = new MancalaDataStructure();
+        for (int trial = 0; trial < 200; trial++) {
+            data.emptyPits();
+            for (int s = random.nextInt(7); s > 0; s--) {
+                data.addToCell(EndgameDatabase.position(1, random.nextInt(12)), 1);
+            }
+            int player = 1 + random.nextInt(2);
+            if (SearchEngine.isOver(data)) {
+                continue;
+            }
+            engine.findBestMove(rules, data, player);
+            assertEquals(engine.getLastScore(), database.getValue(data, player));
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package mancala;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class GameArchiveTest {
+    @TempDir
+    Path folder;
+
+    /*counts what it sees and remembers each game's last position, in the order it was scanned*/
+    private static class Counter implements GameVisitor {
+        private long games;
+        private long moves;
+        private long captured;
+        private final int[] results = new int[4];
+        private final List<Long> finalKeys = new ArrayList<>();
+
+        @Override
+        public void startGame(int ruleSet, int startStones, int result, int moveCount) {
+            games++;
+            results[result + 1]++;
+        }
+
+        @Override
+        public void move(MancalaDataStructure board, int ply, int playerNum, int pit, int stones) {
+            moves++;
+            captured += stones;
+        }
+
+        @Override
+        public void endGame(MancalaDataStructure board) {
+            finalKeys.add(board.getHashKey(1));
+        }
+    }
+
+    private static List<GameRecord> randomGames(int count) throws IOException {
+        List<GameRecord> games = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            games.add(GameRecordTest.randomGame(i % 2 + 1, i % 3 == 0 ? 6 : 4, i));
+        }
+        return games;
+    }
+
+    private Path write(List<GameRecord> games, int blockGames) throws IOException {
+        Path file = folder.resolve("games.mga");
+        try (GameArchiveWriter writer = new GameArchiveWriter(Files.newOutputStream(file), blockGames)) {
+            for (GameRecord game : games) {
+                writer.add(game);
+            }
+        }
+        return file;
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        List<GameRecord> games = randomGames(50);
+        Path file = write(games, 50);
+        List<Counter> counters = GameArchive.scan(file, 1, Counter::new);
+        assertEquals(1, counters.size());
+        Counter counter = counters.get(0);
+        assertEquals(50, counter.games);
+        long moves = 0;
+        int[] results = new int[4];
+        for (int i = 0; i < games.size(); i++) {
+            GameRecord game = games.get(i);
+            moves += game.getMoveCount();
+            results[game.getResult() + 1]++;
+            assertEquals(game.replay().getDataStructure().getHashKey(1), (long) counter.finalKeys.get(i));
+        }
+        assertEquals(moves, counter.moves);
+        assertArrayEquals(results, counter.results);
+        assertEquals(50, GameArchive.getGameCount(file));
+    }
+
+    @Test
+    public void testParallelScanSeesEveryGame() throws IOException {
+        List<GameRecord> games = randomGames(200);
+        Path file = write(games, 16);
+        Counter one = GameArchive.scan(file, 1, Counter::new).get(0);
+        List<Counter> counters = GameArchive.scan(file, 4, Counter::new);
+        assertEquals(4, counters.size());
+        long total = 0;
+        long moves = 0;
+        long captured = 0;
+        for (Counter counter : counters) {
+            total += counter.games;
+            moves += counter.moves;
+            captured += counter.captured;
+        }
+        assertEquals(200, total);
+        assertEquals(one.moves, moves);
+        assertEquals(one.captured, captured);
+        assertEquals(200, GameArchive.getGameCount(file));
+    }
+
+    @Test
+    public void testMovesTakeAboutThreeBits() throws IOException {
+        List<GameRecord> games = randomGames(400);
+        long moves = 0;
+        for (GameRecord game : games) {
+            moves += game.getMoveCount();
+        }
+        Path file = write(games, GameArchiveWriter.GAMES_PER_BLOCK);
+        // about 3 bits a move before deflating, plus a few header bytes a game
+        assertTrue(Files.size(file) < moves * 3 / 8 + 400 * 4 + 64, "archive is " + Files.size(file) + " bytes");
+    }
+
+    @Test
+    public void testIllegalGameIsRejected() throws IOException {
+        Path file = folder.resolve("games.mga");
+        try (GameArchiveWriter writer = new GameArchiveWriter(Files.newOutputStream(file), 4)) {
+            writer.add(GameRecordTest.randomGame(1, 4, 1));
+            IOException e = assertThrows(IOException.class,
+                () -> writer.add(1, 4, new int[] {3, 3}, 2, GameRecord.UNFINISHED));
+            assertTrue(e.getMessage().contains("Move 2"));
+            writer.add(GameRecordTest.randomGame(2, 4, 2));
+            assertEquals(2, writer.getGameCount());
+        }
+        Counter counter = GameArchive.scan(file, 2, Counter::new).get(0);
+        assertEquals(2, counter.games);
+    }
+
+    @Test
+    public void testDamageIsDetected() throws IOException {
+        Path file = write(randomGames(20), 10);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 8] ^= 0x55;
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> GameArchive.scan(file, 2, Counter::new));
+
+        Files.write(file, new byte[] {1, 2, 3, 4, 5, 6});
+        IOException e = assertThrows(IOException.class, () -> GameArchive.getGameCount(file));
+        assertEquals("Not a game archive.", e.getMessage());
+    }
+}
@@ -0,0 +1,202 @@
+package mancala;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class GameRecordTest {
+    @TempDir
+    Path folder;
+
+    /*a whole game of random legal moves*/
+    static GameRecord randomGame(int ruleSet, int startStones, long seed) throws IOException {
+        Random random = new Random(seed);
+        GameRecord empty = new GameRecord(ruleSet, startStones, "aymann", "kulsum", new int[0], GameRecord.UNFINISHED);
+        GameRules rules = empty.replay();
+        int[] pits = new int[1000];
+        int moves = 0;
+        int playerNum = 1;
+        while (!rules.isGameOver()) {
+            int pit = SearchEngine.randomLegalPit(rules.legalMoves(playerNum), playerNum, random);
+            assertEquals(GameRules.MOVE_OK, rules.tryMove(pit, playerNum));
+            pits[moves++] = pit;
+            if (!rules.isFreeTurn()) {
+                playerNum = SearchEngine.opponent(playerNum);
+            }
+        }
+        int[] played = Arrays.copyOf(pits, moves);
+        return new GameRecord(ruleSet, startStones, "aymann", "kulsum", played,
+            GameRecord.resultOf(rules));
+    }
+
+    private static String write(GameRecord... records) throws IOException {
+        StringWriter text = new StringWriter();
+        try (GameRecordWriter writer = new GameRecordWriter(text)) {
+            for (GameRecord record : records) {
+                writer.write(record);
+            }
+        }
+        return text.toString();
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        GameRecord kalah = randomGame(1, 4, 1);
+        GameRecord ayo = randomGame(2, 4, 2);
+        GameRecord sixStones = randomGame(1, 6, 3);
+        String text = write(kalah, ayo, sixStones);
+        assertTrue(text.startsWith("[Rules \"Kalah\"]"));
+        try (GameRecordReader reader = new GameRecordReader(new StringReader(text))) {
+            assertEquals(kalah, reader.next());
+            assertEquals(ayo, reader.next());
+            assertEquals(sixStones, reader.next());
+            assertNull(reader.next());
+            assertEquals(3, reader.getGameCount());
+        }
+    }
+
+    @Test
+    public void testFormat() throws IOException {
+        GameRecord record = new GameRecord(1, 4, "a \"quoted\" name", "kulsum", new int[] {3, 2, 8}, GameRecord.UNFINISHED);
+        String expected = "[Rules \"Kalah\"]\n[StartStones \"4\"]\n[PlayerOne \"a \\\"quoted\\\" name\"]\n"
+            + "[PlayerTwo \"kulsum\"]\n[Result \"*\"]\n\n3 2 8 *\n\n";
+        assertEquals(expected, write(record).replace(System.lineSeparator(), "\n"));
+        try (GameRecordReader reader = new GameRecordReader(new StringReader(expected))) {
+            assertEquals(record, reader.next());
+        }
+    }
+
+    @Test
+    public void testIllegalMoveIsRejected() {
+        String text = "[Rules \"Kalah\"]\n[PlayerOne \"a\"]\n[PlayerTwo \"b\"]\n[Result \"*\"]\n\n3 3 *\n";
+        GameRecordReader reader = new GameRecordReader(new StringReader(text));
+        IOException e = assertThrows(IOException.class, reader::next);
+        assertTrue(e.getMessage().contains("Move 2"));
+        // and is let through when replaying is turned off
+        assertDoesNotThrow(() -> new GameRecordReader(new StringReader(text), false).next());
+    }
+
+    @Test
+    public void testWrongResultIsRejected() throws IOException {
+        GameRecord game = randomGame(1, 4, 4);
+        int wrong = game.getResult() == GameRecord.ONE_WINS ? GameRecord.TWO_WINS : GameRecord.ONE_WINS;
+        String text = write(new GameRecord(1, 4, "a", "b", game.getMoves(), wrong));
+        assertThrows(IOException.class, () -> new GameRecordReader(new StringReader(text)).next());
+        String missing = "[Rules \"Kalah\"]\n[PlayerOne \"a\"]\n[PlayerTwo \"b\"]\n[Result \"*\"]\n\n3 2\n";
+        assertThrows(IOException.class, () -> new GameRecordReader(new StringReader(missing)).next());
+        // a cut-off game is not a win unless it says it was forfeited
+        String cutOff = "[Rules \"Kalah\"]\n[PlayerOne \"a\"]\n[PlayerTwo \"b\"]\n[Result \"1-0\"]\n\n3 2 1-0\n";
+        assertThrows(IOException.class, () -> new GameRecordReader(new StringReader(cutOff)).next());
+        String noMoves = "[Rules \"Kalah\"]\n[PlayerOne \"a\"]\n[PlayerTwo \"b\"]\n[Result \"0-1\"]\n\n0-1\n";
+        assertThrows(IOException.class, () -> new GameRecordReader(new StringReader(noMoves)).next());
+    }
+
+    @Test
+    public void testForfeit() throws IOException {
+        // after 3 (a bonus turn) and 2, player two is to move
+        GameRecord forfeit = new GameRecord(1, 4, "a", "b", new int[] {3, 2}, GameRecord.ONE_WINS, true);
+        String text = write(forfeit);
+        assertTrue(text.contains("[Termination \"forfeit\"]"), text);
+        assertEquals(forfeit, new GameRecordReader(new StringReader(text)).next());
+        // the player who just moved cannot be the one who forfeited
+        String wrongSide = write(new GameRecord(1, 4, "a", "b", new int[] {3, 2}, GameRecord.TWO_WINS, true));
+        assertThrows(IOException.class, () -> new GameRecordReader(new StringReader(wrongSide)).next());
+        // nor can a game that was played out
+        GameRecord game = randomGame(1, 4, 4);
+        String over = write(new GameRecord(1, 4, "a", "b", game.getMoves(), GameRecord.ONE_WINS, true));
+        assertThrows(IOException.class, () -> new GameRecordReader(new StringReader(over)).next());
+        assertThrows(RuntimeException.class, () -> new GameRecord(1, 4, "a", "b", new int[0], GameRecord.DRAW, true));
+    }
+
+    @Test
+    public void testToGame() throws IOException {
+        GameRecord record = randomGame(2, 4, 5);
+        GameRecord firstMoves = new GameRecord(2, 4, "aymann", "kulsum", Arrays.copyOf(record.getMoves(), 6),
+            GameRecord.UNFINISHED);
+        MancalaGame game = firstMoves.toGame();
+        assertEquals(6, game.getMoveCount());
+        assertEquals(firstMoves.replay().getDataStructure().getHashKey(1), game.getDataStructure().getHashKey(1));
+    }
+
+    @Test
+    public void testStreamsLargeFile() throws IOException {
+        Path file = folder.resolve("games.txt");
+        GameRecord[] games = {randomGame(1, 4, 6), randomGame(2, 4, 7)};
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+             GameRecordWriter writer = new GameRecordWriter(out)) {
+            for (int i = 0; i < 5000; i++) {
+                writer.write(games[i % 2]);
+            }
+        }
+        int count = 0;
+        try (GameRecordReader reader = new GameRecordReader(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+            for (GameRecord record = reader.next(); record != null; record = reader.next()) {
+                assertEquals(games[count % 2], record);
+                count++;
+            }
+        }
+        assertEquals(5000, count);
+    }
+
+    @Test
+    public void testTournamentGamesReplay() throws IOException, InterruptedException {
+        Tournament tournament = new Tournament(1);
+        tournament.addEntrant("a", () -> (rules, board, playerNum) -> {
+            for (int i = 5; i >= 0; i--) {
+                if (board.getNumStones(SearchEngine.pitFor(playerNum, i)) > 0) {
+                    return SearchEngine.pitFor(playerNum, i);
+                }
+            }
+            return -1;
+        });
+        tournament.addEntrant("b", () -> (rules, board, playerNum) -> SearchEngine.pitFor(playerNum,
+            Integer.numberOfTrailingZeros(rules.legalMoves(playerNum))));
+        tournament.setGamePairs(3);
+        Path file = folder.resolve("tournament.txt");
+        tournament.setRecordsFile(file);
+        tournament.run();
+        int count = 0;
+        try (GameRecordReader reader = new GameRecordReader(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+            while (reader.next() != null) {
+                count++;
+            }
+        }
+        assertEquals(6, count);
+    }
+
+    @Test
+    public void testForfeitedTournamentGameIsALoss() throws IOException, InterruptedException {
+        Tournament tournament = new Tournament(1);
+        tournament.addEntrant("cheat", () -> (rules, board, playerNum) -> -1);
+        tournament.addEntrant("fair", () -> (rules, board, playerNum) -> SearchEngine.pitFor(playerNum,
+            Integer.numberOfTrailingZeros(rules.legalMoves(playerNum))));
+        tournament.setGamePairs(2);
+        Path file = folder.resolve("forfeits.txt");
+        tournament.setRecordsFile(file);
+        tournament.run();
+        int count = 0;
+        try (GameRecordReader reader = new GameRecordReader(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+            GameRecord game;
+            while ((game = reader.next()) != null) {
+                count++;
+                int loser = game.getPlayerName(1).startsWith("cheat") ? 1 : 2;
+                assertEquals(loser == 1 ? GameRecord.TWO_WINS : GameRecord.ONE_WINS, game.getResult());
+                assertTrue(game.isForfeit());
+                assertEquals(loser, game.getPlayerToMove());
+            }
+        }
+        assertEquals(4, count);
+    }
+}
@@ -0,0 +1,138 @@
+package mancala;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class GameStateCodecTest {
+    private MancalaGame game;
+    private Player one;
+    private Player two;
+
+    @BeforeEach
+    public void setUp() {
+        game = new MancalaGame(1);
+        one = new Player(new UserProfile("aymann", 3, 1, 2, 0));
+        two = new ComputerPlayer("kulsum");
+        game.setPlayers(one, two);
+        game.setCurrentPlayer(one);
+        for (int pit : new int[] {3, 2, 8, 1}) {
+            assertEquals(GameRules.MOVE_OK, game.tryMove(pit));
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        byte[] bytes = GameStateCodec.encode(game);
+        assertEquals(41, bytes.length);
+        Map<String, UserProfile> profiles = new HashMap<>();
+        profiles.put("aymann", one.getUserProfile());
+        MancalaGame loaded = GameStateCodec.decode(bytes, profiles::get);
+        for (int pos = 0; pos < 14; pos++) {
+            assertEquals(game.getDataStructure().getCell(pos), loaded.getDataStructure().getCell(pos));
+        }
+        assertEquals(game.getDataStructure().getHashKey(1), loaded.getDataStructure().getHashKey(1));
+        assertEquals(4, loaded.getMoveCount());
+        assertEquals(game.getCurrentPlayer().getName(), loaded.getCurrentPlayer().getName());
+        // profiles are looked up by name, or made fresh
+        assertSame(one.getUserProfile(), loaded.getPlayer(1).getUserProfile());
+        assertEquals("kulsum", loaded.getPlayer(2).getName());
+        assertTrue(loaded.getPlayer(2) instanceof ComputerPlayer);
+        assertTrue(loaded.getBoard() instanceof KalahRules);
+    }
+
+    @Test
+    public void testLoadedGamePlaysOn() throws IOException {
+        MancalaGame loaded = GameStateCodec.decode(GameStateCodec.encode(game), null);
+        int pit = game.getCurrentPlayer() == one ? 1 : 7;
+        while (game.getDataStructure().getNumStones(pit) == 0) {
+            pit++;
+        }
+        assertEquals(GameRules.MOVE_OK, game.tryMove(pit));
+        assertEquals(GameRules.MOVE_OK, loaded.tryMove(pit));
+        assertEquals(game.getDataStructure().getHashKey(1), loaded.getDataStructure().getHashKey(1));
+        assertEquals(game.getMoveCount(), loaded.getMoveCount());
+        assertEquals(game.getCurrentPlayer().getName(), loaded.getCurrentPlayer().getName());
+    }
+
+    @Test
+    public void testAyoAndPlayerTwoToMove() throws IOException {
+        MancalaGame ayo = new MancalaGame(2);
+        ayo.setPlayers(new Player(new UserProfile("a")), new Player(new UserProfile("b")));
+        ayo.setCurrentPlayer(ayo.getPlayer(2));
+        MancalaGame loaded = GameStateCodec.decode(GameStateCodec.encode(ayo), null);
+        assertTrue(loaded.getBoard() instanceof AyoRules);
+        assertEquals("b", loaded.getCurrentPlayer().getName());
+        assertEquals(0, loaded.getMoveCount());
+        assertFalse(loaded.getPlayer(1) instanceof ComputerPlayer);
+    }
+
+    @Test
+    public void testDamagedBytesRejected() throws IOException {
+        byte[] bytes = GameStateCodec.encode(game);
+        bytes[12] ^= 1;
+        assertThrows(IOException.class, () -> GameStateCodec.decode(bytes, null));
+        byte[] good = GameStateCodec.encode(game);
+        good[2] = 9;
+        IOException e = assertThrows(IOException.class, () -> GameStateCodec.decode(good, null));
+        assertTrue(e.getMessage().contains("version"));
+        assertThrows(IOException.class, () -> GameStateCodec.decode(new byte[] {0x4D, 0x47}, null));
+        assertThrows(IOException.class, () -> GameStateCodec.encode(new MancalaGame()));
+    }
+
+    @Test
+    public void testMoveCountResetsWithNewGame() {
+        assertEquals(4, game.getMoveCount());
+        game.startNewGame();
+        assertEquals(0, game.getMoveCount());
+    }
+
+    @Test
+    public void testSerializedSaveFromBeforeStillLoads() throws IOException {
+        // assets/savedGame.ser was written by the first release, before the board became an int[]
+        MancalaGame old = (MancalaGame) Saver.loadObject("savedGame.ser");
+        int[] pits = {4, 0, 0, 6, 6, 6, 5, 0, 5, 5, 5, 5};
+        for (int pit = 1; pit <= 12; pit++) {
+            assertEquals(pits[pit - 1], old.getDataStructure().getNumStones(pit));
+        }
+        assertEquals(1, old.getDataStructure().getStoreCount(1));
+        assertEquals(47, old.getDataStructure().getSideTotal(1) + old.getDataStructure().getSideTotal(2));
+        assertTrue(old.getBoard() instanceof KalahRules);
+        assertEquals("aymann", old.getCurrentPlayer().getName());
+        // and plays on and saves in the compact format like any other game
+        assertSame(old.getPlayer(2), old.getCurrentPlayer());
+        assertEquals(GameRules.MOVE_OK, old.tryMove(9));
+        MancalaGame loaded = GameStateCodec.decode(GameStateCodec.encode(old), name -> null);
+        assertEquals(old.getDataStructure().getHashKey(1), loaded.getDataStructure().getHashKey(1));
+    }
+
+    @Test
+    public void testSerializedAyoSaveFromBeforeStillRelays() throws IOException, ClassNotFoundException,
+            InvalidMoveException {
+        // a new Ayo game saved by the first release, before AyoRules had a relay limit
+        MancalaGame old;
+        try (ObjectInputStream in = new ObjectInputStream(
+                getClass().getResourceAsStream("ayoGameBeforeRelayLimit.ser"))) {
+            old = (MancalaGame) in.readObject();
+        }
+        assertTrue(old.getBoard() instanceof AyoRules);
+        assertEquals(new AyoRules().getRelayLimit(), ((AyoRules) old.getBoard()).getRelayLimit());
+        MancalaGame fresh = new MancalaGame(2);
+        fresh.setPlayers(new Player(), new Player());
+        fresh.startNewGame();
+        MoveResult expected = fresh.getBoard().playMove(1, 1);
+        MoveResult played = old.getBoard().playMove(1, 1);
+        assertEquals(expected.getLandingPit(), played.getLandingPit());
+        assertEquals(expected.getStoreGain(), played.getStoreGain());
+        assertEquals(expected.getCaptured(), played.getCaptured());
+        assertEquals(expected.getRelayCount(), played.getRelayCount());
+        assertTrue(played.getRelayCount() > 0);
+    }
+}
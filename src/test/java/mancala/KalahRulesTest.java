@@ -62,6 +62,24 @@ public class KalahRulesTest {
        assertEquals(0,data.getNumStones(12));       
   }
 
+    @Test
+    public void testMoveStonesFullLaps() throws InvalidMoveException {
+
+        /* 27 stones in pit 1 go round the 13 cells twice
+        and the last one lands in pit 2 */
+        data.addStones(1,23);
+        int num = rules.moveStones(1,1);
+
+        assertEquals(2,num);  //two laps past the store
+        //pit 1 gets a stone on each lap
+        assertEquals(2,data.getNumStones(1));
+        //pit 2 gets the extra stone
+        assertEquals(7,data.getNumStones(2));
+        assertEquals(6,data.getNumStones(12));
+        //opponent's store is skipped
+        assertEquals(0,data.getStoreCount(2));
+  }
+
     @Test
     public void testDistributeStonesSingleMove() {
   
@@ -96,4 +114,72 @@ public class KalahRulesTest {
        the responsibility of capture stones to put stones
        in the store*/
 }
-}
\ No newline at end of file
+
+    @Test
+    public void testGameOverHasNoSideEffects() {
+
+        //empty player one's side
+        for (int pit = 1; pit <= 6; pit++) {
+            data.removeStones(pit);
+        }
+        assertTrue(rules.isGameOver());
+        //checking does not move player two's stones
+        assertEquals(24,data.getSideTotal(2));
+        assertEquals(0,data.getStoreCount(2));
+
+        //finishing stores them
+        assertTrue(rules.finishGame());
+        assertEquals(0,data.getSideTotal(2));
+        assertEquals(24,data.getStoreCount(2));
+}
+
+    @Test
+    public void testPlayMoveResult() throws InvalidMoveException {
+
+        // same capture as testMoveStonesWithCapture
+        data.addStones(6,4);
+        data.removeStones(1);
+        MoveResult result = rules.playMove(6,1);
+
+        assertEquals(1,result.getLandingPit());
+        assertEquals(6,result.getCaptured());
+        assertEquals(7,result.getStoreGain());
+        assertFalse(result.isFreeTurn());
+        assertEquals(2,result.getNextPlayerNum());
+        assertFalse(result.isGameOver());
+        //pit 2 was not sown into, pit 12 was emptied by the capture
+        assertFalse(result.isPitChanged(2));
+        assertTrue(result.isPitChanged(12));
+        assertTrue(result.isStoreChanged(1));
+        assertFalse(result.isStoreChanged(2));
+        //pit 1 got the last stone but lost it to the capture
+        assertFalse(result.isPitChanged(1));
+        assertArrayEquals(new int[] {6,7,8,9,10,11,12}, result.getChangedPits());
+}
+
+    @Test
+    public void testLegalMovesMask() {
+
+        //every pit starts with stones
+        assertEquals(0b111111,rules.legalMoves(1));
+        data.removeStones(2);
+        data.removeStones(12);
+        assertEquals(0b111101,rules.legalMoves(1));
+        assertEquals(0b011111,rules.legalMoves(2));
+}
+
+    @Test
+    public void testTryMoveStatus() throws InvalidMoveException {
+
+        data.removeStones(2);
+        assertEquals(GameRules.NOT_OWN_PIT,rules.tryMove(8,1));
+        assertEquals(GameRules.NOT_OWN_PIT,rules.tryMove(13,1));
+        assertEquals(GameRules.EMPTY_PIT,rules.tryMove(2,1));
+        //rejected moves leave the board alone
+        assertEquals(4,data.getNumStones(8));
+        assertEquals(GameRules.MOVE_OK,rules.tryMove(6,1));
+        assertEquals(0,data.getNumStones(6));
+        //the exception api still reports the same rejections
+        assertThrows(InvalidMoveException.class, () -> rules.moveStones(2,1));
+}
+}
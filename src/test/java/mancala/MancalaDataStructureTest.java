@@ -0,0 +1,138 @@
+package mancala;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class MancalaDataStructureTest {
+    private MancalaDataStructure data;
+    private Player player1;
+    private Store store1;
+
+    @BeforeEach
+    public void setUp() {
+        data = new MancalaDataStructure();
+        data.setUpPits();
+        player1 = new Player();
+        store1 = new Store();
+        store1.setOwner(player1);
+        player1.setStore(store1);
+        data.setStore(store1, 1);
+    }
+
+    @Test
+    public void testStoreReadsBoardCell() {
+        // stones added through the board show up in the attached store
+        data.addToStore(1, 3);
+        assertEquals(3, store1.getStoneCount());
+        assertEquals(3, player1.getStoreCount());
+        // and stones added through the store show up on the board
+        store1.addStones(2);
+        assertEquals(5, data.getStoreCount(1));
+        assertSame(player1, data.getStoreOwner(1));
+        assertNull(data.getStoreOwner(2));
+    }
+
+    @Test
+    public void testEmptyStoresDetaches() {
+        data.addToStore(1, 4);
+        data.emptyStores();
+        assertEquals(0, data.getStoreCount(1));
+        // the old store keeps the count it had when it was replaced
+        assertEquals(4, store1.getStoneCount());
+        assertNull(data.getStoreOwner(1));
+    }
+
+    @Test
+    public void testIteratorSkipsOpponentStore() {
+        // player one sowing from pit 12 goes past store two back to pit 1
+        data.setIterator(12, 1, false);
+        assertEquals(5, data.addToNext());
+        assertEquals(1, data.getPitNum());
+        assertEquals(5, data.getNumStones(1));
+        assertEquals(0, data.getStoreCount(2));
+    }
+
+    @Test
+    public void testNextReturnsCurrentCell() {
+        data.setIterator(5, 1, false);
+        Countable cell = data.next();
+        cell.addStone();
+        assertEquals(5, data.getNumStones(6));
+        // store one is next for player one
+        data.next().addStone();
+        assertEquals(1, data.getStoreCount(1));
+        assertEquals(-1, data.getPitNum());
+    }
+
+    @Test
+    public void testSideTotals() {
+        assertEquals(24, data.getSideTotal(1));
+        assertEquals(24, data.getSideTotal(2));
+        data.removeStones(2);
+        data.addStones(9, 3);
+        // stores do not count towards either side
+        data.addToStore(2, 5);
+        assertEquals(20, data.getSideTotal(1));
+        assertEquals(27, data.getSideTotal(2));
+        data.emptyPits();
+        assertEquals(0, data.getSideTotal(1));
+        assertEquals(0, data.getSideTotal(2));
+    }
+
+    @Test
+    public void testHashFollowsPosition() {
+        long start = data.getHashKey();
+        // the same position reached two ways has the same key
+        data.removeStones(1);
+        data.addStones(2, 4);
+        long oneWay = data.getHashKey();
+        data.addStones(1, 4);
+        data.addStones(2, -4);
+        assertEquals(start, data.getHashKey());
+        data.addStones(2, 4);
+        data.addStones(1, -4);
+        assertEquals(oneWay, data.getHashKey());
+        assertNotEquals(start, oneWay);
+        // a fresh board with the same counts agrees
+        MancalaDataStructure copy = new MancalaDataStructure();
+        copy.copyFrom(data);
+        assertEquals(oneWay, copy.getHashKey());
+    }
+
+    @Test
+    public void testHashIncludesSideToMove() {
+        long playerOne = data.getHashKey();
+        data.setSideToMove(2);
+        assertNotEquals(playerOne, data.getHashKey());
+        assertEquals(playerOne, data.getHashKey(1));
+        data.setSideToMove(1);
+        assertEquals(playerOne, data.getHashKey());
+    }
+
+    @Test
+    public void testSerializedBoardReadsBack() throws IOException, ClassNotFoundException {
+        data.addToStore(1, 3);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(player1);
+            out.writeObject(data);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            Player player = (Player) in.readObject();
+            MancalaDataStructure copy = (MancalaDataStructure) in.readObject();
+            assertEquals(data.getHashKey(), copy.getHashKey());
+            assertEquals(24, copy.getSideTotal(1));
+            copy.addToStore(1, 2);
+            assertEquals(5, player.getStoreCount());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package mancala;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class MonteCarloSearchTest {
+    private KalahRules rules;
+    private MancalaDataStructure data;
+    private MonteCarloSearch search;
+
+    @BeforeEach
+    public void setUp() {
+        rules = new KalahRules();
+        rules.registerPlayers(new Player(), new Player());
+        data = rules.getDataStructure();
+        search = new MonteCarloSearch(2);
+        search.setTimeLimit(60_000);
+        search.setPlayoutLimit(20_000);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        search.shutdown();
+    }
+
+    @Test
+    public void testFindsBigCapture() {
+        /* same position as the alpha-beta test: pit 1 captures
+        the 20 stones in pit 11 */
+        data.removeStones(2);
+        data.addStones(3,1);
+        data.removeStones(1);
+        data.addStones(1,1);
+        data.addStones(11,16);
+        assertEquals(1, search.findBestMove(rules, data, 1));
+        assertTrue(search.getWinRate() > 0.9);
+    }
+
+    @Test
+    public void testPlayoutBudget() {
+        search.findBestMove(rules, data, 1);
+        assertEquals(20_000, search.getPlayoutCount());
+        for (int pit = 1; pit <= 12; pit++) {
+            assertEquals(4, data.getNumStones(pit));
+        }
+    }
+
+    @Test
+    public void testReusesTree() {
+        int pit = search.findBestMove(rules, data, 1);
+        int outcome = rules.sowStones(data, pit, 1);
+        int player = MoveOutcome.isFreeTurn(outcome) ? 1 : 2;
+        search.findBestMove(rules, data, player);
+        // the new root kept the visits it had from the first search
+        assertTrue(search.getRootVisits() > 20_000);
+    }
+
+    @Test
+    public void testAyoMove() {
+        AyoRules ayo = new AyoRules();
+        ayo.registerPlayers(new Player(), new Player());
+        int pit = search.findBestMove(ayo, ayo.getDataStructure(), 2);
+        assertTrue(pit >= 7 && pit <= 12);
+    }
+
+    @Test
+    public void testNoMove() {
+        for (int pit = 7; pit <= 12; pit++) {
+            data.removeStones(pit);
+        }
+        assertEquals(-1, search.findBestMove(rules, data, 2));
+    }
+
+    @Test
+    public void testComputerPlayerStopsItsSearch() {
+        ComputerPlayer computer = new ComputerPlayer("kulsum", 20);
+        MancalaGame game = new MancalaGame(2);
+        game.setPlayers(new Player(new UserProfile("aymann")), computer);
+        game.startNewGame();
+        game.setCurrentPlayer(computer);
+        int pit = computer.chooseMove(game);
+        assertTrue(pit >= 7 && pit <= 12);
+        assertNotNull(computer.getMonteCarloSearch());
+        computer.stopSearch();
+        assertNull(computer.getMonteCarloSearch());
+        // a later move starts a new search
+        int next = computer.chooseMove(game);
+        assertTrue(next >= 7 && next <= 12);
+        computer.stopSearch();
+    }
+}
@@ -0,0 +1,114 @@
+package mancala;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class MoveJournalTest {
+    @TempDir
+    Path folder;
+
+    private Path file;
+    private MancalaGame game;
+
+    @BeforeEach
+    public void setUp() {
+        file = folder.resolve("game.journal");
+        game = new MancalaGame(1);
+        Player one = new Player(new UserProfile("aymann"));
+        game.setPlayers(one, new Player(new UserProfile("kulsum")));
+        game.setCurrentPlayer(one);
+    }
+
+    /*play random legal moves until the game ends or the count runs out*/
+    private void playRandom(MancalaGame theGame, int moves, long seed) {
+        Random random = new Random(seed);
+        for (int i = 0; i < moves && !theGame.isGameOver(); i++) {
+            int playerNum = theGame.getCurrentPlayer() == theGame.getPlayer(1) ? 1 : 2;
+            assertEquals(GameRules.MOVE_OK, theGame.tryMove(SearchEngine.randomLegalPit(theGame.legalMoves(), playerNum,
+                random)));
+        }
+    }
+
+    private void assertSameGame(MancalaGame expected, MancalaGame actual) {
+        for (int pos = 0; pos < 14; pos++) {
+            assertEquals(expected.getDataStructure().getCell(pos), actual.getDataStructure().getCell(pos));
+        }
+        assertEquals(expected.getMoveCount(), actual.getMoveCount());
+        assertEquals(expected.getCurrentPlayer().getName(), actual.getCurrentPlayer().getName());
+    }
+
+    @Test
+    public void testRecoverReplaysMoves() throws IOException {
+        MoveJournal journal = MoveJournal.create(file, game);
+        game.setJournal(journal);
+        playRandom(game, 10, 7);
+        journal.sync();
+        // no close: as if the program stopped here
+        MancalaGame recovered = MoveJournal.recover(file, null);
+        assertSameGame(game, recovered);
+        journal.close();
+    }
+
+    @Test
+    public void testCheckpointsAndGroupCommit() throws IOException {
+        MoveJournal journal = MoveJournal.create(file, game);
+        game.setJournal(journal);
+        playRandom(game, 3 * MoveJournal.CHECKPOINT_EVERY + 5, 11);
+        journal.close();
+        assertTrue(journal.getSyncCount() <= game.getMoveCount() + 1);
+        long size = Files.size(file);
+        int checkpoints = game.getMoveCount() / MoveJournal.CHECKPOINT_EVERY + 1;
+        assertEquals(MoveJournal.HEADER_BYTES + game.getMoveCount() + checkpoints * (5 + 41), size);
+        assertSameGame(game, MoveJournal.recover(file, null));
+    }
+
+    @Test
+    public void testTornTailIgnored() throws IOException {
+        MoveJournal journal = MoveJournal.create(file, game);
+        game.setJournal(journal);
+        playRandom(game, 6, 3);
+        journal.close();
+        // a checkpoint cut off part way, as a crash during a write would leave it
+        Files.write(file, new byte[] {MoveJournal.CHECKPOINT, 0, 0, 0, 41, 0x4D, 0x47}, StandardOpenOption.APPEND);
+        assertSameGame(game, MoveJournal.recover(file, null));
+        // a byte that is not a legal move ends the replay as well
+        Files.write(file, new byte[] {0}, StandardOpenOption.APPEND);
+        assertSameGame(game, MoveJournal.recover(file, null));
+    }
+
+    @Test
+    public void testRecoveredGameContinues() throws IOException {
+        MoveJournal journal = MoveJournal.create(file, game);
+        game.setJournal(journal);
+        playRandom(game, 40, 5);
+        journal.close();
+        MancalaGame recovered = MoveJournal.recover(file, null);
+        // the recovered game starts a fresh journal and plays on
+        MoveJournal next = MoveJournal.create(file, recovered);
+        recovered.setJournal(next);
+        playRandom(recovered, 8, 9);
+        next.close();
+        assertSameGame(recovered, MoveJournal.recover(file, null));
+    }
+
+    @Test
+    public void testMissingAndDiscarded() throws IOException {
+        assertNull(MoveJournal.recover(file, null));
+        MoveJournal journal = MoveJournal.create(file, game);
+        assertTrue(Files.exists(file));
+        journal.discard();
+        assertFalse(Files.exists(file));
+        Files.write(file, new byte[] {1, 2, 3, 4, 5, 6});
+        assertThrows(IOException.class, () -> MoveJournal.recover(file, null));
+    }
+}
@@ -0,0 +1,68 @@
+package mancala;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class OpeningBookTest {
+    @TempDir
+    Path folder;
+
+    private KalahRules rules;
+    private OpeningBook book;
+
+    @BeforeEach
+    public void setUp() throws IOException, InterruptedException {
+        rules = new KalahRules();
+        rules.registerPlayers(new Player(), new Player());
+        OpeningBookBuilder builder = new OpeningBookBuilder(rules, 2, 6, 2);
+        builder.addOpenings(4);
+        builder.addOpenings(3);
+        builder.build();
+        Path file = folder.resolve("book.bin");
+        builder.writeTo(file);
+        book = OpeningBook.open(file);
+        assertEquals(builder.size(), book.size());
+    }
+
+    @Test
+    public void testBookMoveMatchesSearch() {
+        SearchEngine engine = new SearchEngine();
+        engine.setMaxDepth(6);
+        MancalaDataStructure start = rules.getDataStructure();
+        int expected = engine.findBestMove(rules, start, 1);
+        assertEquals(expected, book.getMove(start, 1));
+        assertEquals(engine.getLastScore(), book.getScore(start, 1));
+        assertEquals(6, book.getDepth(start, 1));
+        // one move in, player two's reply is in the book too
+        rules.sowStones(start, 1, 1);
+        assertEquals(engine.findBestMove(rules, start, 2), book.getMove(start, 2));
+    }
+
+    @Test
+    public void testMissReturnsMinusOne() {
+        MancalaDataStructure data = rules.getDataStructure();
+        data.addStones(5, 9);
+        assertEquals(-1, book.getMove(data, 1));
+        // three stones a pit is its own opening
+        MancalaDataStructure three = new MancalaDataStructure(3);
+        three.setUpPits();
+        assertTrue(book.getMove(three, 1) > 0);
+    }
+
+    @Test
+    public void testEngineUsesBook() {
+        SearchEngine engine = new SearchEngine();
+        engine.setOpeningBook(book);
+        int pit = engine.findBestMove(rules, rules.getDataStructure(), 1);
+        assertEquals(book.getMove(rules.getDataStructure(), 1), pit);
+        assertEquals(0, engine.getNodeCount());
+        assertFalse(book.isFor(new AyoRules()));
+    }
+}
@@ -0,0 +1,119 @@
+package mancala;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class OpeningStatisticsTest {
+    @TempDir
+    Path folder;
+
+    private final List<GameRecord> games = new ArrayList<>();
+
+    private Path archive(String name, int from, int to) throws IOException {
+        Path file = folder.resolve(name);
+        try (GameArchiveWriter writer = new GameArchiveWriter(Files.newOutputStream(file), 8)) {
+            for (int i = from; i < to; i++) {
+                GameRecord game = GameRecordTest.randomGame(i % 3 == 0 ? 2 : 1, 4, i);
+                games.add(game);
+                writer.add(game);
+            }
+        }
+        return file;
+    }
+
+    private static boolean lastMoveCaptures(int ruleSet, int[] opening) throws IOException {
+        GameRules rules = new GameRecord(ruleSet, 4, "a", "b", new int[0], GameRecord.UNFINISHED).replay();
+        int playerNum = 1;
+        MoveResult result = null;
+        for (int pit : opening) {
+            try {
+                result = rules.playMove(pit, playerNum);
+            } catch (InvalidMoveException e) {
+                fail("illegal opening");
+            }
+            playerNum = result.getNextPlayerNum();
+        }
+        return result.getCaptured() > 0;
+    }
+
+    /*the same statistics worked out one game at a time from the records*/
+    private void check(OpeningStatistics statistics, int ruleSet, int[] opening) throws IOException {
+        long count = 0;
+        long finished = 0;
+        long oneWins = 0;
+        long margin = 0;
+        long captures = 0;
+        for (GameRecord game : games) {
+            if (game.getRuleSet() != ruleSet || game.getMoveCount() < opening.length
+                    || !Arrays.equals(opening, Arrays.copyOf(game.getMoves(), opening.length))) {
+                continue;
+            }
+            count++;
+            if (opening.length > 0 && lastMoveCaptures(ruleSet, opening)) {
+                captures++;
+            }
+            if (game.getResult() != GameRecord.UNFINISHED) {
+                finished++;
+                if (game.getResult() == GameRecord.ONE_WINS) {
+                    oneWins++;
+                }
+                MancalaDataStructure end = game.replay().getDataStructure();
+                margin += end.getStoreCount(1) + end.getSideTotal(1) - end.getStoreCount(2) - end.getSideTotal(2);
+            }
+        }
+        assertEquals(count, statistics.getGames(ruleSet, 4, opening));
+        assertEquals((double) oneWins / finished, statistics.getWinRate(ruleSet, 4, 1, opening), 1e-9);
+        assertEquals((double) margin / finished, statistics.getAverageMargin(ruleSet, 4, opening), 1e-9);
+        if (opening.length > 0) {
+            assertEquals((double) captures / count, statistics.getCaptureRate(ruleSet, 4, opening), 1e-9);
+        }
+    }
+
+    @Test
+    public void testCountsMatchTheGames() throws IOException {
+        List<Path> archives = List.of(archive("a.mga", 0, 150), archive("b.mga", 150, 300));
+        OpeningStatistics statistics = OpeningStatistics.analyze(archives, 3, 3);
+        assertEquals(200, statistics.getGames(1, 4));
+        assertEquals(100, statistics.getGames(2, 4));
+        assertEquals(0, statistics.getGames(1, 6));
+        check(statistics, 1, new int[0]);
+        check(statistics, 2, new int[0]);
+        for (GameRecord game : games.subList(0, 6)) {
+            for (int length = 1; length <= 3; length++) {
+                check(statistics, game.getRuleSet(), Arrays.copyOf(game.getMoves(), length));
+            }
+        }
+        // nothing is kept past the depth
+        int[] deeper = Arrays.copyOf(games.get(0).getMoves(), 4);
+        assertEquals(0, statistics.getGames(games.get(0).getRuleSet(), 4, deeper));
+    }
+
+    @Test
+    public void testThreadsDoNotChangeTheResult() throws IOException {
+        List<Path> archives = List.of(archive("a.mga", 0, 200));
+        OpeningStatistics one = OpeningStatistics.analyze(archives, 4, 1);
+        OpeningStatistics four = OpeningStatistics.analyze(archives, 4, 4);
+        assertEquals(one.getOpeningCount(), four.getOpeningCount());
+        assertEquals(one.getReport(1), four.getReport(1));
+    }
+
+    @Test
+    public void testReport() throws IOException {
+        OpeningStatistics statistics = OpeningStatistics.analyze(List.of(archive("a.mga", 0, 60)), 2, 2);
+        String report = statistics.getReport(5);
+        assertTrue(report.startsWith("Kalah, 4 stones: 40 games"), report);
+        assertTrue(report.contains("Ayo, 4 stones: 20 games"), report);
+        assertFalse(report.contains("6 stones"));
+        assertEquals("", new OpeningStatistics(2).getReport(1));
+    }
+}
@@ -0,0 +1,62 @@
+package mancala;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class ParallelSearchTest {
+    private KalahRules rules;
+    private MancalaDataStructure data;
+    private ParallelSearch search;
+
+    @BeforeEach
+    public void setUp() {
+        rules = new KalahRules();
+        rules.registerPlayers(new Player(), new Player());
+        data = rules.getDataStructure();
+        search = new ParallelSearch(4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        search.shutdown();
+    }
+
+    @Test
+    public void testSameMoveAsSequential() {
+        SearchEngine engine = new SearchEngine();
+        int[][] moves = {{3, 1}, {6, 1}, {9, 2}, {2, 1}, {12, 2}};
+        int player = 1;
+        for (int[] move : moves) {
+            rules.sowStones(data, move[0], move[1]);
+            player = move[1] == 1 ? 2 : 1;
+            for (int depth = 7; depth <= 9; depth++) {
+                engine.setMaxDepth(depth);
+                int expected = engine.findBestMove(rules, data, player);
+                search.getTable().clear();
+                assertEquals(expected, search.findBestMove(rules, data, player, depth));
+                assertEquals(engine.getLastScore(), search.getLastScore());
+            }
+        }
+    }
+
+    @Test
+    public void testBoardUnchanged() {
+        search.findBestMove(rules, data, 1, 8);
+        for (int pit = 1; pit <= 12; pit++) {
+            assertEquals(4, data.getNumStones(pit));
+        }
+        assertTrue(search.getNodeCount() > 0);
+    }
+
+    @Test
+    public void testNoMove() {
+        for (int pit = 1; pit <= 6; pit++) {
+            data.removeStones(pit);
+        }
+        assertEquals(-1, search.findBestMove(rules, data, 1, 8));
+    }
+}
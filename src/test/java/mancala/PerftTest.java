@@ -0,0 +1,72 @@
+package mancala;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class PerftTest {
+    private KalahRules kalah;
+    private AyoRules ayo;
+
+    @BeforeEach
+    public void setUp() {
+        kalah = new KalahRules();
+        kalah.registerPlayers(new Player(), new Player());
+        ayo = new AyoRules();
+        ayo.registerPlayers(new Player(), new Player());
+    }
+
+    @Test
+    public void testKalahMatchesReference() {
+        Perft perft = new Perft(kalah);
+        for (int depth = 0; depth <= 7; depth++) {
+            assertEquals(Perft.KALAH_COUNTS[depth], perft.count(kalah.getDataStructure(), 1, depth));
+        }
+        assertTrue(perft.getNodesPerSecond(Perft.KALAH_COUNTS[7]) > 0);
+    }
+
+    @Test
+    public void testAyoMatchesReference() {
+        Perft perft = new Perft(ayo);
+        for (int depth = 0; depth <= 7; depth++) {
+            assertEquals(Perft.AYO_COUNTS[depth], perft.count(ayo.getDataStructure(), 1, depth));
+        }
+    }
+
+    @Test
+    public void testParallelMatchesSingle() {
+        Perft perft = new Perft(kalah);
+        assertEquals(Perft.KALAH_COUNTS[8], perft.countParallel(kalah.getDataStructure(), 1, 8, 4));
+        perft = new Perft(ayo);
+        assertEquals(Perft.AYO_COUNTS[8], perft.countParallel(ayo.getDataStructure(), 1, 8, 4));
+    }
+
+    @Test
+    public void testDivideSumsToCount() {
+        Perft perft = new Perft(kalah);
+        long[] counts = perft.divide(kalah.getDataStructure(), 1, 5);
+        long total = 0;
+        for (long count : counts) {
+            assertTrue(count > 0);
+            total += count;
+        }
+        assertEquals(Perft.KALAH_COUNTS[5], total);
+    }
+
+    @Test
+    public void testBoardNotChangedAndGameOverCountsNothing() {
+        MancalaDataStructure board = kalah.getDataStructure();
+        Perft perft = new Perft(kalah);
+        perft.count(board, 1, 4);
+        for (int pit = 1; pit <= 12; pit++) {
+            assertEquals(4, board.getNumStones(pit));
+        }
+        for (int pit = 1; pit <= 6; pit++) {
+            board.removeStones(pit);
+        }
+        assertEquals(0, perft.count(board, 2, 3));
+        assertEquals(1, perft.count(board, 2, 0));
+    }
+}
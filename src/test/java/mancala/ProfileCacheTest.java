@@ -0,0 +1,121 @@
+package mancala;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class ProfileCacheTest {
+    private Map<String, UserProfile> saved;
+    private int reads;
+    private ProfileBackend backend;
+
+    @BeforeEach
+    public void setUp() {
+        saved = new HashMap<>();
+        reads = 0;
+        backend = new ProfileBackend() {
+            @Override
+            public UserProfile get(String name) {
+                reads++;
+                return saved.get(name);
+            }
+
+            @Override
+            public void put(UserProfile profile) {
+                saved.put(profile.getUserName(), profile);
+            }
+        };
+        saved.put("Amina", new UserProfile("Amina", 4, 0, 2, 0));
+        saved.put("Bola", new UserProfile("Bola"));
+        saved.put("Chidi", new UserProfile("Chidi"));
+    }
+
+    @Test
+    public void testRepeatedLookupsHitMemory() throws IOException {
+        ProfileCache cache = new ProfileCache(backend, 4096, ProfileCache.WRITE_THROUGH);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(4, cache.get("Amina").getKalahGamesPlayed());
+        }
+        assertEquals(1, reads);
+        assertEquals(99, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertNull(cache.get("Nobody"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() throws IOException {
+        long room = ProfileCache.weigh(new UserProfile("Amina")) + ProfileCache.weigh(new UserProfile("Chidi"));
+        ProfileCache cache = new ProfileCache(backend, room, ProfileCache.WRITE_THROUGH);
+        cache.get("Amina");
+        cache.get("Bola");
+        cache.get("Amina"); // Bola is now the least recently used
+        cache.get("Chidi");
+        assertEquals(1, cache.getEvictionCount());
+        assertTrue(cache.getSize() <= room);
+        cache.get("Amina");
+        assertEquals(3, cache.getMissCount());
+        cache.get("Bola");
+        assertEquals(4, cache.getMissCount());
+    }
+
+    @Test
+    public void testWriteThroughReplacesCachedCopy() throws IOException {
+        ProfileCache cache = new ProfileCache(backend, 4096, ProfileCache.WRITE_THROUGH);
+        cache.get("Amina");
+        UserProfile changed = new UserProfile("Amina", 5, 0, 3, 0);
+        cache.put(changed);
+        assertSame(changed, saved.get("Amina"));
+        assertSame(changed, cache.get("Amina"));
+        assertEquals(1, cache.getWriteCount());
+    }
+
+    @Test
+    public void testWriteBehindWritesOnEvictionAndFlush() throws IOException {
+        long room = ProfileCache.weigh(new UserProfile("Amina"));
+        ProfileCache cache = new ProfileCache(backend, room, ProfileCache.WRITE_BEHIND);
+        UserProfile dina = new UserProfile("Dina");
+        cache.put(dina);
+        assertFalse(saved.containsKey("Dina"));
+        assertSame(dina, cache.get("Dina"));
+        cache.get("Amina"); // no room for both: Dina is written as she leaves
+        assertSame(dina, saved.get("Dina"));
+
+        UserProfile amina = new UserProfile("Amina", 9, 9, 9, 9);
+        cache.put(amina);
+        assertNotSame(amina, saved.get("Amina"));
+        cache.flush();
+        assertSame(amina, saved.get("Amina"));
+        assertEquals(2, cache.getWriteCount());
+    }
+
+    @Test
+    public void testInvalidateRereadsBackend() throws IOException {
+        ProfileCache cache = new ProfileCache(backend, 4096, ProfileCache.WRITE_THROUGH);
+        cache.get("Bola");
+        saved.put("Bola", new UserProfile("Bola", 0, 1, 0, 1));
+        assertEquals(0, cache.get("Bola").getAyoGamesPlayed());
+        cache.invalidate("Bola");
+        assertEquals(1, cache.get("Bola").getAyoGamesPlayed());
+        assertEquals(2, reads);
+    }
+
+    @Test
+    public void testOverProfileStore(@TempDir Path folder) throws IOException {
+        try (ProfileStore store = ProfileStore.open(folder.resolve("profiles.db"))) {
+            ProfileCache cache = new ProfileCache(store, 4096, ProfileCache.WRITE_THROUGH);
+            cache.put(new UserProfile("Amina"));
+            store.addKalahGame("Amina", true);
+            cache.invalidate("Amina");
+            assertEquals(1, cache.get("Amina").getKalahGamesWon());
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package mancala;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class ProfileStoreTest {
+    @TempDir
+    Path folder;
+
+    @Test
+    public void testPutAndGet() throws IOException {
+        try (ProfileStore store = ProfileStore.open(folder.resolve("profiles.db"))) {
+            store.put(new UserProfile("Amina", 5, 3, 2, 1));
+            store.put(new UserProfile("Bola", 1, 0, 1, 0));
+            UserProfile amina = store.get("Amina");
+            assertEquals("Amina", amina.getUserName());
+            assertEquals(5, amina.getKalahGamesPlayed());
+            assertEquals(3, amina.getAyoGamesPlayed());
+            assertEquals(2, amina.getKalahGamesWon());
+            assertEquals(1, amina.getAyoGamesWon());
+            assertNull(store.get("Chidi"));
+            assertEquals(2, store.size());
+        }
+    }
+
+    @Test
+    public void testRecordsAreFixedWidth() throws IOException {
+        Path file = folder.resolve("profiles.db");
+        try (ProfileStore store = ProfileStore.open(file)) {
+            store.put(new UserProfile("Amina"));
+            store.put(new UserProfile("Bola"));
+            store.put(new UserProfile("Amina", 9, 9, 9, 9)); // overwrites, does not append
+        }
+        assertEquals(ProfileStore.HEADER_BYTES + 2 * ProfileStore.RECORD_BYTES, Files.size(file));
+    }
+
+    @Test
+    public void testAddGamesInPlace() throws IOException {
+        try (ProfileStore store = ProfileStore.open(folder.resolve("profiles.db"))) {
+            store.put(new UserProfile("Amina"));
+            assertTrue(store.addKalahGame("Amina", true));
+            assertTrue(store.addKalahGame("Amina", false));
+            assertTrue(store.addAyoGame("Amina", true));
+            assertFalse(store.addAyoGame("Chidi", true));
+            UserProfile amina = store.get("Amina");
+            assertEquals(2, amina.getKalahGamesPlayed());
+            assertEquals(1, amina.getKalahGamesWon());
+            assertEquals(1, amina.getAyoGamesPlayed());
+            assertEquals(1, amina.getAyoGamesWon());
+        }
+    }
+
+    @Test
+    public void testReopenRebuildsIndex() throws IOException {
+        Path file = folder.resolve("profiles.db");
+        try (ProfileStore store = ProfileStore.open(file)) {
+            store.put(new UserProfile("Amina"));
+            store.put(new UserProfile("Bola"));
+            store.addAyoGame("Bola", true);
+        }
+        try (ProfileStore store = ProfileStore.open(file)) {
+            assertEquals(List.of("Amina", "Bola"), store.getNames());
+            assertTrue(store.contains("Bola"));
+            assertEquals(1, store.get("Bola").getAyoGamesWon());
+        }
+    }
+
+    @Test
+    public void testReopenEmptyStore() throws IOException {
+        Path file = folder.resolve("profiles.db");
+        ProfileStore.open(file).close();
+        assertEquals(ProfileStore.HEADER_BYTES, Files.size(file));
+        try (ProfileStore store = ProfileStore.open(file)) {
+            assertEquals(0, store.size());
+            store.put(new UserProfile("Amina"));
+        }
+        try (ProfileStore store = ProfileStore.open(file)) {
+            assertEquals(List.of("Amina"), store.getNames());
+        }
+    }
+
+    @Test
+    public void testShortHeaderIsRepaired() throws IOException {
+        // an empty store as first written: only the magic and version
+        Path file = folder.resolve("profiles.db");
+        Files.write(file, new byte[] {0x4D, 0x50, 0x52, 0x46, 0, 0, 0, 1});
+        try (ProfileStore store = ProfileStore.open(file)) {
+            assertEquals(0, store.size());
+        }
+        assertEquals(ProfileStore.HEADER_BYTES, Files.size(file));
+    }
+
+    @Test
+    public void testTornRecordIsIgnored() throws IOException {
+        Path file = folder.resolve("profiles.db");
+        try (ProfileStore store = ProfileStore.open(file)) {
+            store.put(new UserProfile("Amina"));
+            store.put(new UserProfile("Bola"));
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 10));
+        try (ProfileStore store = ProfileStore.open(file)) {
+            assertEquals(List.of("Amina"), store.getNames());
+            store.put(new UserProfile("Chidi"));
+            assertNotNull(store.get("Chidi"));
+        }
+    }
+
+    @Test
+    public void testNameTooLong() throws IOException {
+        try (ProfileStore store = ProfileStore.open(folder.resolve("profiles.db"))) {
+            assertThrows(IOException.class, () -> store.put(new UserProfile("x".repeat(ProfileStore.MAX_NAME_BYTES + 1))));
+        }
+    }
+
+    @Test
+    public void testNotAStore() throws IOException {
+        Path file = folder.resolve("profiles.db");
+        Files.write(file, new byte[ProfileStore.HEADER_BYTES]);
+        assertThrows(IOException.class, () -> ProfileStore.open(file));
+    }
+}
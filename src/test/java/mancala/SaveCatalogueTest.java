@@ -0,0 +1,150 @@
+package mancala;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class SaveCatalogueTest {
+    @TempDir
+    Path folder;
+
+    private MancalaGame game;
+
+    @BeforeEach
+    public void setUp() {
+        game = new MancalaGame(2);
+        game.setPlayers(new Player(new UserProfile("aymann")), new ComputerPlayer("kulsum"));
+        game.setCurrentPlayer(game.getPlayer(1));
+        for (int i = 0; i < 4; i++) {
+            playFirstMove();
+        }
+    }
+
+    private void playFirstMove() {
+        int pit = game.getCurrentPlayer() == game.getPlayer(1) ? 1 : 7;
+        while (game.getDataStructure().getNumStones(pit) == 0) {
+            pit++;
+        }
+        assertEquals(GameRules.MOVE_OK, game.tryMove(pit));
+    }
+
+    @Test
+    public void testSaveListAndLoad() throws IOException {
+        try (SaveCatalogue catalogue = SaveCatalogue.open(folder)) {
+            int slot = catalogue.newSlot();
+            catalogue.save(slot, game);
+            List<SaveSlot> slots = catalogue.list();
+            assertEquals(1, slots.size());
+            SaveSlot header = slots.get(0);
+            assertEquals(slot, header.getSlot());
+            assertEquals(2, header.getRuleSet());
+            assertEquals("aymann", header.getPlayerName(1));
+            assertEquals("kulsum", header.getPlayerName(2));
+            assertEquals(4, header.getMoveCount());
+            assertEquals(game.getDataStructure().getStoreCount(1), header.getStoreCount(1));
+            assertEquals(game.getDataStructure().getStoreCount(2), header.getStoreCount(2));
+            assertTrue(header.getTimestamp() > 0);
+
+            MancalaGame loaded = catalogue.load(slot, null);
+            assertEquals(game.getDataStructure().getHashKey(1), loaded.getDataStructure().getHashKey(1));
+            assertTrue(loaded.getBoard() instanceof AyoRules);
+        }
+    }
+
+    @Test
+    public void testListingReadsOnlyTheIndex() throws IOException {
+        try (SaveCatalogue catalogue = SaveCatalogue.open(folder)) {
+            for (int i = 0; i < 100; i++) {
+                catalogue.save(catalogue.newSlot(), game);
+            }
+        }
+        // a damaged game does not stop the list, only the opening of that slot
+        Path third = folder.resolve(SaveCatalogue.getFileName(3));
+        byte[] bytes = Files.readAllBytes(third);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(third, bytes);
+        try (SaveCatalogue catalogue = SaveCatalogue.open(folder)) {
+            assertEquals(100, catalogue.list().size());
+            assertEquals(3, catalogue.getSlot(3).getSlot());
+            assertThrows(IOException.class, () -> catalogue.load(3, null));
+            assertNotNull(catalogue.load(4, null));
+        }
+    }
+
+    @Test
+    public void testOverwriteAndDelete() throws IOException {
+        try (SaveCatalogue catalogue = SaveCatalogue.open(folder)) {
+            int first = catalogue.newSlot();
+            int second = catalogue.newSlot();
+            catalogue.save(first, game);
+            catalogue.save(second, game);
+            playFirstMove();
+            catalogue.save(first, game);
+            assertEquals(5, catalogue.getSlot(first).getMoveCount());
+            catalogue.delete(second);
+            assertEquals(1, catalogue.list().size());
+            assertNull(catalogue.getSlot(second));
+            assertThrows(IOException.class, () -> catalogue.load(second, null));
+        }
+    }
+
+    @Test
+    public void testIndexCatchesUpWithFolder() throws IOException {
+        try (SaveCatalogue catalogue = SaveCatalogue.open(folder)) {
+            catalogue.save(catalogue.newSlot(), game);
+            catalogue.save(catalogue.newSlot(), game);
+        }
+        // a slot written without reaching the index, and one removed behind its back
+        Files.write(folder.resolve(SaveCatalogue.getFileName(7)), SaveCatalogue.encode(7, game));
+        Files.delete(folder.resolve(SaveCatalogue.getFileName(1)));
+        try (SaveCatalogue catalogue = SaveCatalogue.open(folder)) {
+            List<SaveSlot> slots = catalogue.list();
+            assertEquals(2, slots.size());
+            assertEquals(2, slots.get(0).getSlot());
+            assertEquals(7, slots.get(1).getSlot());
+            assertEquals(8, catalogue.newSlot());
+        }
+        Files.delete(folder.resolve(SaveCatalogue.INDEX_FILE));
+        try (SaveCatalogue catalogue = SaveCatalogue.open(folder)) {
+            assertEquals(2, catalogue.list().size());
+        }
+    }
+
+    @Test
+    public void testSlotOverwrittenWithoutReachingTheIndexIsReread() throws IOException {
+        int slot;
+        try (SaveCatalogue catalogue = SaveCatalogue.open(folder)) {
+            slot = catalogue.newSlot();
+            catalogue.save(slot, game);
+        }
+        // the program stopped after replacing the slot file but before recording it
+        playFirstMove();
+        SaveService.writeAtomically(folder.resolve(SaveCatalogue.getFileName(slot)), SaveCatalogue.encode(slot, game));
+        Path index = folder.resolve(SaveCatalogue.INDEX_FILE);
+        Files.setLastModifiedTime(index, FileTime.fromMillis(Files.getLastModifiedTime(index).toMillis() - 10_000));
+        try (SaveCatalogue catalogue = SaveCatalogue.open(folder)) {
+            assertEquals(5, catalogue.getSlot(slot).getMoveCount());
+        }
+    }
+
+    @Test
+    public void testLongNamesAreCutInPreview() throws IOException {
+        String name = "\u00e9".repeat(20); // 40 bytes of UTF-8
+        game.setPlayers(new Player(new UserProfile(name)), new ComputerPlayer("kulsum"));
+        try (SaveCatalogue catalogue = SaveCatalogue.open(folder)) {
+            int slot = catalogue.newSlot();
+            catalogue.save(slot, game);
+            assertEquals("\u00e9".repeat(16), catalogue.getSlot(slot).getPlayerName(1));
+            assertEquals(name, catalogue.load(slot, null).getPlayer(1).getName());
+        }
+    }
+}
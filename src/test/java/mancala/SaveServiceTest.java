@@ -0,0 +1,103 @@
+package mancala;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class SaveServiceTest {
+    @TempDir
+    Path folder;
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String read(String name) throws IOException {
+        return new String(Files.readAllBytes(folder.resolve(name)), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testSaveReplacesWholeFile() throws Exception {
+        SaveService service = new SaveService(folder);
+        Files.write(folder.resolve("a.ser"), bytes("a much longer old version"));
+        service.save("a.ser", bytes("new")).get();
+        assertEquals("new", read("a.ser"));
+        assertFalse(Files.exists(folder.resolve("a.ser" + SaveService.TEMP_SUFFIX)));
+        service.close();
+    }
+
+    @Test
+    public void testGroupWrittenTogether() throws Exception {
+        SaveService service = new SaveService(folder);
+        Map<String, byte[]> files = new TreeMap<>();
+        files.put("game.bin", bytes("game"));
+        files.put("one_Profile.ser", bytes("one"));
+        files.put("two_Profile.ser", bytes("two"));
+        service.saveAll(files).get();
+        assertEquals("game", read("game.bin"));
+        assertEquals("two", read("two_Profile.ser"));
+        assertFalse(Files.exists(folder.resolve(SaveService.INTENT_FILE)));
+        assertEquals(1, service.getWriteCount());
+        service.close();
+    }
+
+    @Test
+    public void testFailedGroupChangesNothing() throws Exception {
+        SaveService service = new SaveService(folder);
+        Files.write(folder.resolve("game.bin"), bytes("old"));
+        Map<String, byte[]> files = new TreeMap<>();
+        files.put("game.bin", bytes("new"));
+        files.put("missing/profile.ser", bytes("cannot be written"));
+        CompletableFuture<Void> future = service.saveAll(files);
+        ExecutionException e = assertThrows(ExecutionException.class, future::get);
+        assertTrue(e.getCause() instanceof IOException);
+        assertEquals("old", read("game.bin"));
+        assertFalse(Files.exists(folder.resolve("game.bin" + SaveService.TEMP_SUFFIX)));
+        service.close();
+    }
+
+    @Test
+    public void testInterruptedRenamesFinishedOnStart() throws Exception {
+        // as a crash after the intent but before the renames would leave things
+        Files.write(folder.resolve("game.bin"), bytes("old"));
+        Files.write(folder.resolve("game.bin" + SaveService.TEMP_SUFFIX), bytes("new game"));
+        Files.write(folder.resolve("p.ser" + SaveService.TEMP_SUFFIX), bytes("new profile"));
+        Files.write(folder.resolve(SaveService.INTENT_FILE), bytes("game.bin\np.ser"));
+        new SaveService(folder).close();
+        assertEquals("new game", read("game.bin"));
+        assertEquals("new profile", read("p.ser"));
+        assertFalse(Files.exists(folder.resolve(SaveService.INTENT_FILE)));
+    }
+
+    @Test
+    public void testWaitingSavesCoalesce() throws Exception {
+        SaveService service = new SaveService(folder);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        // the writer cannot take a request while the service is locked, so these all queue up
+        synchronized (service) {
+            for (int i = 0; i < 10; i++) {
+                futures.add(service.save("game.bin", bytes("version " + i)));
+            }
+        }
+        for (CompletableFuture<Void> future : futures) {
+            future.get();
+        }
+        assertEquals("version 9", read("game.bin"));
+        assertEquals(1, service.getWriteCount());
+        assertEquals(9, service.getCoalescedCount());
+        service.close();
+    }
+}
@@ -0,0 +1,74 @@
+package mancala;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class SearchEngineTest {
+    private KalahRules rules;
+    private MancalaDataStructure data;
+    private SearchEngine engine;
+
+    @BeforeEach
+    public void setUp() {
+        rules = new KalahRules();
+        rules.registerPlayers(new Player(), new Player());
+        data = rules.getDataStructure();
+        engine = new SearchEngine();
+        engine.setMaxDepth(8);
+    }
+
+    @Test
+    public void testFindsBigCapture() {
+        /* pit 1 has one stone and pit 2 is empty, so moving
+        pit 1 captures the 20 stones opposite pit 2 in pit 11
+        (pit 3 gets an extra stone so it no longer ends in the store) */
+        data.removeStones(2);
+        data.addStones(3,1);
+        data.removeStones(1);
+        data.addStones(1,1);
+        data.addStones(11,16);
+        assertEquals(1, engine.findBestMove(rules, data, 1));
+        assertTrue(engine.getLastScore() > 10);
+    }
+
+    @Test
+    public void testTakesBonusTurnFirst() {
+        /* player one only has pit 6 (one stone, lands in the store)
+        and pit 5 (two stones); pit 6 first keeps the turn so pit 5
+        can still be played */
+        for (int pit = 1; pit <= 6; pit++) {
+            data.removeStones(pit);
+        }
+        data.addStones(6,1);
+        data.addStones(5,2);
+        assertEquals(6, engine.findBestMove(rules, data, 1));
+    }
+
+    @Test
+    public void testBoardUnchanged() {
+        engine.findBestMove(rules, data, 2);
+        for (int pit = 1; pit <= 12; pit++) {
+            assertEquals(4, data.getNumStones(pit));
+        }
+    }
+
+    @Test
+    public void testNoMove() {
+        for (int pit = 7; pit <= 12; pit++) {
+            data.removeStones(pit);
+        }
+        assertEquals(-1, engine.findBestMove(rules, data, 2));
+    }
+
+    @Test
+    public void testNodeLimit() {
+        engine.setMaxDepth(60);
+        engine.setNodeLimit(5000);
+        int pit = engine.findBestMove(rules, data, 1);
+        assertTrue(pit >= 1 && pit <= 6);
+        assertTrue(engine.getNodeCount() <= 5000 + 1024);
+    }
+}
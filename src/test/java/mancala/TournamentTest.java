@@ -0,0 +1,102 @@
+package mancala;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class TournamentTest {
+    @TempDir
+    Path folder;
+
+    /*always plays its leftmost non-empty pit*/
+    private static MoveChooser leftmost() {
+        return (rules, board, playerNum) -> {
+            for (int i = 0; i < 6; i++) {
+                int pit = SearchEngine.pitFor(playerNum, i);
+                if (board.getNumStones(pit) > 0) {
+                    return pit;
+                }
+            }
+            return -1;
+        };
+    }
+
+    private static MoveChooser search(int depth) {
+        SearchEngine engine = new SearchEngine();
+        engine.setMaxDepth(depth);
+        return engine::findBestMove;
+    }
+
+    @Test
+    public void testMatchScoreStatistics() {
+        MatchScore score = new MatchScore("a", "b");
+        assertEquals(0, score.getElo(), 1e-9);
+        assertTrue(Double.isInfinite(score.getEloError()));
+        for (int i = 0; i < 6; i++) {
+            score.add(1);
+        }
+        score.add(0.5);
+        score.add(0.5);
+        score.add(0);
+        score.add(0);
+        assertArrayEquals(new int[] {6, 2, 2}, score.getRecord());
+        // a 70% score is about 147 Elo
+        assertEquals(147.2, score.getElo(), 0.1);
+        assertTrue(score.getEloError() > 0 && score.getEloError() < 1000);
+        assertTrue(score.getLlr(0, 50) > 0);
+        assertTrue(score.getLlr(150, 200) < 0);
+        assertEquals("a vs b: +6 =2 -2, Elo +147.2 +/- 205.1", score.toString());
+    }
+
+    @Test
+    public void testPairedGamesWrittenToCsv() throws IOException, InterruptedException {
+        Tournament tournament = new Tournament(1);
+        tournament.addEntrant("search", () -> search(4));
+        tournament.addEntrant("leftmost", TournamentTest::leftmost);
+        tournament.setGamePairs(5);
+        Path file = folder.resolve("results.csv");
+        tournament.setResultsFile(file);
+        List<MatchScore> scores = tournament.run();
+        assertEquals(1, scores.size());
+        assertEquals(10, scores.get(0).getGames());
+        assertEquals(10, tournament.getGamesPlayed());
+        assertTrue(scores.get(0).getElo() > 0);
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(11, lines.size());
+        // each opening is played once from each side
+        int firstMovesFirst = 0;
+        for (String line : lines.subList(1, lines.size())) {
+            String[] fields = line.split(",");
+            if (fields[3].equals("search")) {
+                firstMovesFirst++;
+            }
+        }
+        assertEquals(5, firstMovesFirst);
+    }
+
+    @Test
+    public void testGauntletAndSprtStopEarly() throws IOException, InterruptedException {
+        Tournament tournament = new Tournament(1);
+        tournament.addEntrant("search", () -> search(4));
+        tournament.addEntrant("leftmost-a", TournamentTest::leftmost);
+        tournament.addEntrant("leftmost-b", TournamentTest::leftmost);
+        tournament.setMode(Tournament.GAUNTLET);
+        tournament.setGamePairs(500);
+        tournament.setSprt(0, 100, 0.05, 0.05);
+        List<MatchScore> scores = tournament.run();
+        // the gauntlet leaves out the leftmost-a against leftmost-b pairing
+        assertEquals(2, scores.size());
+        for (int p = 0; p < scores.size(); p++) {
+            assertEquals(1, tournament.getSprtDecision(p));
+            assertTrue(scores.get(p).getGames() < 1000);
+        }
+        assertTrue(tournament.getReport().contains("H1 accepted"));
+    }
+}
@@ -0,0 +1,47 @@
+package mancala;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class TranspositionTableTest {
+    private TranspositionTable table;
+
+    @BeforeEach
+    public void setUp() {
+        table = new TranspositionTable(16);
+    }
+
+    @Test
+    public void testStoreAndProbe() {
+        table.store(12345L, 6, -7, TranspositionTable.LOWER, 3);
+        long entry = table.probe(12345L);
+        assertEquals(6, TranspositionTable.depth(entry));
+        assertEquals(-7, TranspositionTable.score(entry));
+        assertEquals(TranspositionTable.LOWER, TranspositionTable.bound(entry));
+        assertEquals(3, TranspositionTable.move(entry));
+        assertEquals(0, table.probe(54321L));
+    }
+
+    @Test
+    public void testDeeperEntryKept() {
+        /* the bucket comes from the low half XOR the high half, so these
+        three keys share one: the deep entry stays while shallower ones
+        take turns in the other slot */
+        long deep = 1L;
+        long shallow = 1L << 32;
+        long newer = 2L << 32 | 3;
+        table.store(deep, 9, 1, TranspositionTable.EXACT, 0);
+        table.store(shallow, 2, 2, TranspositionTable.EXACT, 0);
+        table.store(newer, 3, 3, TranspositionTable.EXACT, 0);
+        assertEquals(9, TranspositionTable.depth(table.probe(deep)));
+        assertEquals(0, table.probe(shallow));
+        assertEquals(3, TranspositionTable.depth(table.probe(newer)));
+        assertEquals(2, table.size());
+        table.clear();
+        assertEquals(0, table.size());
+        assertEquals(16, table.getCapacity());
+    }
+}